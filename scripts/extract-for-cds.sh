@@ -0,0 +1,47 @@
+#!/bin/sh
+# =====================================================================
+# Unpack the Spring Boot fat jar into a layout AppCDS can use.
+#
+# CDS only archives classes loaded from plain jar files on the JVM class
+# path - not from nested jars inside the fat jar, and not from directories.
+# This produces:
+#   <out>/app.jar    application classes and resources (incl. AOT output)
+#   <out>/lib/*.jar  dependencies, unchanged
+#   <out>/jvm.args   "-cp ... <main class>" in classpath.idx order, used as
+#                    "java [options] @jvm.args" for both training and runtime
+#                    so the class path is identical in both.
+#
+# Usage: scripts/extract-for-cds.sh target/KTUVotingapp-*.jar target/cds
+# Requires the JDK 'jar' tool (run in the Maven build stage).
+# =====================================================================
+
+set -e
+
+JAR="$1"
+OUT="${2:-target/cds}"
+MAIN_CLASS="com.KTU.KTUVotingapp.KtuVotingappApplication"
+
+if [ ! -f "$JAR" ]; then
+    echo "ERROR: jar not found: $JAR" >&2
+    exit 1
+fi
+
+JAR=$(cd "$(dirname "$JAR")" && pwd)/$(basename "$JAR")
+rm -rf "$OUT"
+mkdir -p "$OUT/exploded" "$OUT/lib"
+OUT=$(cd "$OUT" && pwd)
+
+cd "$OUT/exploded"
+jar xf "$JAR"
+jar cf "$OUT/app.jar" -C BOOT-INF/classes .
+cp BOOT-INF/lib/*.jar "$OUT/lib/"
+
+CLASSPATH="app.jar"
+for entry in $(sed -n 's/^- "BOOT-INF\/\(lib\/.*\.jar\)"$/\1/p' BOOT-INF/classpath.idx); do
+    CLASSPATH="$CLASSPATH:$entry"
+done
+echo "-cp $CLASSPATH $MAIN_CLASS" > "$OUT/jvm.args"
+
+cd "$OUT"
+rm -rf exploded
+echo "Extracted to $OUT ($(ls lib | wc -l) dependency jars)"
@@ -0,0 +1,81 @@
+#!/bin/sh
+# =====================================================================
+# Startup benchmark: time from JVM launch to the first successful vote
+# for three builds of the same code:
+#   plain    java -jar (fat jar)
+#   cds      extracted class path + AppCDS archive
+#   aot-cds  extracted class path + AppCDS archive + Spring AOT
+#
+# Prerequisites:
+#   mvn -Pcds clean package -DskipTests
+#   a PostgreSQL reachable via SPRING_DATASOURCE_URL / _USERNAME / _PASSWORD
+#   curl
+#
+# Usage: scripts/startup-benchmark.sh [runs-per-variant]   (default 3)
+# =====================================================================
+
+set -e
+
+RUNS="${1:-3}"
+PORT="${PORT:-8080}"
+JAR=$(ls target/KTUVotingapp-*.jar | grep -v original | head -n 1)
+WORK="target/cds"
+
+if [ -z "$SPRING_DATASOURCE_URL" ]; then
+    echo "ERROR: set SPRING_DATASOURCE_URL (and _USERNAME / _PASSWORD)" >&2
+    exit 1
+fi
+
+# Build both archives with the same training run the Dockerfile uses
+scripts/extract-for-cds.sh "$JAR" "$WORK" > /dev/null
+(
+    cd "$WORK"
+    env -u SPRING_DATASOURCE_URL SPRING_PROFILES_ACTIVE=prod,cds-training \
+        java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh -Xlog:cds=off @jvm.args > /dev/null 2>&1
+    env -u SPRING_DATASOURCE_URL SPRING_PROFILES_ACTIVE=prod,cds-training \
+        java -XX:ArchiveClassesAtExit=app-aot.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -Xlog:cds=off @jvm.args > /dev/null 2>&1
+)
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# Polls bulk-vote from a fresh client IP until it returns 200
+time_to_first_vote() {
+    variant="$1"
+    start=$(now_ms)
+    case "$variant" in
+        plain)   (cd "$WORK" && exec java -jar "../../$JAR") > /tmp/startup-$variant.log 2>&1 & ;;
+        cds)     (cd "$WORK" && exec java -XX:SharedArchiveFile=app.jsa @jvm.args) > /tmp/startup-$variant.log 2>&1 & ;;
+        aot-cds) (cd "$WORK" && exec java -XX:SharedArchiveFile=app-aot.jsa -Dspring.aot.enabled=true @jvm.args) > /tmp/startup-$variant.log 2>&1 & ;;
+    esac
+    pid=$!
+
+    ip="10.$(( $(now_ms) % 250 )).$(( $$ % 250 )).$(( start % 250 ))"
+    body='{"deviceId":"bench","pin":"12345","votes":[{"category":"KING","candidateNumber":1},{"category":"QUEEN","candidateNumber":1},{"category":"PRINCE","candidateNumber":1},{"category":"PRINCESS","candidateNumber":1},{"category":"COUPLE","candidateNumber":1}]}'
+    status=000
+    while [ "$status" != "200" ]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "ERROR: $variant exited, see /tmp/startup-$variant.log" >&2
+            exit 1
+        fi
+        status=$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:$PORT/api/voting/bulk-vote" \
+            -H 'Content-Type: application/json' -H "X-Forwarded-For: $ip" -d "$body" || true)
+        [ "$status" = "200" ] || sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+export SPRING_PROFILES_ACTIVE=prod
+printf "%-8s %s\n" "variant" "time to first successful vote (ms)"
+for variant in plain cds aot-cds; do
+    results=""
+    for i in $(seq 1 "$RUNS"); do
+        results="$results $(time_to_first_vote "$variant")"
+    done
+    printf "%-8s%s\n" "$variant" "$results"
+done
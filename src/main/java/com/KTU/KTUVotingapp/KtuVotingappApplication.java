@@ -2,15 +2,24 @@ package com.KTU.KTUVotingapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 
-@SpringBootApplication
+// R2DBC is wired by ReactiveConfig for the 'reactive' profile only; Boot's
+// own ConnectionFactory would demand an R2DBC URL in servlet mode
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableCaching
 public class KtuVotingappApplication extends SpringBootServletInitializer {
 
     public static void main(String[] args) {
-        SpringApplication.run(KtuVotingappApplication.class, args);
+        SpringApplication application = new SpringApplication(KtuVotingappApplication.class);
+        // Records startup steps for the actuator 'startup' endpoint. It is not
+        // exposed in prod (bean names and classes, unauthenticated); enable it
+        // locally with management.endpoints.web.exposure.include=startup
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
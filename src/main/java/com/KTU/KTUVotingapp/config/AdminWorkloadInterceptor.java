@@ -0,0 +1,23 @@
+package com.KTU.KTUVotingapp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs every /api/admin/** request on the admin pool, including the
+ * service calls it makes (tally recount, candidate CRUD, results).
+ */
+public class AdminWorkloadInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        DataSourceWorkload.markAdmin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        DataSourceWorkload.clear();
+    }
+}
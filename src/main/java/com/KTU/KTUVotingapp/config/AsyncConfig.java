@@ -1,11 +1,12 @@
 package com.KTU.KTUVotingapp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Async configuration for non-blocking operations.
@@ -17,14 +18,24 @@ public class AsyncConfig {
 
     /**
      * Thread pool executor for async operations.
-     * Optimized for 1500+ concurrent users.
+     * VotingController hands ballots to it, so Tomcat request threads are
+     * not held while a ballot waits for a connection and commits.
+     * Bounded: once queue-capacity ballots are waiting and max-pool-size
+     * threads are busy, new ballots are rejected (AbortPolicy) and the
+     * controller answers 503 with Retry-After instead of queueing further.
+     * Declared as ThreadPoolTaskExecutor (an AsyncTaskExecutor) so that, with
+     * deferred JPA repository bootstrap, Spring Boot also uses it to build the
+     * EntityManagerFactory in the background during startup.
      */
     @Bean(name = "asyncVotingExecutor")
-    public Executor asyncVotingExecutor() {
+    public ThreadPoolTaskExecutor asyncVotingExecutor(@Value("${voting.async.core-pool-size:20}") int corePoolSize,
+                                                      @Value("${voting.async.max-pool-size:100}") int maxPoolSize,
+                                                      @Value("${voting.async.queue-capacity:500}") int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(20);
-        executor.setMaxPoolSize(100);
-        executor.setQueueCapacity(500);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.setThreadNamePrefix("async-voting-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
@@ -32,4 +43,3 @@ public class AsyncConfig {
         return executor;
     }
 }
-
@@ -0,0 +1,70 @@
+package com.KTU.KTUVotingapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * A Hikari pool dedicated to one workload (read, admin). When all of its
+ * connections are busy, callers wait up to its connection timeout and are
+ * then rejected. They never spill over onto the vote-write pool.
+ *
+ * Deliberately not a DataSource bean, so Spring Boot's own DataSource
+ * auto-configuration still backs off only for the primary.
+ */
+public class BulkheadPool implements DisposableBean {
+
+    private final HikariDataSource pool;
+    private final Counter rejected;
+
+    public BulkheadPool(String name, String jdbcUrl, String username, String password, boolean readOnly,
+                        int maximumPoolSize, int minimumIdle, Duration connectionTimeout, MeterRegistry registry) {
+        pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(jdbcUrl);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setReadOnly(readOnly);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setMinimumIdle(minimumIdle);
+        pool.setConnectionTimeout(connectionTimeout.toMillis());
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+
+        rejected = Counter.builder("voting.datasource.bulkhead.rejected")
+                .description("Connection requests rejected because the workload's pool was exhausted")
+                .tag("pool", name)
+                .register(registry);
+    }
+
+    public Connection getConnection() throws SQLException {
+        try {
+            return pool.getConnection();
+        } catch (SQLException e) {
+            if (isSaturated()) {
+                rejected.increment();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * True while every connection is checked out, i.e. a failure to get one
+     * means the bulkhead is full rather than the database being unreachable.
+     */
+    public boolean isSaturated() {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        return mxBean != null && mxBean.getActiveConnections() >= pool.getMaximumPoolSize();
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.KTU.KTUVotingapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Connection bulkheads: one Hikari pool per workload against the same
+ * database (or a replica for reads), so no workload can starve another.
+ *
+ *   primary  vote writes and other read-write work (spring.datasource.hikari.*)
+ *   read     @Transactional(readOnly = true) work: ResultService,
+ *            CandidateService, repository read methods
+ *            (voting.datasource.read.*). The router falls back to the
+ *            primary when the replica lags by more than max-lag.
+ *   admin    everything behind /api/admin/** (voting.datasource.admin.*)
+ *
+ * The primary DataSource bean, from DatabaseConfig or Spring Boot, is
+ * wrapped in place rather than replaced, so every DataSource consumer
+ * (JPA, Flyway, JdbcTemplate) goes through the routing.
+ */
+@Configuration
+@ConditionalOnExpression("${voting.datasource.read.enabled:false} or ${voting.datasource.admin.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public static BeanPostProcessor workloadRoutingPostProcessor(ObjectProvider<ReadReplicaRouter> readRouter,
+                                                                 @Qualifier("adminPool") ObjectProvider<BulkheadPool> adminPool) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof HikariDataSource primary) {
+                    return new LazyConnectionDataSourceProxy(new WorkloadRoutingDataSource(primary, readRouter, adminPool));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "voting.datasource.read.enabled", havingValue = "true")
+    public ReadReplicaRouter readReplicaRouter(DataSource dataSource, MeterRegistry meterRegistry,
+                                               @Value("${voting.datasource.read.url:}") String url,
+                                               @Value("${voting.datasource.read.username:}") String username,
+                                               @Value("${voting.datasource.read.password:}") String password,
+                                               @Value("${voting.datasource.read.maximum-pool-size:8}") int maximumPoolSize,
+                                               @Value("${voting.datasource.read.minimum-idle:2}") int minimumIdle,
+                                               @Value("${voting.datasource.read.connection-timeout:5s}") Duration connectionTimeout,
+                                               @Value("${voting.datasource.read.max-lag:5s}") Duration maxLag,
+                                               @Value("${voting.datasource.read.lag-check-interval:5s}") Duration lagCheckInterval)
+            throws SQLException {
+        HikariDataSource primary = dataSource.unwrap(HikariDataSource.class);
+        boolean samePrimary = url.isBlank();
+
+        BulkheadPool readPool = new BulkheadPool("read",
+                samePrimary ? primary.getJdbcUrl() : url,
+                samePrimary || username.isBlank() ? primary.getUsername() : username,
+                samePrimary || password.isBlank() ? primary.getPassword() : password,
+                true, maximumPoolSize, minimumIdle, connectionTimeout, meterRegistry);
+
+        return new ReadReplicaRouter(readPool, maxLag, lagCheckInterval, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "voting.datasource.admin.enabled", havingValue = "true")
+    public BulkheadPool adminPool(DataSource dataSource, MeterRegistry meterRegistry,
+                                  @Value("${voting.datasource.admin.maximum-pool-size:2}") int maximumPoolSize,
+                                  @Value("${voting.datasource.admin.minimum-idle:0}") int minimumIdle,
+                                  @Value("${voting.datasource.admin.connection-timeout:10s}") Duration connectionTimeout)
+            throws SQLException {
+        // Admin edits candidates, so this always targets the primary database
+        HikariDataSource primary = dataSource.unwrap(HikariDataSource.class);
+        return new BulkheadPool("admin", primary.getJdbcUrl(), primary.getUsername(), primary.getPassword(),
+                false, maximumPoolSize, minimumIdle, connectionTimeout, meterRegistry);
+    }
+}
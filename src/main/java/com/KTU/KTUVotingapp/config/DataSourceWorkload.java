@@ -0,0 +1,27 @@
+package com.KTU.KTUVotingapp.config;
+
+/**
+ * The workload the current thread is serving, used by
+ * WorkloadRoutingDataSource to pick a pool. Read-only transactions are
+ * recognized from the transaction itself; only the admin workload needs
+ * to be marked explicitly (see AdminWorkloadInterceptor).
+ */
+public final class DataSourceWorkload {
+
+    private static final ThreadLocal<Boolean> ADMIN = new ThreadLocal<>();
+
+    private DataSourceWorkload() {
+    }
+
+    public static void markAdmin() {
+        ADMIN.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        ADMIN.remove();
+    }
+
+    public static boolean isAdmin() {
+        return ADMIN.get() != null;
+    }
+}
@@ -22,6 +22,17 @@ public class DatabaseConfig {
     @Value("${DATABASE_URL:#{null}}")
     private String databaseUrl;
 
+    // Resolved through the Environment, so SPRING_DATASOURCE_* env vars and
+    // profile property files (e.g. application-cds-training.properties) both work
+    @Value("${spring.datasource.url:#{null}}")
+    private String fallbackUrl;
+
+    @Value("${spring.datasource.username:#{null}}")
+    private String fallbackUsername;
+
+    @Value("${spring.datasource.password:#{null}}")
+    private String fallbackPassword;
+
     @Bean
     @Primary
     public DataSource dataSource() throws URISyntaxException {
@@ -45,24 +56,21 @@ public class DatabaseConfig {
             dataSource.setJdbcUrl(jdbcUrl);
             dataSource.setUsername(username);
             dataSource.setPassword(password);
+            dataSource.setDriverClassName("org.postgresql.Driver");
         } else {
-            // Fallback: use individual properties from environment
-            String url = System.getenv("SPRING_DATASOURCE_URL");
-            String username = System.getenv("SPRING_DATASOURCE_USERNAME");
-            String password = System.getenv("SPRING_DATASOURCE_PASSWORD");
-
-            if (url == null || url.isEmpty()) {
+            // Fallback: use individual spring.datasource.* properties
+            if (fallbackUrl == null || fallbackUrl.isEmpty()) {
                 throw new RuntimeException("DATABASE_URL or SPRING_DATASOURCE_URL environment variable must be set");
             }
 
-            dataSource.setJdbcUrl(url);
-            dataSource.setUsername(username);
-            dataSource.setPassword(password);
+            // Driver is derived from the JDBC URL
+            dataSource.setJdbcUrl(fallbackUrl);
+            dataSource.setUsername(fallbackUsername);
+            dataSource.setPassword(fallbackPassword);
         }
 
-        dataSource.setDriverClassName("org.postgresql.Driver");
-
         // Connection pool settings
+        dataSource.setPoolName("primary");
         dataSource.setMaximumPoolSize(12);
         dataSource.setMinimumIdle(2);
         dataSource.setConnectionTimeout(30000);
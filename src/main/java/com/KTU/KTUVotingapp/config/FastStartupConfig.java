@@ -0,0 +1,60 @@
+package com.KTU.KTUVotingapp.config;
+
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Warm-boot fast path (voting.startup.fast-path=true).
+ *
+ * On every boot after the first, the schema is already at the latest Flyway
+ * version and fully seeded. In that case we skip Flyway's validate+migrate
+ * and Hibernate's schema validation, which otherwise introspect every table
+ * over the network while the instance is already registered with the load
+ * balancer. If anything is pending, both run exactly as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "voting.startup.fast-path", havingValue = "true")
+public class FastStartupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FastStartupConfig.class);
+
+    private final AtomicBoolean schemaCurrent = new AtomicBoolean(false);
+
+    @Bean
+    public FlywayMigrationStrategy fastPathMigrationStrategy() {
+        return flyway -> {
+            MigrationInfoService info = flyway.info();
+            MigrationInfo current = info.current();
+            if (current != null && info.pending().length == 0) {
+                schemaCurrent.set(true);
+                log.info("Schema already at version {}, skipping Flyway migrate and Hibernate validation",
+                        current.getVersion());
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+
+    /**
+     * Runs while the EntityManagerFactory is being built, which Spring Boot
+     * orders after the Flyway initializer, so schemaCurrent is already known.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer fastPathSchemaValidation() {
+        return properties -> {
+            if (schemaCurrent.get()) {
+                properties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.KTU.KTUVotingapp.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+/**
+ * Reactive deployment mode (profile 'reactive', see
+ * application-reactive.properties): the voting, candidates, results and
+ * PIN APIs are served by WebFlux on Netty's event loop and talk to
+ * PostgreSQL through a non-blocking R2DBC pool. The servlet controllers for
+ * those URLs are not registered in this mode.
+ *
+ * The JDBC DataSource stays: Flyway migrates through it, and the
+ * background services (candidate bitsets, live results, cluster listener)
+ * and startup warm-up keep using JPA off the event loop. /api/admin/** is
+ * servlet-only and not available in this mode.
+ *
+ * The R2DBC pool is deliberately not a ConnectionFactory bean: Spring Boot
+ * drops its JDBC DataSource when one exists. For the same reason there is
+ * no ReactiveTransactionManager bean, which next to the JPA transaction
+ * manager would make every @Transactional ambiguous. Both live only inside
+ * the DatabaseClient and TransactionalOperator beans.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveConfig(@Value("${voting.reactive.r2dbc.url}") String url,
+                          @Value("${voting.reactive.r2dbc.username}") String username,
+                          @Value("${voting.reactive.r2dbc.password}") String password,
+                          @Value("${voting.reactive.r2dbc.initial-size:2}") int initialSize,
+                          @Value("${voting.reactive.r2dbc.max-size:10}") int maxSize,
+                          @Value("${voting.reactive.r2dbc.max-acquire-time:5s}") Duration maxAcquireTime) {
+        ConnectionFactory postgres = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(postgres)
+                .name("reactive")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    /**
+     * Netty rather than Tomcat: with both on the class path Spring Boot
+     * would otherwise run WebFlux on Tomcat. Netty's event-loop size comes
+     * from -Dreactor.netty.ioWorkerCount (default: one per CPU).
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,141 @@
+package com.KTU.KTUVotingapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the read pool and decides, per connection request, whether read-only
+ * work may use it. It falls back to the primary when the replica's replay lag
+ * exceeds maxLag, the last lag check failed, or the replica is unreachable.
+ * A read pool that is merely exhausted rejects the read instead: spilling
+ * onto the primary would let a results stampede starve vote writes.
+ *
+ * Lag is checked every checkInterval. On a primary (or when the read pool
+ * points at the primary database) it is always zero.
+ */
+public class ReadReplicaRouter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRouter.class);
+
+    // Replay lag in seconds; zero when not a standby or fully caught up
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final BulkheadPool readPool;
+    private final double maxLagSeconds;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-lag-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter routedToReplica;
+    private final Counter routedToPrimary;
+
+    private volatile double lagSeconds;
+    private volatile boolean available = true;
+
+    public ReadReplicaRouter(BulkheadPool readPool, Duration maxLag, Duration checkInterval, MeterRegistry registry) {
+        this.readPool = readPool;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+
+        this.routedToReplica = Counter.builder("voting.datasource.read.routed")
+                .description("Read-only connection requests by the pool that served them")
+                .tag("target", "replica")
+                .register(registry);
+        this.routedToPrimary = Counter.builder("voting.datasource.read.routed")
+                .description("Read-only connection requests by the pool that served them")
+                .tag("target", "primary")
+                .register(registry);
+        Gauge.builder("voting.datasource.replica.lag", this, router -> router.lagSeconds)
+                .description("Replay lag of the read pool's database")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("voting.datasource.replica.available", this, router -> router.isUsable() ? 1 : 0)
+                .description("1 while read-only work is routed to the read pool")
+                .register(registry);
+
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A read pool connection, or null if the caller should use the primary.
+     *
+     * @throws SQLException if the read pool is exhausted
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (!isUsable()) {
+            routedToPrimary.increment();
+            return null;
+        }
+        try {
+            Connection connection = readPool.getConnection();
+            routedToReplica.increment();
+            return connection;
+        } catch (SQLException e) {
+            if (readPool.isSaturated()) {
+                throw e;
+            }
+            // Unreachable: stay on the primary until the next successful lag check
+            available = false;
+            routedToPrimary.increment();
+            log.warn("Read pool unavailable, routing reads to primary: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean isUsable() {
+        return available && lagSeconds <= maxLagSeconds;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    private void checkLag() {
+        boolean wasUsable = isUsable();
+        try (Connection connection = readPool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            lagSeconds = rs.getDouble(1);
+            available = true;
+        } catch (SQLException | RuntimeException e) {
+            // A full pool says nothing about the replica; keep the last state
+            if (!readPool.isSaturated()) {
+                available = false;
+            }
+            log.debug("Replica lag check failed: {}", e.getMessage());
+        }
+
+        if (wasUsable != isUsable()) {
+            if (isUsable()) {
+                log.info("Read pool back in use (lag {} s)", lagSeconds);
+            } else {
+                log.warn("Routing reads to primary: replica {} (lag {} s, max {} s)",
+                        available ? "lagging" : "unreachable", lagSeconds, maxLagSeconds);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        readPool.destroy();
+    }
+}
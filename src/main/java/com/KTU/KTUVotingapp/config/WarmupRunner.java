@@ -0,0 +1,103 @@
+package com.KTU.KTUVotingapp.config;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.CandidateService;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.ResultService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup warm-up (voting.startup.warmup.enabled, on by default).
+ *
+ * Spring Boot only switches the readiness probe to ACCEPTING_TRAFFIC after
+ * all ApplicationRunners have returned, so while this runs the instance
+ * reports readiness DOWN and the load balancer keeps traffic away from it.
+ * In that window we fill the candidates and results caches for every
+ * category (which also forces the deferred EntityManagerFactory and the
+ * repository queries to initialize) and run the JSON paths of the hot
+ * endpoints enough times for the JIT to compile them.
+ *
+ * A failure is logged and the instance still becomes ready: it then serves
+ * cold, exactly as it did before warm-up existed.
+ */
+@Component
+@ConditionalOnProperty(name = "voting.startup.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final CandidateService candidateService;
+    private final ResultService resultService;
+    private final CategoryRegistry categoryRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${voting.startup.warmup.iterations:2000}")
+    private int iterations;
+
+    public WarmupRunner(CandidateService candidateService, ResultService resultService,
+                        CategoryRegistry categoryRegistry, ObjectMapper objectMapper) {
+        this.candidateService = candidateService;
+        this.resultService = resultService;
+        this.categoryRegistry = categoryRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            List<List<CandidateDTO>> candidates = new ArrayList<>();
+            for (Category category : categoryRegistry.all()) {
+                candidates.add(candidateService.getCandidatesByCategory(category));
+                resultService.getResultsByCategory(category);
+            }
+            List<ResultDTO> allResults = resultService.getAllResults();
+            String sampleBulkVote = objectMapper.writeValueAsString(sampleBulkVote());
+            long cachesWarm = System.nanoTime();
+
+            // Synthetic request/response cycles; nothing is written to the database
+            long bytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                BulkVoteRequest request = objectMapper.readValue(sampleBulkVote, BulkVoteRequest.class);
+                bytes += request.getVotes().size();
+                bytes += objectMapper.writeValueAsBytes(candidates.get(i % candidates.size())).length;
+                bytes += objectMapper.writeValueAsBytes(allResults).length;
+            }
+
+            log.info("Warm-up finished in {} ms (caches {} ms, {} JSON iterations, {} bytes)",
+                    (System.nanoTime() - start) / 1_000_000, (cachesWarm - start) / 1_000_000, iterations, bytes);
+        } catch (Exception e) {
+            log.warn("Warm-up failed after {} ms, accepting traffic cold: {}",
+                    (System.nanoTime() - start) / 1_000_000, e.getMessage());
+        }
+    }
+
+    // A full ballot: candidate 1 in every category
+    private BulkVoteRequest sampleBulkVote() {
+        List<BulkVoteRequest.VoteItem> votes = new ArrayList<>();
+        for (Category category : categoryRegistry.all()) {
+            BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+            item.setCategory(category.getCode());
+            item.setCandidateNumber(1);
+            votes.add(item);
+        }
+        BulkVoteRequest request = new BulkVoteRequest();
+        request.setDeviceId("warmup");
+        request.setPin("00000");
+        request.setVotes(votes);
+        return request;
+    }
+}
@@ -1,6 +1,7 @@
 package com.KTU.KTUVotingapp.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -22,5 +23,12 @@ public class WebConfig implements WebMvcConfigurer {
                 .addResourceLocations("classpath:/static/")
                 .setCachePeriod(3600);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Admin work uses its own connection pool (see DataSourceRoutingConfig)
+        registry.addInterceptor(new AdminWorkloadInterceptor())
+                .addPathPatterns("/api/admin/**");
+    }
 }
 
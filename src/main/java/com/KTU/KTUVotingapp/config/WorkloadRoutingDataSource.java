@@ -0,0 +1,73 @@
+package com.KTU.KTUVotingapp.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Picks a pool per connection request:
+ *   admin requests                        admin pool
+ *   @Transactional(readOnly = true)       read pool (unless the router
+ *                                         falls back to primary on lag)
+ *   everything else, i.e. vote writes     primary pool
+ * A workload whose pool is not enabled uses the primary.
+ *
+ * The read-only flag is only set once the transaction has begun, after
+ * JPA has asked for its connection, so this must sit behind a
+ * LazyConnectionDataSourceProxy that defers the real getConnection() to
+ * the first statement (see DataSourceRoutingConfig).
+ */
+class WorkloadRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ObjectProvider<ReadReplicaRouter> readRouter;
+    private final ObjectProvider<BulkheadPool> adminPool;
+
+    WorkloadRoutingDataSource(DataSource primary, ObjectProvider<ReadReplicaRouter> readRouter,
+                              ObjectProvider<BulkheadPool> adminPool) {
+        this.primary = primary;
+        this.readRouter = readRouter;
+        this.adminPool = adminPool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceWorkload.isAdmin()) {
+            BulkheadPool admin = adminPool.getIfAvailable();
+            if (admin != null) {
+                return admin.getConnection();
+            }
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadReplicaRouter router = readRouter.getIfAvailable();
+            Connection connection = router != null ? router.getReadConnection() : null;
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Let callers (metrics, ClusterSyncService) still reach the primary Hikari pool
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
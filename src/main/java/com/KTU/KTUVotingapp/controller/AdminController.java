@@ -1,33 +1,78 @@
 package com.KTU.KTUVotingapp.controller;
 
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.dto.CandidateImportDTO;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
 import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.dto.TallyConsistencyDTO;
 import com.KTU.KTUVotingapp.exception.ResourceNotFoundException;
 import com.KTU.KTUVotingapp.model.Candidate;
 import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.BallotValidator;
+import com.KTU.KTUVotingapp.service.CandidateImportService;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.ElectionService;
+import com.KTU.KTUVotingapp.service.LiveResultsService;
 import com.KTU.KTUVotingapp.service.ResultService;
+import com.KTU.KTUVotingapp.service.ResultsSnapshot;
+import com.KTU.KTUVotingapp.service.TurnoutService;
+import com.KTU.KTUVotingapp.service.VoteExportService;
 import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+// Admin-only: created on the first admin request rather than during startup
+@Lazy
+// Servlet stack only; the reactive profile has no admin API
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/admin")
 @CrossOrigin(origins = "*")
 public class AdminController {
 
     private final ResultService resultService;
+    private final LiveResultsService liveResultsService;
+    private final BallotValidator ballotValidator;
+    private final VoteExportService voteExportService;
+    private final TurnoutService turnoutService;
+    private final ElectionService electionService;
+    private final CandidateImportService candidateImportService;
 
     private String adminPin;
 
     // Inject repository directly to avoid costly/contextual lookups per request
     private final CandidateRepository candidateRepository;
+    private final CategoryRegistry categoryRegistry;
 
-    public AdminController(ResultService resultService, CandidateRepository candidateRepository) {
+    public AdminController(ResultService resultService, LiveResultsService liveResultsService,
+                           CandidateRepository candidateRepository, BallotValidator ballotValidator,
+                           VoteExportService voteExportService, TurnoutService turnoutService,
+                           ElectionService electionService, CategoryRegistry categoryRegistry,
+                           CandidateImportService candidateImportService) {
         this.resultService = resultService;
+        this.liveResultsService = liveResultsService;
+        this.ballotValidator = ballotValidator;
+        this.voteExportService = voteExportService;
+        this.turnoutService = turnoutService;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        this.candidateImportService = candidateImportService;
         // Surgical fix: initialize adminPin so admin endpoints using adminPin checks work.
         // This avoids null checks failing and allows the front-end to authenticate using the hardcoded PIN.
         this.adminPin = "99999";
@@ -52,7 +97,7 @@ public class AdminController {
         Map<String, Map<Integer, Long>> results = new LinkedHashMap<>();
 
         // For each category, collect counts for candidate numbers
-        for (Category category : Category.values()) {
+        for (Category category : categoryRegistry.all()) {
             ResultDTO categoryResults = resultService.getResultsByCategory(category);
             Map<Integer, Long> counts = new LinkedHashMap<>();
             
@@ -60,7 +105,7 @@ public class AdminController {
                 counts.put(candidate.getCandidateNumber(), candidate.getVoteCount());
             }
             
-            results.put(category.name(), counts);
+            results.put(category.getCode(), counts);
         }
 
         return ResponseEntity.ok(results);
@@ -81,22 +126,144 @@ public class AdminController {
     }
 
     /**
-     * Live admin flattened candidate results for dashboard polling.
-     * GET /api/admin/results?adminPin=99999
+     * Live admin flattened candidate results for dashboard polling, most
+     * votes first. Served from the in-process live results, already ranked,
+     * so polling costs no queries and no sorting, and tagged with the
+     * results version like ResultController. top limits the list to the
+     * leaders; category ranks within one category.
+     * GET /api/admin/results?adminPin=99999[&top=10][&category=KING]
      */
     @GetMapping(value = "/results", params = "adminPin")
-    public ResponseEntity<java.util.List<ResultDTO.CandidateResultDTO>> getLiveAdminResults(@RequestParam("adminPin") String pin) {
+    public ResponseEntity<?> getLiveAdminResults(@RequestParam("adminPin") String pin,
+                                                 @RequestParam(value = "top", required = false) Integer top,
+                                                 @RequestParam(value = "category", required = false) String category) {
         if (pin == null || !pin.equals(adminPin)) {
             return ResponseEntity.status(403).build();
         }
 
-        java.util.List<ResultDTO> all = resultService.getAllResults();
-        java.util.List<ResultDTO.CandidateResultDTO> candidates = all.stream()
-                .flatMap(r -> r.getCandidates().stream())
-                .sorted(java.util.Comparator.comparingLong(ResultDTO.CandidateResultDTO::getVoteCount).reversed())
-                .collect(java.util.stream.Collectors.toList());
+        ResultsSnapshot snapshot = liveResultsService.getSnapshot();
+        List<ResultDTO.CandidateResultDTO> candidates;
+        if (category != null) {
+            Category resolved = categoryRegistry.findByCode(category.toUpperCase()).orElse(null);
+            if (resolved == null) {
+                return ResponseEntity.badRequest().body("Unknown category: " + category);
+            }
+            candidates = snapshot.getTop(resolved, top != null ? top : Integer.MAX_VALUE);
+        } else {
+            candidates = top != null ? snapshot.getTop(top) : snapshot.getLeaderboard();
+        }
+        return ResponseEntity.ok()
+                .eTag(ResultController.eTag(snapshot))
+                .body(candidates);
+    }
+
+    /**
+     * A candidate's live rank overall and within its category (1 for the
+     * most votes; equal counts share a rank).
+     * GET /api/admin/results/rank?adminPin=99999&candidateId={id}
+     */
+    @GetMapping("/results/rank")
+    public ResponseEntity<?> getCandidateRank(@RequestParam("adminPin") String pin,
+                                              @RequestParam("candidateId") Long candidateId) {
+        if (pin == null || !pin.equals(adminPin)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        ResultsSnapshot snapshot = liveResultsService.getSnapshot();
+        Integer rank = snapshot.getRank(candidateId);
+        if (rank == null) {
+            throw new ResourceNotFoundException("Candidate not found: " + candidateId);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("candidateId", candidateId);
+        body.put("rank", rank);
+        body.put("categoryRank", snapshot.getCategoryRank(candidateId));
+        body.put("version", snapshot.getVersion());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Recount all votes and report drift against the stored tallies
+     * (category_totals and candidates.vote_count).
+     * GET /api/admin/tally/consistency?adminPin=99999
+     */
+    @GetMapping("/tally/consistency")
+    public ResponseEntity<?> checkTallyConsistency(@RequestParam("adminPin") String pin) {
+        if (pin == null || !pin.equals(adminPin)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        TallyConsistencyDTO report = resultService.checkTallyConsistency();
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Votes per category per second or minute, from in-memory counts.
+     * GET /api/admin/turnout?adminPin=99999&resolution=second|minute&from=...&to=...
+     * from and to are ISO-8601 instants; the default is the last 60 buckets.
+     */
+    @GetMapping("/turnout")
+    public ResponseEntity<?> getTurnout(@RequestParam("adminPin") String pin,
+                                        @RequestParam(value = "resolution", defaultValue = "minute") String resolution,
+                                        @RequestParam(value = "from", required = false) String from,
+                                        @RequestParam(value = "to", required = false) String to) {
+        if (pin == null || !pin.equals(adminPin)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        TurnoutService.Resolution bucket;
+        Instant end;
+        Instant start;
+        try {
+            bucket = TurnoutService.Resolution.valueOf(resolution.toUpperCase());
+            end = to != null ? Instant.parse(to) : Instant.now();
+            start = from != null ? Instant.parse(from) : end.minusSeconds(59 * bucket.getBucketSeconds());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("resolution must be second or minute; from and to ISO-8601 instants");
+        }
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body("from must not be after to");
+        }
+
+        return ResponseEntity.ok(turnoutService.getTurnout(bucket, start, end));
+    }
 
-        return ResponseEntity.ok(candidates);
+    /**
+     * Download every vote for auditing, streamed as it is read.
+     * GET /api/admin/votes/export?adminPin=99999&format=csv|ndjson&gzip=true
+     *
+     * Written on the request thread rather than as a StreamingResponseBody,
+     * so a long export is not cut off by spring.mvc.async.request-timeout.
+     */
+    @GetMapping("/votes/export")
+    public void exportVotes(@RequestParam("adminPin") String pin,
+                            @RequestParam(value = "format", defaultValue = "csv") String format,
+                            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                            HttpServletResponse response) throws IOException {
+        if (pin == null || !pin.equals(adminPin)) {
+            response.sendError(403, "Forbidden");
+            return;
+        }
+        VoteExportService.Format exportFormat;
+        try {
+            exportFormat = VoteExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(400, "format must be csv or ndjson");
+            return;
+        }
+
+        String filename = "votes-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        // No Content-Length: Tomcat sends the body chunked as it is written
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+            voteExportService.export(electionService.getCurrentElectionId(), exportFormat, compressed);
+            compressed.finish();
+        } else {
+            voteExportService.export(electionService.getCurrentElectionId(), exportFormat, out);
+        }
     }
 
     @GetMapping("/candidates")
@@ -105,9 +272,9 @@ public class AdminController {
             return ResponseEntity.status(403).build();
         }
 
-        java.util.List<com.KTU.KTUVotingapp.model.Candidate> list = candidateRepository.findAll();
+        java.util.List<com.KTU.KTUVotingapp.model.Candidate> list = candidateRepository.findByElectionId(electionService.getCurrentElectionId());
         java.util.List<com.KTU.KTUVotingapp.dto.CandidateDTO> dtos = list.stream()
-                .map(c -> new com.KTU.KTUVotingapp.dto.CandidateDTO(c.getId(), c.getCategory(), c.getCandidateNumber(), c.getName(), c.getDepartment(), c.getImageUrl(), c.getVoteCount()))
+                .map(c -> new com.KTU.KTUVotingapp.dto.CandidateDTO(c.getId(), categoryRegistry.byId(c.getCategoryId()).getCode(), c.getCandidateNumber(), c.getName(), c.getDepartment(), c.getImageUrl(), c.getVoteCount()))
                 .collect(java.util.stream.Collectors.toList());
 
         return ResponseEntity.ok(dtos);
@@ -120,9 +287,19 @@ public class AdminController {
             return org.springframework.http.ResponseEntity.status(403).body("Forbidden");
         }
 
+        java.util.Optional<Category> category = categoryRegistry.findByCode(dto.getCategory());
+        if (category.isEmpty()) {
+            return org.springframework.http.ResponseEntity.badRequest().body("Unknown category: " + dto.getCategory());
+        }
+        if (!validCandidateNumber(dto.getCandidateNumber())) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body("candidateNumber must be 1 to " + CompactBallot.MAX_CANDIDATE_NUMBER);
+        }
+
         // Use injected repository instead of fetching from WebApplicationContext per-request
         com.KTU.KTUVotingapp.model.Candidate candidate = new com.KTU.KTUVotingapp.model.Candidate();
-        candidate.setCategory(dto.getCategory());
+        candidate.setElectionId(electionService.getCurrentElectionId());
+        candidate.setCategoryId(category.get().getId());
         candidate.setCandidateNumber(dto.getCandidateNumber());
         candidate.setName(dto.getName());
         candidate.setDepartment(dto.getDepartment());
@@ -130,26 +307,57 @@ public class AdminController {
         candidate.setVoteCount(dto.getVoteCount() != null ? dto.getVoteCount() : 0L);
 
         com.KTU.KTUVotingapp.model.Candidate saved = candidateRepository.save(candidate);
+        ballotValidator.refresh();
 
         com.KTU.KTUVotingapp.dto.CandidateDTO response = new com.KTU.KTUVotingapp.dto.CandidateDTO(
-                saved.getId(), saved.getCategory(), saved.getCandidateNumber(), saved.getName(), saved.getDepartment(), saved.getImageUrl(), saved.getVoteCount()
+                saved.getId(), categoryRegistry.byId(saved.getCategoryId()).getCode(), saved.getCandidateNumber(), saved.getName(), saved.getDepartment(), saved.getImageUrl(), saved.getVoteCount()
         );
 
         return org.springframework.http.ResponseEntity.ok(response);
     }
 
+    /**
+     * Bulk import candidates into the current election: a JSON list shaped
+     * like POST /candidates (id and voteCount ignored), or CSV with the
+     * header category,candidateNumber,name,department,imageUrl. Existing
+     * (category, candidateNumber) pairs are updated and keep their votes.
+     * 200 with the inserted/updated counts, or 400 listing every rejected
+     * row, in which case nothing is written.
+     * POST /api/admin/candidates/import?adminPin=99999
+     */
+    @PostMapping(value = "/candidates/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importCandidates(@RequestParam("adminPin") String pin,
+                                              @RequestBody List<CandidateDTO> candidates) {
+        if (pin == null || !pin.equals(adminPin)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+        return importResponse(candidateImportService.importCandidates(candidates));
+    }
+
+    @PostMapping(value = "/candidates/import", consumes = "text/csv")
+    public ResponseEntity<?> importCandidatesCsv(@RequestParam("adminPin") String pin, @RequestBody String csv) {
+        if (pin == null || !pin.equals(adminPin)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+        return importResponse(candidateImportService.importCsv(csv));
+    }
+
+    private static ResponseEntity<CandidateImportDTO> importResponse(CandidateImportDTO result) {
+        return result.getErrors().isEmpty() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
     @GetMapping("/candidates/{id}")
     public org.springframework.http.ResponseEntity<?> getCandidate(@RequestParam("adminPin") String pin, @PathVariable Long id) {
         if (pin == null || !pin.equals(adminPin)) {
             return org.springframework.http.ResponseEntity.status(403).body("Forbidden");
         }
 
-        java.util.Optional<com.KTU.KTUVotingapp.model.Candidate> found = candidateRepository.findById(id);
+        java.util.Optional<com.KTU.KTUVotingapp.model.Candidate> found = findCandidateInElection(id);
         if (found.isEmpty()) return org.springframework.http.ResponseEntity.notFound().build();
 
         com.KTU.KTUVotingapp.model.Candidate c = found.get();
         com.KTU.KTUVotingapp.dto.CandidateDTO response = new com.KTU.KTUVotingapp.dto.CandidateDTO(
-                c.getId(), c.getCategory(), c.getCandidateNumber(), c.getName(), c.getDepartment(), c.getImageUrl(), c.getVoteCount()
+                c.getId(), categoryRegistry.byId(c.getCategoryId()).getCode(), c.getCandidateNumber(), c.getName(), c.getDepartment(), c.getImageUrl(), c.getVoteCount()
         );
         return org.springframework.http.ResponseEntity.ok(response);
     }
@@ -161,20 +369,33 @@ public class AdminController {
             return org.springframework.http.ResponseEntity.status(403).body("Forbidden");
         }
 
-        com.KTU.KTUVotingapp.model.Candidate existing = candidateRepository.findById(id).orElse(null);
+        com.KTU.KTUVotingapp.model.Candidate existing = findCandidateInElection(id).orElse(null);
         if (existing == null) return org.springframework.http.ResponseEntity.notFound().build();
 
-        if (dto.getCategory() != null) existing.setCategory(dto.getCategory());
-        if (dto.getCandidateNumber() != null) existing.setCandidateNumber(dto.getCandidateNumber());
+        if (dto.getCategory() != null) {
+            java.util.Optional<Category> category = categoryRegistry.findByCode(dto.getCategory());
+            if (category.isEmpty()) {
+                return org.springframework.http.ResponseEntity.badRequest().body("Unknown category: " + dto.getCategory());
+            }
+            existing.setCategoryId(category.get().getId());
+        }
+        if (dto.getCandidateNumber() != null) {
+            if (!validCandidateNumber(dto.getCandidateNumber())) {
+                return org.springframework.http.ResponseEntity.badRequest()
+                        .body("candidateNumber must be 1 to " + CompactBallot.MAX_CANDIDATE_NUMBER);
+            }
+            existing.setCandidateNumber(dto.getCandidateNumber());
+        }
         if (dto.getName() != null) existing.setName(dto.getName());
         if (dto.getDepartment() != null) existing.setDepartment(dto.getDepartment());
         if (dto.getImageUrl() != null) existing.setImageUrl(dto.getImageUrl());
         if (dto.getVoteCount() != null) existing.setVoteCount(dto.getVoteCount());
 
         com.KTU.KTUVotingapp.model.Candidate saved = candidateRepository.save(existing);
+        ballotValidator.refresh();
 
         com.KTU.KTUVotingapp.dto.CandidateDTO response = new com.KTU.KTUVotingapp.dto.CandidateDTO(
-                saved.getId(), saved.getCategory(), saved.getCandidateNumber(), saved.getName(), saved.getDepartment(), saved.getImageUrl(), saved.getVoteCount()
+                saved.getId(), categoryRegistry.byId(saved.getCategoryId()).getCode(), saved.getCandidateNumber(), saved.getName(), saved.getDepartment(), saved.getImageUrl(), saved.getVoteCount()
         );
         return org.springframework.http.ResponseEntity.ok(response);
     }
@@ -185,8 +406,20 @@ public class AdminController {
             return org.springframework.http.ResponseEntity.status(403).body("Forbidden");
         }
 
-        if (!candidateRepository.existsById(id)) return org.springframework.http.ResponseEntity.notFound().build();
+        if (findCandidateInElection(id).isEmpty()) return org.springframework.http.ResponseEntity.notFound().build();
         candidateRepository.deleteById(id);
+        ballotValidator.refresh();
         return org.springframework.http.ResponseEntity.noContent().build();
     }
+
+    // Candidates of other elections are not visible to this instance
+    private java.util.Optional<com.KTU.KTUVotingapp.model.Candidate> findCandidateInElection(Long id) {
+        return candidateRepository.findById(id)
+                .filter(c -> electionService.getCurrentElectionId().equals(c.getElectionId()));
+    }
+
+    // As for imports: binary ballots carry the number in one byte
+    private static boolean validCandidateNumber(Integer number) {
+        return number != null && number >= 1 && number <= CompactBallot.MAX_CANDIDATE_NUMBER;
+    }
 }
@@ -3,20 +3,26 @@ package com.KTU.KTUVotingapp.controller;
 import com.KTU.KTUVotingapp.dto.CandidateDTO;
 import com.KTU.KTUVotingapp.model.Category;
 import com.KTU.KTUVotingapp.service.CandidateService;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
+// Served by ReactiveCandidateController in the reactive profile
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/candidates")
 @CrossOrigin(origins = "*")
 public class CandidateController {
 
     private final CandidateService candidateService;
+    private final CategoryRegistry categoryRegistry;
 
-    public CandidateController(CandidateService candidateService) {
+    public CandidateController(CandidateService candidateService, CategoryRegistry categoryRegistry) {
         this.candidateService = candidateService;
+        this.categoryRegistry = categoryRegistry;
     }
 
     /**
@@ -26,8 +32,8 @@ public class CandidateController {
     @GetMapping("/{category}")
     public ResponseEntity<List<CandidateDTO>> getCandidatesByCategory(@PathVariable String category) {
         try {
-            Category categoryEnum = Category.valueOf(category.toUpperCase());
-            List<CandidateDTO> candidates = candidateService.getCandidatesByCategory(categoryEnum);
+            Category resolved = categoryRegistry.getByCode(category.toUpperCase());
+            List<CandidateDTO> candidates = candidateService.getCandidatesByCategory(resolved);
             return ResponseEntity.ok(candidates);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -0,0 +1,123 @@
+package com.KTU.KTUVotingapp.controller;
+
+import com.KTU.KTUVotingapp.service.RateLimitService;
+import com.KTU.KTUVotingapp.service.ReactiveVotingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * AuthController for the reactive profile, so the voting pages work in
+ * this mode too.
+ */
+@RestController
+@RequestMapping("/api/auth")
+@Profile("reactive")
+public class ReactiveAuthController {
+
+    @Value("${voting.user-pin:12345}")
+    private String userPin;
+
+    @Value("${voting.admin-pin:99999}")
+    private String adminPin;
+
+    private final ReactiveVotingService votingService;
+    private final RateLimitService rateLimitService;
+
+    public ReactiveAuthController(ReactiveVotingService votingService, RateLimitService rateLimitService) {
+        this.votingService = votingService;
+        this.rateLimitService = rateLimitService;
+    }
+
+    @PostMapping("/verify-pin")
+    public Mono<ResponseEntity<?>> verifyPin(@RequestBody Map<String, Object> body,
+                                             ServerHttpRequest request,
+                                             ServerHttpResponse response) {
+        if (body == null || !body.containsKey("pin") || body.get("pin") == null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("message", "Missing pin")));
+        }
+
+        String clientIp = ReactiveClientIdentity.clientIp(request);
+        String pin = String.valueOf(body.get("pin")).trim();
+        String deviceId = deviceId(request, response);
+
+        // Rate-limit bookkeeping publishes RateLimitEvents, which cluster
+        // mode sends as a NOTIFY over JDBC: keep it off the event loop
+        return votingService.deviceHasVoted(deviceId)
+                .publishOn(Schedulers.boundedElastic())
+                .map(deviceAlreadyVoted -> checkPin(clientIp, pin, deviceId, deviceAlreadyVoted));
+    }
+
+    // Same rules and responses as AuthController.verifyPin
+    private ResponseEntity<?> checkPin(String clientIp, String pin, String deviceId, boolean deviceAlreadyVoted) {
+        RateLimitService.RateLimitResult rateLimitResult = rateLimitService.checkRateLimit(clientIp);
+        if (!rateLimitResult.isAllowed()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of(
+                    "message", "Too many attempts. Please try again in " + rateLimitResult.getRetryAfterSeconds() + " seconds.",
+                    "retryAfter", rateLimitResult.getRetryAfterSeconds()
+                ));
+        }
+
+        if (pin.equals(userPin)) {
+            rateLimitService.recordAttempt(clientIp, true);
+            return ResponseEntity.ok(Map.of(
+                "valid", true,
+                "alreadyVoted", deviceAlreadyVoted,
+                "role", "user",
+                "deviceId", deviceId,
+                "remainingAttempts", rateLimitResult.getRemainingAttempts()
+            ));
+        }
+        if (pin.equals(adminPin)) {
+            rateLimitService.recordAttempt(clientIp, true);
+            return ResponseEntity.ok(Map.of(
+                "valid", true,
+                "alreadyVoted", false,
+                "role", "admin",
+                "deviceId", deviceId
+            ));
+        }
+
+        rateLimitService.recordAttempt(clientIp, false);
+        RateLimitService.RateLimitResult updatedRateLimit = rateLimitService.checkRateLimit(clientIp);
+        return ResponseEntity.status(404).body(Map.of(
+            "message", "Pin not found",
+            "remainingAttempts", updatedRateLimit.getRemainingAttempts()
+        ));
+    }
+
+    /**
+     * Check if current device has already voted
+     */
+    @GetMapping("/check-device")
+    public Mono<ResponseEntity<?>> checkDevice(ServerHttpRequest request, ServerHttpResponse response) {
+        String deviceId = deviceId(request, response);
+        return votingService.deviceHasVoted(deviceId).map(hasVoted -> ResponseEntity.ok(Map.of(
+            "deviceId", deviceId,
+            "hasVoted", hasVoted
+        )));
+    }
+
+    // IP-only device ID, also set as a cookie; see AuthController.getOrCreateDeviceId
+    private String deviceId(ServerHttpRequest request, ServerHttpResponse response) {
+        String deviceId = ReactiveClientIdentity.deviceId(request);
+        response.addCookie(ResponseCookie.from("voting_device_id", deviceId)
+                .maxAge(Duration.ofDays(365))
+                .path("/")
+                .httpOnly(true)
+                .secure(request.getSslInfo() != null)
+                .build());
+        return deviceId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.KTU.KTUVotingapp.controller;
+
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.ReactiveCandidateService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * CandidateController for the reactive profile.
+ */
+@RestController
+@RequestMapping("/api/candidates")
+@CrossOrigin(origins = "*")
+@Profile("reactive")
+public class ReactiveCandidateController {
+
+    private final ReactiveCandidateService candidateService;
+    private final CategoryRegistry categoryRegistry;
+
+    public ReactiveCandidateController(ReactiveCandidateService candidateService, CategoryRegistry categoryRegistry) {
+        this.candidateService = candidateService;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    /**
+     * Get all candidates for a specific category.
+     * Categories: KING, QUEEN, PRINCE, PRINCESS, COUPLE
+     */
+    @GetMapping("/{category}")
+    public Mono<ResponseEntity<List<CandidateDTO>>> getCandidatesByCategory(@PathVariable String category) {
+        Category resolved;
+        try {
+            resolved = categoryRegistry.getByCode(category.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return candidateService.getCandidatesByCategory(resolved).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,61 @@
+package com.KTU.KTUVotingapp.controller;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Client IP and IP-only device ID for the reactive controllers, derived
+ * exactly as VotingController and AuthController do on the servlet stack,
+ * so a device keeps its ID whichever mode the server runs in.
+ */
+final class ReactiveClientIdentity {
+
+    private static final String[] IP_HEADERS = {
+        "X-Forwarded-For",
+        "X-Real-IP",
+        "Proxy-Client-IP",
+        "WL-Proxy-Client-IP"
+    };
+
+    private ReactiveClientIdentity() {
+    }
+
+    static String deviceId(ServerHttpRequest request) {
+        String ip = clientIp(request);
+        String source = (ip == null ? "unknown" : ip);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return "ip-" + sb;
+        } catch (NoSuchAlgorithmException e) {
+            return "ip-" + source.replace(".", "-").replace(":", "-");
+        }
+    }
+
+    static String clientIp(ServerHttpRequest request) {
+        for (String header : IP_HEADERS) {
+            String ip = request.getHeaders().getFirst(header);
+            if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
+                if (ip.contains(",")) {
+                    ip = ip.split(",")[0].trim();
+                }
+                return ip;
+            }
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return null;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,107 @@
+package com.KTU.KTUVotingapp.controller;
+
+import com.KTU.KTUVotingapp.dto.ResultChangesDTO;
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.LiveResultsService;
+import com.KTU.KTUVotingapp.service.ReactiveResultService;
+import com.KTU.KTUVotingapp.service.ResultsSnapshot;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * ResultController for the reactive profile.
+ */
+@RestController
+@RequestMapping("/api/results")
+@CrossOrigin(origins = "*")
+@Profile("reactive")
+public class ReactiveResultController {
+
+    private static final Duration PUSH_INTERVAL = Duration.ofMillis(250);
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(20);
+
+    private final ReactiveResultService resultService;
+    private final LiveResultsService liveResultsService;
+    private final CategoryRegistry categoryRegistry;
+
+    public ReactiveResultController(ReactiveResultService resultService, LiveResultsService liveResultsService, CategoryRegistry categoryRegistry) {
+        this.resultService = resultService;
+        this.categoryRegistry = categoryRegistry;
+        this.liveResultsService = liveResultsService;
+    }
+
+    /**
+     * Live results for all categories as Server-Sent Events; see
+     * ResultController.streamResults. LiveResultsService publishes a new
+     * snapshot version when votes arrive, so a new version means new results.
+     * getSnapshot() only touches the database for the very first snapshot.
+     * GET /api/results/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<ResultDTO>>> streamResults() {
+        Flux<ServerSentEvent<List<ResultDTO>>> results = Flux.interval(Duration.ZERO, PUSH_INTERVAL)
+                .map(tick -> liveResultsService.getSnapshot())
+                .distinctUntilChanged(ResultsSnapshot::getVersion)
+                .map(snapshot -> ServerSentEvent.builder(snapshot.getResults()).event("results").build());
+        Flux<ServerSentEvent<List<ResultDTO>>> heartbeats = Flux.interval(HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL)
+                .map(tick -> ServerSentEvent.<List<ResultDTO>>builder().comment("keep-alive").build());
+        return Flux.merge(results, heartbeats);
+    }
+
+    /**
+     * Long-poll for result changes; see ResultController.getChanges.
+     * GET /api/results/changes?since={version}
+     */
+    @GetMapping("/changes")
+    public Mono<ResultChangesDTO> getChanges(@RequestParam("since") long since) {
+        return Mono.fromFuture(liveResultsService.awaitChanges(since));
+    }
+
+    /**
+     * Get voting results for a specific category.
+     * GET /api/results/{category}
+     */
+    @GetMapping("/{category}")
+    public Mono<ResponseEntity<ResultDTO>> getResultsByCategory(@PathVariable String category) {
+        Category resolved;
+        try {
+            resolved = categoryRegistry.getByCode(category.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return resultService.getResultsByCategory(resolved).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get voting results for all categories.
+     * GET /api/results/all
+     */
+    @GetMapping("/all")
+    public Mono<ResponseEntity<List<ResultDTO>>> getAllResults() {
+        return resultService.getAllResults().map(ResponseEntity::ok);
+    }
+
+    /**
+     * All candidates by vote count; see ResultController.getLiveAdminResults.
+     */
+    @GetMapping("/api/admin/results")
+    public Mono<ResponseEntity<List<ResultDTO.CandidateResultDTO>>> getLiveAdminResults(@RequestParam("pin") String pin) {
+        if (pin == null || !pin.equals("99999")) {
+            return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN));
+        }
+        ResultsSnapshot snapshot = liveResultsService.getSnapshot();
+        return Mono.just(ResponseEntity.ok().eTag(ResultController.eTag(snapshot)).body(snapshot.getLeaderboard()));
+    }
+}
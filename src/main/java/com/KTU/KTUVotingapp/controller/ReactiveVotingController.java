@@ -0,0 +1,183 @@
+package com.KTU.KTUVotingapp.controller;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
+import com.KTU.KTUVotingapp.dto.VoteRequest;
+import com.KTU.KTUVotingapp.dto.VoteResponse;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.BallotOutcome;
+import com.KTU.KTUVotingapp.service.BallotValidator;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.IdempotencyService;
+import com.KTU.KTUVotingapp.service.ReactiveVotingService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * VotingController for the reactive profile: same URLs, status codes and
+ * JSON, with the ballot running on R2DBC instead of a worker thread.
+ */
+@RestController
+@RequestMapping("/api/voting")
+@CrossOrigin(origins = "*")
+@Profile("reactive")
+public class ReactiveVotingController {
+
+    private final ReactiveVotingService votingService;
+    private final BallotValidator ballotValidator;
+    private final CategoryRegistry categoryRegistry;
+
+    public ReactiveVotingController(ReactiveVotingService votingService, BallotValidator ballotValidator, CategoryRegistry categoryRegistry) {
+        this.votingService = votingService;
+        this.categoryRegistry = categoryRegistry;
+        this.ballotValidator = ballotValidator;
+    }
+
+    /**
+     * Submit a single vote for a category; see VotingController.submitVote.
+     */
+    @PostMapping("/vote")
+    public Mono<ResponseEntity<VoteResponse>> submitVote(@Valid @RequestBody VoteRequest request,
+                                                         ServerHttpRequest httpRequest) {
+        BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+        item.setCategory(request.getCategory());
+        item.setCandidateNumber(request.getCandidateNumber());
+        BulkVoteRequest ballot = new BulkVoteRequest();
+        ballot.setPin(request.getPin());
+        ballot.setDeviceId(ReactiveClientIdentity.deviceId(httpRequest));
+        ballot.setVotes(List.of(item));
+
+        return votingService.castBallot(ballot, null)
+                .map(outcome -> ResponseEntity.status(outcome.getStatus())
+                        .body(new VoteResponse(outcome.isAccepted(),
+                                outcome.isAccepted() ? "Vote submitted successfully" : outcome.getMessage())))
+                .switchIfEmpty(Mono.fromSupplier(() -> error("An error occurred while processing your vote")))
+                .onErrorResume(e -> Mono.just(failure(e, "An error occurred while processing your vote")));
+    }
+
+    /**
+     * Submit multiple votes in a single transaction; see
+     * VotingController.submitBulkVotes, including Idempotency-Key.
+     */
+    @PostMapping("/bulk-vote")
+    public Mono<ResponseEntity<VoteResponse>> submitBulkVotes(@RequestBody BulkVoteRequest request,
+                                                              @RequestHeader(value = VotingController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                              ServerHttpRequest httpRequest) {
+        BallotValidator.Verdict verdict = ballotValidator.validate(request);
+        if (verdict != BallotValidator.Verdict.VALID) {
+            return Mono.just(ResponseEntity.status(verdict.getStatus()).body(new VoteResponse(false, verdict.getMessage())));
+        }
+        return castBallot(request, idempotencyKey, httpRequest);
+    }
+
+    /**
+     * Submit a ballot in the compact binary encoding; see
+     * VotingController.submitCompactBallot.
+     */
+    @PostMapping(value = "/ballot", consumes = CompactBallot.MEDIA_TYPE)
+    public Mono<ResponseEntity<Void>> submitCompactBallot(@RequestBody byte[] body,
+                                                          @RequestHeader(value = VotingController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                          ServerHttpRequest httpRequest) {
+        BallotValidator.Verdict verdict = ballotValidator.validate(body);
+        if (verdict != BallotValidator.Verdict.VALID) {
+            return Mono.just(ResponseEntity.status(verdict.getStatus()).build());
+        }
+        return castBallot(CompactBallot.decode(body, categoryRegistry.all()), idempotencyKey, httpRequest)
+                .map(result -> ResponseEntity.status(result.getStatusCode()).headers(result.getHeaders()).build());
+    }
+
+    private Mono<ResponseEntity<VoteResponse>> castBallot(BulkVoteRequest request, String idempotencyKey,
+                                                          ServerHttpRequest httpRequest) {
+        if (idempotencyKey != null && !IdempotencyService.isValidKey(idempotencyKey)) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(new VoteResponse(false, "Idempotency-Key must be 1 to "
+                            + IdempotencyService.MAX_KEY_LENGTH + " characters")));
+        }
+        request.setDeviceId(ReactiveClientIdentity.deviceId(httpRequest));
+
+        Mono<ResponseEntity<VoteResponse>> cast = votingService.castBallot(request, idempotencyKey)
+                .flatMap(outcome -> {
+                    ResponseEntity<VoteResponse> response = ResponseEntity.status(outcome.getStatus())
+                            .body(new VoteResponse(outcome.isAccepted(), outcome.getMessage()));
+                    if (idempotencyKey != null && outcome == BallotOutcome.DUPLICATE_DEVICE) {
+                        // A concurrent retry with this key may have committed first
+                        return replay(idempotencyKey, request).defaultIfEmpty(response);
+                    }
+                    return Mono.just(response);
+                });
+        if (idempotencyKey != null) {
+            cast = replay(idempotencyKey, request).switchIfEmpty(cast);
+        }
+        return cast
+                .switchIfEmpty(Mono.fromSupplier(() -> error("An error occurred while processing your votes")))
+                .onErrorResume(e -> Mono.just(failure(e, "An error occurred while processing your votes")));
+    }
+
+    /**
+     * The stored response for a completed ballot with this key; empty if
+     * the key has not been used yet.
+     */
+    private Mono<ResponseEntity<VoteResponse>> replay(String idempotencyKey, BulkVoteRequest request) {
+        return votingService.findIdempotencyOutcome(idempotencyKey)
+                .map(outcome -> {
+                    if (!outcome.getRequestHash().equals(IdempotencyService.fingerprint(request))) {
+                        return ResponseEntity.unprocessableEntity()
+                                .body(new VoteResponse(false, "Idempotency-Key was already used for a different ballot"));
+                    }
+                    return ResponseEntity.status(outcome.getStatusCode())
+                            .header(VotingController.IDEMPOTENT_REPLAYED_HEADER, "true")
+                            .body(new VoteResponse(outcome.getStatusCode() < 400, outcome.getMessage()));
+                });
+    }
+
+    /**
+     * Check if a PIN has voted in a specific category.
+     * GET /api/voting/has-voted?pin=12345&category=KING
+     */
+    @GetMapping("/has-voted")
+    public Mono<ResponseEntity<Boolean>> hasVoted(@RequestParam String pin, @RequestParam String category) {
+        Category resolved;
+        try {
+            resolved = categoryRegistry.getByCode(category.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().body(false));
+        }
+        return votingService.hasVoted(pin, resolved).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Check if a device has voted.
+     * GET /api/voting/device-has-voted?deviceId=...
+     */
+    @GetMapping("/device-has-voted")
+    public Mono<ResponseEntity<Boolean>> deviceHasVoted(@RequestParam String deviceId) {
+        return votingService.deviceHasVoted(deviceId).map(ResponseEntity::ok);
+    }
+
+    /**
+     * No R2DBC connection within max-acquire-time is this stack's "at
+     * capacity": 503 with Retry-After, as VotingController answers when the
+     * voting executor is full. Anything else is a 500.
+     */
+    private static ResponseEntity<VoteResponse> failure(Throwable e, String message) {
+        if (e instanceof CannotCreateTransactionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new VoteResponse(false, "The server is busy. Please try again in a moment."));
+        }
+        return error(message);
+    }
+
+    private static ResponseEntity<VoteResponse> error(String message) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new VoteResponse(false, message));
+    }
+}
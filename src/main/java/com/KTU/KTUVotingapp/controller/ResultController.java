@@ -1,35 +1,73 @@
 package com.KTU.KTUVotingapp.controller;
 
+import com.KTU.KTUVotingapp.dto.ResultChangesDTO;
 import com.KTU.KTUVotingapp.dto.ResultDTO;
 import com.KTU.KTUVotingapp.model.Category;
-import com.KTU.KTUVotingapp.service.ResultService;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.LiveResultsService;
+import com.KTU.KTUVotingapp.service.ResultsSnapshot;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+// Served by ReactiveResultController in the reactive profile
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/results")
 @CrossOrigin(origins = "*")
 public class ResultController {
 
-    private final ResultService resultService;
+    private final LiveResultsService liveResultsService;
+    private final CategoryRegistry categoryRegistry;
 
-    public ResultController(ResultService resultService) {
-        this.resultService = resultService;
+    public ResultController(LiveResultsService liveResultsService, CategoryRegistry categoryRegistry) {
+        this.categoryRegistry = categoryRegistry;
+        this.liveResultsService = liveResultsService;
+    }
+
+    /**
+     * Live results for all categories as Server-Sent Events. Sends a
+     * "results" event with the same JSON as /all on connect and whenever a
+     * vote is committed on any node.
+     * GET /api/results/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamResults() {
+        return liveResultsService.subscribe();
+    }
+
+    /**
+     * Long-poll for result changes: answered as soon as results newer than
+     * since are published, or after voting.results.changes-timeout with an
+     * empty list. No servlet thread is held while the request waits. Pass
+     * the returned version as since for the next poll; since=0 returns
+     * everything. See ResultChangesDTO for the response.
+     * GET /api/results/changes?since={version}
+     */
+    @GetMapping("/changes")
+    public CompletableFuture<ResultChangesDTO> getChanges(@RequestParam("since") long since) {
+        return liveResultsService.awaitChanges(since);
     }
 
     /**
      * Get voting results for a specific category.
      * GET /api/results/{category}
      * Categories: KING, QUEEN, PRINCE, PRINCESS, COUPLE
+     *
+     * Result endpoints read the live results snapshot and tag the response
+     * with its version, so If-None-Match with an unchanged version gets a 304.
      */
     @GetMapping("/{category}")
     public ResponseEntity<ResultDTO> getResultsByCategory(@PathVariable String category) {
         try {
-            Category categoryEnum = Category.valueOf(category.toUpperCase());
-            ResultDTO results = resultService.getResultsByCategory(categoryEnum);
-            return ResponseEntity.ok(results);
+            Category resolved = categoryRegistry.getByCode(category.toUpperCase());
+            ResultsSnapshot snapshot = liveResultsService.getSnapshot();
+            return ResponseEntity.ok().eTag(eTag(snapshot)).body(snapshot.getResults(resolved));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -41,8 +79,8 @@ public class ResultController {
      */
     @GetMapping("/all")
     public ResponseEntity<List<ResultDTO>> getAllResults() {
-        List<ResultDTO> results = resultService.getAllResults();
-        return ResponseEntity.ok(results);
+        ResultsSnapshot snapshot = liveResultsService.getSnapshot();
+        return ResponseEntity.ok().eTag(eTag(snapshot)).body(snapshot.getResults());
     }
 
     /**
@@ -56,13 +94,12 @@ public class ResultController {
             throw new org.springframework.web.server.ResponseStatusException(org.springframework.http.HttpStatus.FORBIDDEN);
         }
 
-        // Aggregate all candidates from all categories and sort by voteCount desc
-        java.util.List<ResultDTO> all = resultService.getAllResults();
-        java.util.List<ResultDTO.CandidateResultDTO> candidates = all.stream()
-                .flatMap(r -> r.getCandidates().stream())
-                .sorted(java.util.Comparator.comparingLong(ResultDTO.CandidateResultDTO::getVoteCount).reversed())
-                .collect(java.util.stream.Collectors.toList());
+        // All candidates from all categories by voteCount desc, ranked when the snapshot was built
+        ResultsSnapshot snapshot = liveResultsService.getSnapshot();
+        return ResponseEntity.ok().eTag(eTag(snapshot)).body(snapshot.getLeaderboard());
+    }
 
-        return ResponseEntity.ok(candidates);
+    static String eTag(ResultsSnapshot snapshot) {
+        return "\"" + snapshot.getVersion() + "\"";
     }
 }
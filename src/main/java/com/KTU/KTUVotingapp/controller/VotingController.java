@@ -1,29 +1,59 @@
 package com.KTU.KTUVotingapp.controller;
 
 import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
 import com.KTU.KTUVotingapp.dto.VoteRequest;
 import com.KTU.KTUVotingapp.dto.VoteResponse;
 import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.BallotOutcome;
+import com.KTU.KTUVotingapp.service.BallotValidator;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import com.KTU.KTUVotingapp.service.IdempotencyService;
 import com.KTU.KTUVotingapp.service.VotingService;
 import jakarta.validation.Valid;
 import jakarta.servlet.http.HttpServletRequest;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+// Served by ReactiveVotingController in the reactive profile
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/voting")
 @CrossOrigin(origins = "*")
 public class VotingController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final VotingService votingService;
+    private final IdempotencyService idempotencyService;
+    private final BallotValidator ballotValidator;
+    private final CategoryRegistry categoryRegistry;
+    private final Executor votingExecutor;
 
-    public VotingController(VotingService votingService) {
+    public VotingController(VotingService votingService, IdempotencyService idempotencyService,
+                            BallotValidator ballotValidator, CategoryRegistry categoryRegistry,
+                            @Qualifier("asyncVotingExecutor") Executor asyncVotingExecutor,
+                            @Value("${voting.async.enabled:true}") boolean asyncEnabled) {
         this.votingService = votingService;
+        this.idempotencyService = idempotencyService;
+        this.ballotValidator = ballotValidator;
+        this.categoryRegistry = categoryRegistry;
+        this.votingExecutor = asyncEnabled ? asyncVotingExecutor : Runnable::run;
     }
 
     /**
@@ -32,45 +62,141 @@ public class VotingController {
      * Response: { "success": true, "message": "Vote submitted successfully" }
      */
     @PostMapping("/vote")
-    public ResponseEntity<VoteResponse> submitVote(@Valid @RequestBody VoteRequest request, HttpServletRequest httpRequest) {
-        try {
-            // Prefer server-side device cookie; otherwise derive from IP+UA hash
-            String resolvedDeviceId = resolveDeviceId(httpRequest);
-            if (resolvedDeviceId != null && !resolvedDeviceId.isBlank()) {
-                request.setDeviceId(resolvedDeviceId);
-            }
-            votingService.submitVote(request);
-            return ResponseEntity.ok(new VoteResponse(true, "Vote submitted successfully"));
-        } catch (ResponseStatusException e) {
-            return ResponseEntity.status(e.getStatusCode())
-                    .body(new VoteResponse(false, e.getReason()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new VoteResponse(false, "An error occurred while processing your vote"));
+    public CompletableFuture<ResponseEntity<VoteResponse>> submitVote(@Valid @RequestBody VoteRequest request,
+                                                                      HttpServletRequest httpRequest) {
+        // Prefer server-side device cookie; otherwise derive from IP+UA hash
+        String resolvedDeviceId = resolveDeviceId(httpRequest);
+        if (resolvedDeviceId != null && !resolvedDeviceId.isBlank()) {
+            request.setDeviceId(resolvedDeviceId);
         }
+        return offload(() -> {
+            try {
+                votingService.submitVote(request);
+                return ResponseEntity.ok(new VoteResponse(true, "Vote submitted successfully"));
+            } catch (ResponseStatusException e) {
+                return ResponseEntity.status(e.getStatusCode())
+                        .body(new VoteResponse(false, e.getReason()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new VoteResponse(false, "An error occurred while processing your vote"));
+            }
+        });
     }
 
     /**
      * Submit multiple votes in a single transaction (bulk voting).
      * Request: { "deviceId": "...", "pin": "12345", "votes": [{ "category": "KING", "candidateNumber": 1 }, ...] }
+     *
+     * An optional Idempotency-Key header (at most 128 characters, e.g. a UUID
+     * the client keeps until it sees a response) makes retries safe: once a
+     * ballot with that key has committed, the same request returns the
+     * original response with Idempotent-Replayed: true, without touching the
+     * voting tables. Reusing a key for a different ballot is a 422.
+     *
+     * 503 with Retry-After means the server is at capacity and the ballot
+     * was not attempted; retry it with the same Idempotency-Key.
      */
     @PostMapping("/bulk-vote")
-    public ResponseEntity<VoteResponse> submitBulkVotes(@Valid @RequestBody BulkVoteRequest request, HttpServletRequest httpRequest) {
-        try {
-            // Prefer server-side device cookie; otherwise derive from IP+UA hash
-            String resolvedDeviceId = resolveDeviceId(httpRequest);
-            if (resolvedDeviceId != null && !resolvedDeviceId.isBlank()) {
-                request.setDeviceId(resolvedDeviceId);
+    public CompletableFuture<ResponseEntity<VoteResponse>> submitBulkVotes(@RequestBody BulkVoteRequest request,
+                                                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                           HttpServletRequest httpRequest) {
+        // BallotValidator instead of @Valid: same checks plus candidate numbers, without reflection
+        BallotValidator.Verdict verdict = ballotValidator.validate(request);
+        if (verdict != BallotValidator.Verdict.VALID) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(verdict.getStatus()).body(new VoteResponse(false, verdict.getMessage())));
+        }
+        return castBallot(request, idempotencyKey, httpRequest);
+    }
+
+    /**
+     * Submit a ballot in the compact binary encoding (see CompactBallot).
+     * The response has no body: 200 accepted, 400 malformed ballot,
+     * 404 unknown candidate, 409 already voted, 422 Idempotency-Key reused,
+     * 503 at capacity. Idempotency-Key works as for /bulk-vote.
+     */
+    @PostMapping(value = "/ballot", consumes = CompactBallot.MEDIA_TYPE)
+    public CompletableFuture<ResponseEntity<Void>> submitCompactBallot(@RequestBody byte[] body,
+                                                                       @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                       HttpServletRequest httpRequest) {
+        BallotValidator.Verdict verdict = ballotValidator.validate(body);
+        if (verdict != BallotValidator.Verdict.VALID) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(verdict.getStatus()).build());
+        }
+        BulkVoteRequest request = CompactBallot.decode(body, categoryRegistry.all());
+        return castBallot(request, idempotencyKey, httpRequest)
+                .thenApply(result -> ResponseEntity.status(result.getStatusCode()).headers(result.getHeaders()).build());
+    }
+
+    private CompletableFuture<ResponseEntity<VoteResponse>> castBallot(BulkVoteRequest request, String idempotencyKey,
+                                                                       HttpServletRequest httpRequest) {
+        if (idempotencyKey != null && !IdempotencyService.isValidKey(idempotencyKey)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new VoteResponse(false, "Idempotency-Key must be 1 to "
+                            + IdempotencyService.MAX_KEY_LENGTH + " characters")));
+        }
+        // The servlet request is only safe to read on the request thread
+        String resolvedDeviceId = resolveDeviceId(httpRequest);
+        if (resolvedDeviceId != null && !resolvedDeviceId.isBlank()) {
+            request.setDeviceId(resolvedDeviceId);
+        }
+
+        return offload(() -> {
+            try {
+                if (idempotencyKey != null) {
+                    ResponseEntity<VoteResponse> replay = replay(idempotencyKey, request);
+                    if (replay != null) {
+                        return replay;
+                    }
+                }
+
+                BallotOutcome outcome = votingService.castBallot(request, idempotencyKey);
+                if (idempotencyKey != null && outcome == BallotOutcome.DUPLICATE_DEVICE) {
+                    // A concurrent retry with this key may have committed first
+                    ResponseEntity<VoteResponse> replay = replay(idempotencyKey, request);
+                    if (replay != null) {
+                        return replay;
+                    }
+                }
+                return ResponseEntity.status(outcome.getStatus())
+                        .body(new VoteResponse(outcome.isAccepted(), outcome.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new VoteResponse(false, "An error occurred while processing your votes"));
             }
-            votingService.submitBulkVotes(request);
-            return ResponseEntity.ok(new VoteResponse(true, "All votes submitted successfully"));
-        } catch (ResponseStatusException e) {
-            return ResponseEntity.status(e.getStatusCode())
-                    .body(new VoteResponse(false, e.getReason()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new VoteResponse(false, "An error occurred while processing your votes"));
+        });
+    }
+
+    /**
+     * Run a ballot on the voting executor, or answer 503 straight away if
+     * its queue is full.
+     */
+    private CompletableFuture<ResponseEntity<VoteResponse>> offload(Supplier<ResponseEntity<VoteResponse>> ballot) {
+        try {
+            return CompletableFuture.supplyAsync(ballot, votingExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new VoteResponse(false, "The server is busy. Please try again in a moment.")));
+        }
+    }
+
+    /**
+     * The stored response for a completed ballot with this key, or null if
+     * the key has not been used yet.
+     */
+    private ResponseEntity<VoteResponse> replay(String idempotencyKey, BulkVoteRequest request) {
+        Optional<IdempotencyService.Outcome> outcome = idempotencyService.find(idempotencyKey);
+        if (outcome.isEmpty()) {
+            return null;
+        }
+        if (!outcome.get().getRequestHash().equals(IdempotencyService.fingerprint(request))) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(new VoteResponse(false, "Idempotency-Key was already used for a different ballot"));
         }
+        return ResponseEntity.status(outcome.get().getStatusCode())
+                .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                .body(new VoteResponse(outcome.get().getStatusCode() < 400, outcome.get().getMessage()));
     }
 
     /**
@@ -82,8 +208,8 @@ public class VotingController {
             @RequestParam String pin,
             @RequestParam String category) {
         try {
-            Category categoryEnum = Category.valueOf(category.toUpperCase());
-            boolean hasVoted = votingService.hasVoted(pin, categoryEnum);
+            Category resolved = categoryRegistry.getByCode(category.toUpperCase());
+            boolean hasVoted = votingService.hasVoted(pin, resolved);
             return ResponseEntity.ok(hasVoted);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(false);
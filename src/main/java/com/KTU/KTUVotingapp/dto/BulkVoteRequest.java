@@ -48,7 +48,7 @@ public class BulkVoteRequest {
 
     public static class VoteItem {
         @NotNull(message = "Category is required")
-        private com.KTU.KTUVotingapp.model.Category category;
+        private String category;
 
         @NotNull(message = "Candidate number is required")
         private Integer candidateNumber;
@@ -56,11 +56,11 @@ public class BulkVoteRequest {
         public VoteItem() {
         }
 
-        public com.KTU.KTUVotingapp.model.Category getCategory() {
+        public String getCategory() {
             return category;
         }
 
-        public void setCategory(com.KTU.KTUVotingapp.model.Category category) {
+        public void setCategory(String category) {
             this.category = category;
         }
 
@@ -1,11 +1,9 @@
 package com.KTU.KTUVotingapp.dto;
 
-import com.KTU.KTUVotingapp.model.Category;
-
 public class CandidateDTO {
 
     private Long id;
-    private Category category;
+    private String category;
     private Integer candidateNumber;
     private String name;
     private String department;
@@ -15,7 +13,7 @@ public class CandidateDTO {
     public CandidateDTO() {
     }
 
-    public CandidateDTO(Long id, Category category, Integer candidateNumber, String name, 
+    public CandidateDTO(Long id, String category, Integer candidateNumber, String name, 
                        String department, String imageUrl, Long voteCount) {
         this.id = id;
         this.category = category;
@@ -34,11 +32,11 @@ public class CandidateDTO {
         this.id = id;
     }
 
-    public Category getCategory() {
+    public String getCategory() {
         return category;
     }
 
-    public void setCategory(Category category) {
+    public void setCategory(String category) {
         this.category = category;
     }
 
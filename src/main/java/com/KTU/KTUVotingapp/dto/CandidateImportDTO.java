@@ -0,0 +1,90 @@
+package com.KTU.KTUVotingapp.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk candidate import. Rows are validated as a set first;
+ * if any has errors nothing is written and inserted/updated are 0.
+ */
+public class CandidateImportDTO {
+
+    private int received;
+    private int inserted;
+    private int updated;
+    private List<RowError> errors;
+
+    public CandidateImportDTO() {
+    }
+
+    public CandidateImportDTO(int received, int inserted, int updated, List<RowError> errors) {
+        this.received = received;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.errors = errors;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * A rejected row; row is 1-based over the candidates, not counting a
+     * CSV header.
+     */
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.KTU.KTUVotingapp.dto;
+
+import com.KTU.KTUVotingapp.model.Category;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary ballot encoding for POST /api/voting/ballot, for clients on slow
+ * or metered connections.
+ *
+ *   byte 0        format version (1)
+ *   bytes 1..n    candidate number per category, in category id order
+ *                 (Category.getIndex(); KING, QUEEN, PRINCE, PRINCESS,
+ *                 COUPLE with the seeded categories), unsigned; 0 means no
+ *                 vote in that category
+ *   bytes n+1..   PIN, printable ASCII, 1 to 5 bytes (voters.pin is VARCHAR(5))
+ *
+ * With the five seeded categories a full ballot is at most 11 bytes instead
+ * of roughly 250 bytes of JSON.
+ * The device ID is not sent; the server derives it as for JSON ballots.
+ */
+public final class CompactBallot {
+
+    public static final String MEDIA_TYPE = "application/vnd.ktu.ballot";
+
+    public static final byte VERSION = 1;
+
+    // One unsigned byte per category
+    public static final int MAX_CANDIDATE_NUMBER = 255;
+
+    private static final int MIN_PIN_LENGTH = 1;
+    private static final int MAX_PIN_LENGTH = 5;
+
+    private CompactBallot() {
+    }
+
+    /**
+     * Bytes before the PIN: the version and one per category.
+     */
+    public static int headerLength(int categoryCount) {
+        return 1 + categoryCount;
+    }
+
+    /**
+     * Decode and validate a binary ballot into the same request the JSON
+     * endpoint produces, with the device ID left unset.
+     *
+     * @param categories all categories in id order (CategoryRegistry.all())
+     * @throws IllegalArgumentException if the ballot is malformed
+     */
+    public static BulkVoteRequest decode(byte[] body, List<Category> categories) {
+        int headerLength = headerLength(categories.size());
+        if (body == null || body.length < headerLength + MIN_PIN_LENGTH
+                || body.length > headerLength + MAX_PIN_LENGTH) {
+            throw new IllegalArgumentException("Ballot must be " + (headerLength + MIN_PIN_LENGTH)
+                    + " to " + (headerLength + MAX_PIN_LENGTH) + " bytes");
+        }
+        if (body[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported ballot version " + body[0]);
+        }
+
+        List<BulkVoteRequest.VoteItem> votes = new ArrayList<>(categories.size());
+        for (int i = 0; i < categories.size(); i++) {
+            int candidateNumber = body[1 + i] & 0xFF;
+            if (candidateNumber != 0) {
+                BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+                item.setCategory(categories.get(i).getCode());
+                item.setCandidateNumber(candidateNumber);
+                votes.add(item);
+            }
+        }
+        if (votes.isEmpty()) {
+            throw new IllegalArgumentException("At least one vote is required");
+        }
+
+        for (int i = headerLength; i < body.length; i++) {
+            // Printable ASCII, no spaces
+            if (body[i] <= ' ' || body[i] > '~') {
+                throw new IllegalArgumentException("PIN must be printable ASCII");
+            }
+        }
+
+        BulkVoteRequest request = new BulkVoteRequest();
+        request.setPin(new String(body, headerLength, body.length - headerLength, StandardCharsets.US_ASCII));
+        request.setVotes(votes);
+        return request;
+    }
+
+    /**
+     * Encode a ballot; the inverse of decode. Used by tests and tooling.
+     *
+     * @param candidateNumbersByIndex one entry per category, by Category.getIndex()
+     */
+    public static byte[] encode(String pin, int[] candidateNumbersByIndex) {
+        byte[] pinBytes = pin.getBytes(StandardCharsets.US_ASCII);
+        int headerLength = headerLength(candidateNumbersByIndex.length);
+        byte[] body = new byte[headerLength + pinBytes.length];
+        body[0] = VERSION;
+        for (int i = 0; i < candidateNumbersByIndex.length; i++) {
+            body[1 + i] = (byte) candidateNumbersByIndex[i];
+        }
+        System.arraycopy(pinBytes, 0, body, headerLength, pinBytes.length);
+        return body;
+    }
+}
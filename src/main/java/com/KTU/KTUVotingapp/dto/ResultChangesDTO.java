@@ -0,0 +1,37 @@
+package com.KTU.KTUVotingapp.dto;
+
+import java.util.List;
+
+/**
+ * Answer to a results long-poll (GET /api/results/changes). results holds
+ * the categories that changed since the client's version, each with its new
+ * total but only the candidates whose vote count changed; percentages of
+ * the other candidates follow from the total. When full is true the server
+ * could not compare against the client's version (e.g. after a restart) and
+ * results holds every candidate instead. An empty results list means the
+ * poll timed out with no change.
+ */
+public final class ResultChangesDTO {
+
+    private final long version;
+    private final boolean full;
+    private final List<ResultDTO> results;
+
+    public ResultChangesDTO(long version, boolean full, List<ResultDTO> results) {
+        this.version = version;
+        this.full = full;
+        this.results = List.copyOf(results);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public List<ResultDTO> getResults() {
+        return results;
+    }
+}
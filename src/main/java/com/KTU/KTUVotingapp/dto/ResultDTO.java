@@ -1,59 +1,43 @@
 package com.KTU.KTUVotingapp.dto;
 
-import com.KTU.KTUVotingapp.model.Category;
-
 import java.util.List;
 
-public class ResultDTO {
-
-    private Category category;
-    private Long totalVotes;
-    private List<CandidateResultDTO> candidates;
+/**
+ * Results for one category. Immutable, so one instance can be shared by
+ * every reader of a results snapshot (see ResultsSnapshot).
+ */
+public final class ResultDTO {
 
-    public ResultDTO() {
-    }
+    private final String category;
+    private final Long totalVotes;
+    private final List<CandidateResultDTO> candidates;
 
-    public ResultDTO(Category category, Long totalVotes, List<CandidateResultDTO> candidates) {
+    public ResultDTO(String category, Long totalVotes, List<CandidateResultDTO> candidates) {
         this.category = category;
         this.totalVotes = totalVotes;
-        this.candidates = candidates;
+        this.candidates = List.copyOf(candidates);
     }
 
-    public Category getCategory() {
+    public String getCategory() {
         return category;
     }
 
-    public void setCategory(Category category) {
-        this.category = category;
-    }
-
     public Long getTotalVotes() {
         return totalVotes;
     }
 
-    public void setTotalVotes(Long totalVotes) {
-        this.totalVotes = totalVotes;
-    }
-
     public List<CandidateResultDTO> getCandidates() {
         return candidates;
     }
 
-    public void setCandidates(List<CandidateResultDTO> candidates) {
-        this.candidates = candidates;
-    }
-
-    public static class CandidateResultDTO {
-        private Long id;
-        private Integer candidateNumber;
-        private String name;
-        private String department;
-        private String imageUrl;
-        private Long voteCount;
-        private Double percentage;
-
-        public CandidateResultDTO() {
-        }
+    public static final class CandidateResultDTO {
+        private final Long id;
+        private final Integer candidateNumber;
+        private final String name;
+        private final String department;
+        private final String imageUrl;
+        private final Long voteCount;
+        private final Double percentage;
 
         public CandidateResultDTO(Long id, Integer candidateNumber, String name, String department,
                                 String imageUrl, Long voteCount, Double percentage) {
@@ -70,57 +54,28 @@ public class ResultDTO {
             return id;
         }
 
-        public void setId(Long id) {
-            this.id = id;
-        }
-
         public Integer getCandidateNumber() {
             return candidateNumber;
         }
 
-        public void setCandidateNumber(Integer candidateNumber) {
-            this.candidateNumber = candidateNumber;
-        }
-
         public String getName() {
             return name;
         }
 
-        public void setName(String name) {
-            this.name = name;
-        }
-
         public String getDepartment() {
             return department;
         }
 
-        public void setDepartment(String department) {
-            this.department = department;
-        }
-
         public String getImageUrl() {
             return imageUrl;
         }
 
-        public void setImageUrl(String imageUrl) {
-            this.imageUrl = imageUrl;
-        }
-
         public Long getVoteCount() {
             return voteCount;
         }
 
-        public void setVoteCount(Long voteCount) {
-            this.voteCount = voteCount;
-        }
-
         public Double getPercentage() {
             return percentage;
         }
-
-        public void setPercentage(Double percentage) {
-            this.percentage = percentage;
-        }
     }
 }
-
@@ -1,26 +1,24 @@
 package com.KTU.KTUVotingapp.dto;
 
-import com.KTU.KTUVotingapp.model.Category;
-
 public class SubmittedVoteDTO {
-    private Category category;
+    private String category;
     private Integer candidateNumber;
     private String candidateName;
 
     public SubmittedVoteDTO() {
     }
 
-    public SubmittedVoteDTO(Category category, Integer candidateNumber, String candidateName) {
+    public SubmittedVoteDTO(String category, Integer candidateNumber, String candidateName) {
         this.category = category;
         this.candidateNumber = candidateNumber;
         this.candidateName = candidateName;
     }
 
-    public Category getCategory() {
+    public String getCategory() {
         return category;
     }
 
-    public void setCategory(Category category) {
+    public void setCategory(String category) {
         this.category = category;
     }
 
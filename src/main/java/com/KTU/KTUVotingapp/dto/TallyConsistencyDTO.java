@@ -0,0 +1,166 @@
+package com.KTU.KTUVotingapp.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of recounting the votes table against the stored tallies
+ * (category_totals and candidates.vote_count).
+ */
+public class TallyConsistencyDTO {
+
+    private boolean consistent;
+    private List<CategoryDrift> categories;
+    private List<CandidateDrift> candidates;
+
+    public TallyConsistencyDTO() {
+    }
+
+    public TallyConsistencyDTO(boolean consistent, List<CategoryDrift> categories, List<CandidateDrift> candidates) {
+        this.consistent = consistent;
+        this.categories = categories;
+        this.candidates = candidates;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+
+    public List<CategoryDrift> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryDrift> categories) {
+        this.categories = categories;
+    }
+
+    public List<CandidateDrift> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<CandidateDrift> candidates) {
+        this.candidates = candidates;
+    }
+
+    public static class CategoryDrift {
+        private String category;
+        private Long recordedTotal;
+        private Long countedTotal;
+        private Long drift;
+
+        public CategoryDrift() {
+        }
+
+        public CategoryDrift(String category, Long recordedTotal, Long countedTotal) {
+            this.category = category;
+            this.recordedTotal = recordedTotal;
+            this.countedTotal = countedTotal;
+            this.drift = recordedTotal - countedTotal;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public Long getRecordedTotal() {
+            return recordedTotal;
+        }
+
+        public void setRecordedTotal(Long recordedTotal) {
+            this.recordedTotal = recordedTotal;
+        }
+
+        public Long getCountedTotal() {
+            return countedTotal;
+        }
+
+        public void setCountedTotal(Long countedTotal) {
+            this.countedTotal = countedTotal;
+        }
+
+        public Long getDrift() {
+            return drift;
+        }
+
+        public void setDrift(Long drift) {
+            this.drift = drift;
+        }
+    }
+
+    public static class CandidateDrift {
+        private Long id;
+        private String category;
+        private Integer candidateNumber;
+        private Long recordedVoteCount;
+        private Long countedVotes;
+        private Long drift;
+
+        public CandidateDrift() {
+        }
+
+        public CandidateDrift(Long id, String category, Integer candidateNumber,
+                              Long recordedVoteCount, Long countedVotes) {
+            this.id = id;
+            this.category = category;
+            this.candidateNumber = candidateNumber;
+            this.recordedVoteCount = recordedVoteCount;
+            this.countedVotes = countedVotes;
+            this.drift = recordedVoteCount - countedVotes;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public Integer getCandidateNumber() {
+            return candidateNumber;
+        }
+
+        public void setCandidateNumber(Integer candidateNumber) {
+            this.candidateNumber = candidateNumber;
+        }
+
+        public Long getRecordedVoteCount() {
+            return recordedVoteCount;
+        }
+
+        public void setRecordedVoteCount(Long recordedVoteCount) {
+            this.recordedVoteCount = recordedVoteCount;
+        }
+
+        public Long getCountedVotes() {
+            return countedVotes;
+        }
+
+        public void setCountedVotes(Long countedVotes) {
+            this.countedVotes = countedVotes;
+        }
+
+        public Long getDrift() {
+            return drift;
+        }
+
+        public void setDrift(Long drift) {
+            this.drift = drift;
+        }
+    }
+}
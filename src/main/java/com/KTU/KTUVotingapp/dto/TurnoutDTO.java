@@ -0,0 +1,80 @@
+package com.KTU.KTUVotingapp.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Votes per category in consecutive time buckets. Bucket i covers
+ * [from + i * bucketSeconds, from + (i + 1) * bucketSeconds); every array in
+ * counts, and totals, has one entry per bucket.
+ */
+public class TurnoutDTO {
+
+    private String resolution;
+    private long bucketSeconds;
+    private Instant from;
+    private Instant to;
+    private Map<String, long[]> counts;
+    private long[] totals;
+
+    public TurnoutDTO() {
+    }
+
+    public TurnoutDTO(String resolution, long bucketSeconds, Instant from, Instant to,
+                      Map<String, long[]> counts, long[] totals) {
+        this.resolution = resolution;
+        this.bucketSeconds = bucketSeconds;
+        this.from = from;
+        this.to = to;
+        this.counts = counts;
+        this.totals = totals;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
+
+    public long getBucketSeconds() {
+        return bucketSeconds;
+    }
+
+    public void setBucketSeconds(long bucketSeconds) {
+        this.bucketSeconds = bucketSeconds;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public Map<String, long[]> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<String, long[]> counts) {
+        this.counts = counts;
+    }
+
+    public long[] getTotals() {
+        return totals;
+    }
+
+    public void setTotals(long[] totals) {
+        this.totals = totals;
+    }
+}
@@ -2,8 +2,6 @@ package com.KTU.KTUVotingapp.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import com.KTU.KTUVotingapp.model.Category;
-
 public class VoteRequest {
 
     @NotBlank(message = "Device ID is required")
@@ -13,7 +11,7 @@ public class VoteRequest {
     private String pin;
 
     @NotNull(message = "Category is required")
-    private Category category;
+    private String category;
 
     @NotNull(message = "Candidate number is required")
     private Integer candidateNumber;
@@ -37,11 +35,11 @@ public class VoteRequest {
         this.pin = pin;
     }
 
-    public Category getCategory() {
+    public String getCategory() {
         return category;
     }
 
-    public void setCategory(Category category) {
+    public void setCategory(String category) {
         this.category = category;
     }
 
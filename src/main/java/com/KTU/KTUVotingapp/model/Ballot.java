@@ -0,0 +1,80 @@
+package com.KTU.KTUVotingapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A whole ballot in one row (V8__ballots.sql), written instead of one Vote
+ * per category when voting.ballots.enabled is set. Element i of selections
+ * is the candidate number chosen in category id i + 1, or 0 for none.
+ * Rows are inserted by BallotRepository.insertIfAbsent and never updated.
+ */
+@Entity
+@Immutable
+@Table(name = "ballots")
+@IdClass(Ballot.Key.class)
+public class Ballot {
+
+    // Partition key of ballots
+    @Id
+    @Column(name = "election_id", nullable = false)
+    private Long electionId;
+
+    @Id
+    @Column(name = "voter_id", nullable = false)
+    private Long voterId;
+
+    @Column(nullable = false, columnDefinition = "smallint[]")
+    private short[] selections;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Ballot() {
+    }
+
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public Long getVoterId() {
+        return voterId;
+    }
+
+    public short[] getSelections() {
+        return selections;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public static class Key implements Serializable {
+        private Long electionId;
+        private Long voterId;
+
+        public Key() {
+        }
+
+        public Key(Long electionId, Long voterId) {
+            this.electionId = electionId;
+            this.voterId = voterId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(electionId, key.electionId) && Objects.equals(voterId, key.voterId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(electionId, voterId);
+        }
+    }
+}
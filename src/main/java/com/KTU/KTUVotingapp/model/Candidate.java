@@ -3,8 +3,8 @@ package com.KTU.KTUVotingapp.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "candidates", indexes = {
-    @Index(name = "idx_category_number", columnList = "category, candidate_number")
+@Table(name = "candidates", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_candidate_category_number", columnNames = {"election_id", "category_id", "candidate_number"})
 })
 public class Candidate {
 
@@ -12,9 +12,12 @@ public class Candidate {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false, length = 20)
-    private Category category;
+    @Column(name = "election_id", nullable = false, updatable = false)
+    private Long electionId;
+
+    // categories.id; see CategoryRegistry
+    @Column(name = "category_id", nullable = false)
+    private Short categoryId;
 
     @Column(nullable = false, name = "candidate_number")
     private Integer candidateNumber;
@@ -34,8 +37,8 @@ public class Candidate {
     public Candidate() {
     }
 
-    public Candidate(Category category, Integer candidateNumber, String name, String department, String imageUrl) {
-        this.category = category;
+    public Candidate(Short categoryId, Integer candidateNumber, String name, String department, String imageUrl) {
+        this.categoryId = categoryId;
         this.candidateNumber = candidateNumber;
         this.name = name;
         this.department = department;
@@ -47,12 +50,20 @@ public class Candidate {
         return id;
     }
 
-    public Category getCategory() {
-        return category;
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public void setElectionId(Long electionId) {
+        this.electionId = electionId;
+    }
+
+    public Short getCategoryId() {
+        return categoryId;
     }
 
-    public void setCategory(Category category) {
-        this.category = category;
+    public void setCategoryId(Short categoryId) {
+        this.categoryId = categoryId;
     }
 
     public Integer getCandidateNumber() {
@@ -1,13 +1,64 @@
 package com.KTU.KTUVotingapp.model;
 
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
 /**
- * Voting category for candidates (KING, QUEEN, PRINCE, PRINCESS, COUPLE).
+ * Voting category (KING, QUEEN, ...). Categories are rows of the categories
+ * table rather than constants, with dense ids 1..n; candidates, votes and
+ * category totals refer to them by id (see V7__categories.sql). The
+ * application reads them once through CategoryRegistry and uses
+ * {@link #getIndex()} to index per-category arrays.
  */
-public enum Category {
-    KING,
-    QUEEN,
-    PRINCE,
-    PRINCESS,
-    COUPLE
-}
+@Entity
+@Immutable
+@Table(name = "categories", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_category_code", columnNames = "code")
+})
+public class Category {
+
+    @Id
+    private Short id;
+
+    @Column(nullable = false, length = 20)
+    private String code;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    public Category() {
+    }
 
+    public Category(Short id, String code, String name) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+    }
+
+    public Short getId() {
+        return id;
+    }
+
+    /**
+     * Position in per-category arrays: id - 1.
+     */
+    public int getIndex() {
+        return id - 1;
+    }
+
+    /**
+     * The code clients send and receive, e.g. "KING".
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -0,0 +1,80 @@
+package com.KTU.KTUVotingapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One counter shard of a category's vote total in one election. Rows are written only by the
+ * {@code trg_votes_category_totals} trigger on {@code votes}; the application
+ * reads the sum over all shards of a category.
+ */
+@Entity
+@Immutable
+@Table(name = "category_totals")
+@IdClass(CategoryTotal.Key.class)
+public class CategoryTotal {
+
+    @Id
+    @Column(name = "election_id", nullable = false)
+    private Long electionId;
+
+    @Id
+    @Column(name = "category_id", nullable = false)
+    private Short categoryId;
+
+    @Id
+    @Column(nullable = false)
+    private Short shard;
+
+    @Column(name = "total_votes", nullable = false)
+    private Long totalVotes = 0L;
+
+    public CategoryTotal() {
+    }
+
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public Short getCategoryId() {
+        return categoryId;
+    }
+
+    public Short getShard() {
+        return shard;
+    }
+
+    public Long getTotalVotes() {
+        return totalVotes;
+    }
+
+    public static class Key implements Serializable {
+        private Long electionId;
+        private Short categoryId;
+        private Short shard;
+
+        public Key() {
+        }
+
+        public Key(Long electionId, Short categoryId, Short shard) {
+            this.electionId = electionId;
+            this.categoryId = categoryId;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(electionId, key.electionId) && Objects.equals(categoryId, key.categoryId) && Objects.equals(shard, key.shard);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(electionId, categoryId, shard);
+        }
+    }
+}
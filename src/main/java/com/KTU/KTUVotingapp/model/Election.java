@@ -0,0 +1,59 @@
+package com.KTU.KTUVotingapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One election held in this database. Candidates, voters, votes and category
+ * totals carry its id in election_id, and votes are partitioned by it (see
+ * V6__elections.sql), so past elections can be kept without slowing down
+ * the current one.
+ */
+@Entity
+@Table(name = "elections", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_election_code", columnNames = "code")
+})
+public class Election {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String code;
+
+    @Column(nullable = false, length = 200)
+    private String name;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Election() {
+    }
+
+    public Election(String code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,100 @@
+package com.KTU.KTUVotingapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The outcome of a committed ballot submission, keyed by the client's
+ * Idempotency-Key within an election (V11). Inserted in the voting
+ * transaction and never updated.
+ */
+@Entity
+@Immutable
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "election_id", nullable = false)
+    private Long electionId;
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, length = 128)
+    private String idempotencyKey;
+
+    @Column(name = "device_id", nullable = false, length = 255)
+    private String deviceId;
+
+    // SHA-256 of the ballot's selections, hex encoded
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "status_code", nullable = false)
+    private Short statusCode;
+
+    @Column(name = "response_message", nullable = false, length = 255)
+    private String responseMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public Short getStatusCode() {
+        return statusCode;
+    }
+
+    public String getResponseMessage() {
+        return responseMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public static class Key implements Serializable {
+        private Long electionId;
+        private String idempotencyKey;
+
+        public Key() {
+        }
+
+        public Key(Long electionId, String idempotencyKey) {
+            this.electionId = electionId;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(electionId, key.electionId) && Objects.equals(idempotencyKey, key.idempotencyKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(electionId, idempotencyKey);
+        }
+    }
+}
@@ -1,14 +0,0 @@
-package com.KTU.KTUVotingapp.model;
-
-/**
- * Voting role/category for a candidate.
- */
-public enum Role {
-    KING,
-    QUEEN,
-    PRINCE,
-    PRINCESS,
-    COUPLE
-}
-
-
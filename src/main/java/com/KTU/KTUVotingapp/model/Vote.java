@@ -7,13 +7,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "votes",
     indexes = {
-        @Index(name = "idx_voter_id", columnList = "voter_id"),
-        @Index(name = "idx_category", columnList = "category"),
-        @Index(name = "idx_candidate_id", columnList = "candidate_id"),
-        @Index(name = "idx_voter_category", columnList = "voter_id, category")
+        @Index(name = "idx_votes_category_candidate", columnList = "election_id, category_id, candidate_id")
     },
     uniqueConstraints = {
-        @UniqueConstraint(name = "uk_voter_category", columnNames = {"voter_id", "category"})
+        @UniqueConstraint(name = "uk_voter_category", columnNames = {"election_id", "voter_id", "category_id"})
     }
 )
 public class Vote {
@@ -22,6 +19,10 @@ public class Vote {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Partition key of votes (V6__elections.sql)
+    @Column(name = "election_id", nullable = false, updatable = false)
+    private Long electionId;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "voter_id", nullable = false)
     private Voter voter;
@@ -30,9 +31,9 @@ public class Vote {
     @JoinColumn(name = "candidate_id", nullable = false)
     private Candidate candidate;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false, length = 20)
-    private Category category;
+    // categories.id; see CategoryRegistry
+    @Column(name = "category_id", nullable = false)
+    private Short categoryId;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -40,16 +41,24 @@ public class Vote {
     public Vote() {
     }
 
-    public Vote(Voter voter, Candidate candidate, Category category) {
+    public Vote(Voter voter, Candidate candidate, Short categoryId) {
         this.voter = voter;
         this.candidate = candidate;
-        this.category = category;
+        this.categoryId = categoryId;
     }
 
     public Long getId() {
         return id;
     }
 
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public void setElectionId(Long electionId) {
+        this.electionId = electionId;
+    }
+
     public Voter getVoter() {
         return voter;
     }
@@ -66,12 +75,12 @@ public class Vote {
         this.candidate = candidate;
     }
 
-    public Category getCategory() {
-        return category;
+    public Short getCategoryId() {
+        return categoryId;
     }
 
-    public void setCategory(Category category) {
-        this.category = category;
+    public void setCategoryId(Short categoryId) {
+        this.categoryId = categoryId;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -5,14 +5,12 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "voters", 
+@Table(name = "voters",
     indexes = {
-        @Index(name = "idx_pin", columnList = "pin"),
-        @Index(name = "idx_has_voted", columnList = "has_voted"),
-        @Index(name = "idx_device_id", columnList = "device_id")
+        @Index(name = "idx_pin", columnList = "election_id, pin")
     },
     uniqueConstraints = {
-        @UniqueConstraint(name = "uk_device_id", columnNames = "device_id")
+        @UniqueConstraint(name = "uk_device_id", columnNames = {"election_id", "device_id"})
     }
 )
 public class Voter {
@@ -21,10 +19,13 @@ public class Voter {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "election_id", nullable = false, updatable = false)
+    private Long electionId;
+
     @Column(nullable = false, length = 5)
     private String pin;
 
-    @Column(name = "device_id", nullable = false, length = 255, unique = true)
+    @Column(name = "device_id", nullable = false, length = 255)
     private String deviceId;
 
     @Column(name = "has_voted", nullable = false)
@@ -48,6 +49,14 @@ public class Voter {
         return id;
     }
 
+    public Long getElectionId() {
+        return electionId;
+    }
+
+    public void setElectionId(Long electionId) {
+        this.electionId = electionId;
+    }
+
     public String getPin() {
         return pin;
     }
@@ -0,0 +1,67 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.model.Ballot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The ballots layout (V8__ballots.sql). The per-vote questions VoteRepository
+ * answers for votes rows are answered here for ballots; callers ask both, so
+ * results are right whichever layout wrote the ballot.
+ */
+@Repository
+public interface BallotRepository extends JpaRepository<Ballot, Ballot.Key> {
+
+    // Returns 0 instead of failing when the voter already has a ballot
+    @Modifying
+    @Query(value = "INSERT INTO ballots (election_id, voter_id, selections, created_at) " +
+            "VALUES (:electionId, :voterId, :selections, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("electionId") Long electionId, @Param("voterId") Long voterId,
+                       @Param("selections") short[] selections);
+
+    // Primary key lookup; a subscript past the end of selections is NULL
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM ballots WHERE election_id = :electionId " +
+            "AND voter_id = :voterId AND selections[:categoryId] > 0)", nativeQuery = true)
+    boolean existsByVoterAndCategory(@Param("electionId") Long electionId, @Param("voterId") Long voterId,
+                                     @Param("categoryId") Short categoryId);
+
+    // Same rows as VoteRepository.countGroupedByCategoryAndCandidate: category id, candidate id, count
+    @Query(value = "SELECT category_id, candidate_id, COUNT(*) FROM ballot_votes WHERE election_id = :electionId " +
+            "GROUP BY category_id, candidate_id", nativeQuery = true)
+    List<Object[]> countGroupedByCategoryAndCandidate(@Param("electionId") Long electionId);
+
+    // Turnout rebuild: votes per category per second in [since, until)
+    @Query(value = "SELECT s.category_id, date_trunc('second', b.created_at), COUNT(*) FROM ballots b " +
+            "CROSS JOIN LATERAL unnest(b.selections) WITH ORDINALITY AS s (candidate_number, category_id) " +
+            "WHERE b.election_id = :electionId AND b.created_at >= :since AND b.created_at < :until " +
+            "AND s.candidate_number > 0 " +
+            "GROUP BY s.category_id, date_trunc('second', b.created_at)", nativeQuery = true)
+    List<Object[]> countGroupedByCategoryAndSecond(@Param("electionId") Long electionId,
+                                                   @Param("since") LocalDateTime since,
+                                                   @Param("until") LocalDateTime until);
+
+    // Ballots not yet added to candidates.vote_count (V10): candidate id, count
+    @Query(value = "SELECT c.id, COUNT(*) FROM ballots b " +
+            "CROSS JOIN LATERAL unnest(b.selections) WITH ORDINALITY AS s (candidate_number, category_id) " +
+            "JOIN candidates c ON c.election_id = b.election_id AND c.category_id = s.category_id " +
+            "AND c.candidate_number = s.candidate_number " +
+            "WHERE b.election_id = :electionId AND b.txid >= COALESCE(" +
+            "(SELECT counted_below FROM ballot_tallies WHERE election_id = :electionId), 0) " +
+            "GROUP BY c.id", nativeQuery = true)
+    List<Object[]> countUntalliedByCandidate(@Param("electionId") Long electionId);
+
+    // See V9__ballot_mode.sql
+    @Query(value = "SELECT convert_votes_to_ballots(:electionId)", nativeQuery = true)
+    long convertVotes(@Param("electionId") Long electionId);
+
+    // See V10__incremental_ballot_tallies.sql; returns the number of candidates whose count changed
+    @Query(value = "SELECT refresh_ballot_tallies(:electionId)", nativeQuery = true)
+    int refreshTallies(@Param("electionId") Long electionId);
+}
@@ -1,7 +1,6 @@
 package com.KTU.KTUVotingapp.repository;
 
 import com.KTU.KTUVotingapp.model.Candidate;
-import com.KTU.KTUVotingapp.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,16 +14,37 @@ import java.util.Optional;
 @Repository
 public interface CandidateRepository extends JpaRepository<Candidate, Long> {
 
-    List<Candidate> findByCategory(Category category);
+    List<Candidate> findByElectionId(Long electionId);
 
-    Optional<Candidate> findByCategoryAndCandidateNumber(Category category, Integer candidateNumber);
+    List<Candidate> findByElectionIdAndCategoryId(Long electionId, Short categoryId);
 
-    @Query("SELECT c FROM Candidate c WHERE c.category = :category ORDER BY c.candidateNumber")
-    List<Candidate> findByCategoryOrderByCandidateNumber(@Param("category") Category category);
+    Optional<Candidate> findByElectionIdAndCategoryIdAndCandidateNumber(Long electionId, Short categoryId,
+                                                                      Integer candidateNumber);
+
+    // Null if there is no such candidate; loads no entity
+    @Query("SELECT c.id FROM Candidate c WHERE c.electionId = :electionId " +
+            "AND c.categoryId = :categoryId AND c.candidateNumber = :candidateNumber")
+    Long findIdByCategoryAndCandidateNumber(@Param("electionId") Long electionId,
+                                            @Param("categoryId") Short categoryId,
+                                            @Param("candidateNumber") Integer candidateNumber);
+
+    @Query("SELECT c FROM Candidate c WHERE c.electionId = :electionId AND c.categoryId = :categoryId " +
+            "ORDER BY c.candidateNumber")
+    List<Candidate> findByCategoryOrderByCandidateNumber(@Param("electionId") Long electionId,
+                                                         @Param("categoryId") Short categoryId);
 
     // Atomic DB-side increment to avoid lost updates under concurrency.
     @Modifying
     @Transactional
     @Query("UPDATE Candidate c SET c.voteCount = c.voteCount + 1 WHERE c.id = :id")
     int incrementVoteCount(@Param("id") Long id);
+
+    // ID of the current transaction, assigned if it has none yet. Vote events
+    // carry it so LiveResultsService can tell which votes a reload has read.
+    @Query(value = "SELECT txid_current()", nativeQuery = true)
+    long currentTransactionId();
+
+    // The current snapshot as xmin:xmax:xip,... (txid_current_snapshot)
+    @Query(value = "SELECT CAST(txid_current_snapshot() AS text)", nativeQuery = true)
+    String currentSnapshot();
 }
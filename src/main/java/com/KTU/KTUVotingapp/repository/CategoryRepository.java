@@ -0,0 +1,13 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Short> {
+
+    List<Category> findAllByOrderByIdAsc();
+}
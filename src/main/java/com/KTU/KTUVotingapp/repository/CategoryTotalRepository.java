@@ -0,0 +1,22 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.model.CategoryTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryTotalRepository extends JpaRepository<CategoryTotal, CategoryTotal.Key> {
+
+    // Sum over the counter shards of one category (at most 16 rows).
+    @Query("SELECT COALESCE(SUM(t.totalVotes), 0) FROM CategoryTotal t " +
+            "WHERE t.electionId = :electionId AND t.categoryId = :categoryId")
+    long sumByCategory(@Param("electionId") Long electionId, @Param("categoryId") Short categoryId);
+
+    @Query("SELECT t.categoryId, SUM(t.totalVotes) FROM CategoryTotal t WHERE t.electionId = :electionId " +
+            "GROUP BY t.categoryId")
+    List<Object[]> sumGroupedByCategory(@Param("electionId") Long electionId);
+}
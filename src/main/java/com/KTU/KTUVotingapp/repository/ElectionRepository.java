@@ -0,0 +1,13 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.model.Election;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ElectionRepository extends JpaRepository<Election, Long> {
+
+    Optional<Election> findByCode(String code);
+}
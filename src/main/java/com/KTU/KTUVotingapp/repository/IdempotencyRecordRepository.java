@@ -0,0 +1,25 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    // Plain INSERT: save() would SELECT first because the key is assigned.
+    // Returns 0 if the key is taken, after waiting for a concurrent
+    // transaction holding the same key to finish.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (election_id, idempotency_key, device_id, request_hash, status_code, response_message, created_at) " +
+            "VALUES (:electionId, :key, :deviceId, :requestHash, :statusCode, :message, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("electionId") Long electionId,
+                @Param("key") String key,
+                @Param("deviceId") String deviceId,
+                @Param("requestHash") String requestHash,
+                @Param("statusCode") short statusCode,
+                @Param("message") String message);
+}
@@ -0,0 +1,193 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.IdempotencyService;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of the JPA repositories for the reactive profile. The
+ * statements are the ones VoterRepository, VoteRepository,
+ * CandidateRepository, CategoryTotalRepository and
+ * IdempotencyRecordRepository run, so both stacks behave the same on the
+ * same schema.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveVotingRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveVotingRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<CandidateDTO> findCandidatesByCategory(Long electionId, Category category) {
+        return databaseClient.sql("SELECT id, candidate_number, name, department, image_url, vote_count " +
+                        "FROM candidates WHERE election_id = :electionId AND category_id = :categoryId ORDER BY candidate_number")
+                .bind("electionId", electionId)
+                .bind("categoryId", category.getId())
+                .map(row -> toCandidate(row, category))
+                .all();
+    }
+
+    // Sum over the counter shards of one category (at most 16 rows)
+    public Mono<Long> sumCategoryTotal(Long electionId, Category category) {
+        return databaseClient.sql("SELECT COALESCE(SUM(total_votes), 0)::bigint AS total FROM category_totals " +
+                        "WHERE election_id = :electionId AND category_id = :categoryId")
+                .bind("electionId", electionId)
+                .bind("categoryId", category.getId())
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    // Empty if there is no such candidate
+    public Mono<Long> findCandidateId(Long electionId, Category category, Integer candidateNumber) {
+        return databaseClient.sql("SELECT id FROM candidates " +
+                        "WHERE election_id = :electionId AND category_id = :categoryId AND candidate_number = :number")
+                .bind("electionId", electionId)
+                .bind("categoryId", category.getId())
+                .bind("number", candidateNumber)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Long> incrementVoteCount(Long candidateId) {
+        return databaseClient.sql("UPDATE candidates SET vote_count = vote_count + 1 WHERE id = :id")
+                .bind("id", candidateId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // 0 instead of an error when the device already has a row
+    public Mono<Long> insertVotedIfAbsent(Long electionId, String pin, String deviceId) {
+        return databaseClient.sql("INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at) " +
+                        "VALUES (:electionId, :pin, :deviceId, TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING")
+                .bind("electionId", electionId)
+                .bind("pin", pin)
+                .bind("deviceId", deviceId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // 0 if the device has already voted
+    public Mono<Long> markVoted(Long electionId, String deviceId) {
+        return databaseClient.sql("UPDATE voters SET has_voted = TRUE, voted_at = CURRENT_TIMESTAMP " +
+                        "WHERE election_id = :electionId AND device_id = :deviceId AND has_voted = FALSE")
+                .bind("electionId", electionId)
+                .bind("deviceId", deviceId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> findVoterIdByDeviceId(Long electionId, String deviceId) {
+        return databaseClient.sql("SELECT id FROM voters WHERE election_id = :electionId AND device_id = :deviceId")
+                .bind("electionId", electionId)
+                .bind("deviceId", deviceId)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Boolean> deviceHasVoted(Long electionId, String deviceId) {
+        return databaseClient.sql("SELECT has_voted FROM voters WHERE election_id = :electionId AND device_id = :deviceId")
+                .bind("electionId", electionId)
+                .bind("deviceId", deviceId)
+                .map(row -> Boolean.TRUE.equals(row.get("has_voted", Boolean.class)))
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Boolean> hasVoted(Long electionId, String pin, Category category) {
+        // Votes rows, or ballots rows written in ballot mode
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM votes v JOIN voters r ON r.id = v.voter_id " +
+                        "WHERE v.election_id = :electionId AND r.election_id = :electionId " +
+                        "AND r.pin = :pin AND v.category_id = :categoryId) " +
+                        "OR EXISTS (SELECT 1 FROM ballots b JOIN voters r ON r.id = b.voter_id " +
+                        "WHERE b.election_id = :electionId AND r.election_id = :electionId " +
+                        "AND r.pin = :pin AND b.selections[:categoryId] > 0) AS voted")
+                .bind("electionId", electionId)
+                .bind("pin", pin)
+                .bind("categoryId", category.getId())
+                .map(row -> Boolean.TRUE.equals(row.get("voted", Boolean.class)))
+                .one();
+    }
+
+    // 0 instead of an error when the voter already voted in this category
+    public Mono<Long> insertVoteIfAbsent(Long electionId, Long voterId, Long candidateId, Category category) {
+        return databaseClient.sql("INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at) " +
+                        "VALUES (:electionId, :voterId, :candidateId, :categoryId, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING")
+                .bind("electionId", electionId)
+                .bind("voterId", voterId)
+                .bind("candidateId", candidateId)
+                .bind("categoryId", category.getId())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Ballot mode (V8): 0 instead of an error when the voter already has a ballot
+    public Mono<Long> insertBallotIfAbsent(Long electionId, Long voterId, Short[] selections) {
+        return databaseClient.sql("INSERT INTO ballots (election_id, voter_id, selections, created_at) " +
+                        "VALUES (:electionId, :voterId, :selections, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING")
+                .bind("electionId", electionId)
+                .bind("voterId", voterId)
+                .bind("selections", selections)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<IdempotencyService.Outcome> findIdempotencyOutcome(Long electionId, String key) {
+        return databaseClient.sql("SELECT request_hash, status_code, response_message FROM idempotency_keys " +
+                        "WHERE election_id = :electionId AND idempotency_key = :key")
+                .bind("electionId", electionId)
+                .bind("key", key)
+                .map(row -> new IdempotencyService.Outcome(row.get("request_hash", String.class),
+                        row.get("status_code", Short.class), row.get("response_message", String.class)))
+                .one();
+    }
+
+    // 0 if the key is taken, after waiting for a concurrent transaction holding it
+    public Mono<Long> insertIdempotencyRecordIfAbsent(Long electionId, String key, String deviceId, String requestHash,
+                                                      short statusCode, String message) {
+        return databaseClient.sql("INSERT INTO idempotency_keys (election_id, idempotency_key, device_id, request_hash, status_code, response_message, created_at) " +
+                        "VALUES (:electionId, :key, :deviceId, :requestHash, :statusCode, :message, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING")
+                .bind("electionId", electionId)
+                .bind("key", key)
+                .bind("deviceId", deviceId)
+                .bind("requestHash", requestHash)
+                .bind("statusCode", statusCode)
+                .bind("message", message)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // See CandidateRepository.currentTransactionId
+    public Mono<Long> currentTransactionId() {
+        return databaseClient.sql("SELECT txid_current() AS txid")
+                .map(row -> row.get("txid", Long.class))
+                .one();
+    }
+
+    // Delivered by PostgreSQL only when the surrounding transaction commits
+    public Mono<Void> notify(String channel, String payload) {
+        return databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+                .bind("channel", channel)
+                .bind("payload", payload)
+                .then();
+    }
+
+    private static CandidateDTO toCandidate(Readable row, Category category) {
+        return new CandidateDTO(
+                row.get("id", Long.class),
+                category.getCode(),
+                row.get("candidate_number", Integer.class),
+                row.get("name", String.class),
+                row.get("department", String.class),
+                row.get("image_url", String.class),
+                row.get("vote_count", Long.class));
+    }
+}
@@ -1,15 +1,16 @@
 package com.KTU.KTUVotingapp.repository;
 
-import com.KTU.KTUVotingapp.model.Category;
 import com.KTU.KTUVotingapp.model.Vote;
 import com.KTU.KTUVotingapp.model.Voter;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,21 +19,45 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
 
     List<Vote> findByVoter(Voter voter);
 
-    List<Vote> findByVoterAndCategory(Voter voter, Category category);
+    List<Vote> findByVoterAndCategoryId(Voter voter, Short categoryId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT v FROM Vote v WHERE v.voter = :voter AND v.category = :category")
-    Optional<Vote> findByVoterAndCategoryWithLock(@Param("voter") Voter voter, @Param("category") Category category);
+    @Query("SELECT v FROM Vote v WHERE v.voter = :voter AND v.categoryId = :categoryId")
+    Optional<Vote> findByVoterAndCategoryIdWithLock(@Param("voter") Voter voter, @Param("categoryId") Short categoryId);
 
-    boolean existsByVoterAndCategory(Voter voter, Category category);
+    // Scoped by election as well so that only one partition is searched
+    boolean existsByElectionIdAndVoterAndCategoryId(Long electionId, Voter voter, Short categoryId);
 
     boolean existsByVoter(Voter voter);
 
-    @Query("SELECT COUNT(v) FROM Vote v WHERE v.category = :category")
-    long countByCategory(@Param("category") Category category);
+    // Returns 0 instead of failing when the voter already voted in this
+    // category (uk_voter_category)
+    @Modifying
+    @Query(value = "INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at) " +
+            "VALUES (:electionId, :voterId, :candidateId, :categoryId, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("electionId") Long electionId, @Param("voterId") Long voterId,
+                       @Param("candidateId") Long candidateId, @Param("categoryId") Short categoryId);
+
+    @Query("SELECT COUNT(v) FROM Vote v WHERE v.electionId = :electionId AND v.categoryId = :categoryId")
+    long countByCategory(@Param("electionId") Long electionId, @Param("categoryId") Short categoryId);
 
     @Query("SELECT COUNT(v) FROM Vote v WHERE v.candidate.id = :candidateId")
     long countByCandidateId(@Param("candidateId") Long candidateId);
+
+    // Full recount for the tally consistency check; index-only scan on the
+    // election's partition of (category_id, candidate_id).
+    @Query("SELECT v.categoryId, v.candidate.id, COUNT(v) FROM Vote v WHERE v.electionId = :electionId " +
+            "GROUP BY v.categoryId, v.candidate.id")
+    List<Object[]> countGroupedByCategoryAndCandidate(@Param("electionId") Long electionId);
+
+    // Turnout rebuild: votes per category per second in [since, until)
+    @Query(value = "SELECT category_id, date_trunc('second', created_at), COUNT(*) FROM votes " +
+            "WHERE election_id = :electionId AND created_at >= :since AND created_at < :until " +
+            "GROUP BY category_id, date_trunc('second', created_at)", nativeQuery = true)
+    List<Object[]> countGroupedByCategoryAndSecond(@Param("electionId") Long electionId,
+                                                   @Param("since") LocalDateTime since,
+                                                   @Param("until") LocalDateTime until);
 }
 
 
@@ -4,6 +4,7 @@ import com.KTU.KTUVotingapp.model.Voter;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,9 +14,9 @@ import java.util.Optional;
 @Repository
 public interface VoterRepository extends JpaRepository<Voter, Long> {
 
-    Optional<Voter> findByPin(String pin);
+    Optional<Voter> findByElectionIdAndPin(Long electionId, String pin);
 
-    Optional<Voter> findByDeviceId(String deviceId);
+    Optional<Voter> findByElectionIdAndDeviceId(Long electionId, String deviceId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT v FROM Voter v WHERE v.deviceId = :deviceId")
@@ -28,6 +29,25 @@ public interface VoterRepository extends JpaRepository<Voter, Long> {
     boolean existsByDeviceId(String deviceId);
 
     boolean existsByPin(String pin);
+
+    // Claims a new device for a ballot. Returns 0 instead of failing when
+    // the device already has a row; a concurrent claim waits for the other
+    // transaction to finish first.
+    @Modifying
+    @Query(value = "INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at) " +
+            "VALUES (:electionId, :pin, :deviceId, TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertVotedIfAbsent(@Param("electionId") Long electionId, @Param("pin") String pin,
+                            @Param("deviceId") String deviceId);
+
+    // Claims an existing device that has not voted yet; 0 if it already has
+    @Modifying
+    @Query(value = "UPDATE voters SET has_voted = TRUE, voted_at = CURRENT_TIMESTAMP " +
+            "WHERE election_id = :electionId AND device_id = :deviceId AND has_voted = FALSE", nativeQuery = true)
+    int markVoted(@Param("electionId") Long electionId, @Param("deviceId") String deviceId);
+
+    @Query("SELECT v.id FROM Voter v WHERE v.electionId = :electionId AND v.deviceId = :deviceId")
+    Long findIdByDeviceId(@Param("electionId") Long electionId, @Param("deviceId") String deviceId);
 }
 
 
@@ -0,0 +1,36 @@
+package com.KTU.KTUVotingapp.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Result of casting a ballot. Expected rejections such as a double-tapped
+ * submit come back as a value: no exception is thrown and no stack trace is
+ * captured.
+ */
+public enum BallotOutcome {
+    ACCEPTED(HttpStatus.OK, "All votes submitted successfully"),
+    DUPLICATE_DEVICE(HttpStatus.CONFLICT, "This device has already submitted votes"),
+    DUPLICATE_CATEGORY(HttpStatus.CONFLICT, "You have already voted in this category"),
+    UNKNOWN_CANDIDATE(HttpStatus.NOT_FOUND, "Candidate not found"),
+    INVALID(HttpStatus.BAD_REQUEST, "Invalid ballot");
+
+    private final HttpStatus status;
+    private final String message;
+
+    BallotOutcome(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
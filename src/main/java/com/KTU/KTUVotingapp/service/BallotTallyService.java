@@ -0,0 +1,108 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.repository.BallotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tallies for ballot mode (voting.ballots.enabled), where a ballot is one
+ * ballots row and nothing increments candidates.vote_count or
+ * category_totals per vote. Every voting.ballots.tally-interval the ballots
+ * written since the previous run are added to both in one statement
+ * (refresh_ballot_tallies in V10__incremental_ballot_tallies.sql), so
+ * results read the same columns as in votes mode and trail the newest
+ * ballots by about one interval. Each run scans only the new ballots, and
+ * while one node runs it the others skip their turn. Live results still
+ * count each ballot as it commits, from VotesCastEvent.
+ *
+ * The first run converts the election's existing votes rows to ballots.
+ */
+@Service
+@ConditionalOnProperty(name = "voting.ballots.enabled", havingValue = "true")
+public class BallotTallyService {
+
+    private static final Logger log = LoggerFactory.getLogger(BallotTallyService.class);
+
+    private final BallotRepository ballotRepository;
+    private final ElectionService electionService;
+    private final CacheManager cacheManager;
+    // Read-write: with read routing enabled this must run on the primary
+    private final TransactionTemplate primaryWrite;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ballot-tallies");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private boolean converted;
+
+    public BallotTallyService(BallotRepository ballotRepository, ElectionService electionService,
+                              CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                              @Value("${voting.ballots.tally-interval:2s}") Duration tallyInterval) {
+        this.ballotRepository = ballotRepository;
+        this.electionService = electionService;
+        this.cacheManager = cacheManager;
+        this.primaryWrite = new TransactionTemplate(transactionManager);
+        long intervalMillis = tallyInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add the ballots written since the last run to the tallies now,
+     * converting the election's votes rows first on the first call. Returns
+     * the number of candidates whose count changed, 0 if another node's run
+     * was in progress.
+     */
+    public synchronized int refresh() {
+        Long electionId = electionService.getCurrentElectionId();
+        if (!converted) {
+            Long voters = primaryWrite.execute(status -> ballotRepository.convertVotes(electionId));
+            converted = true;
+            if (voters != null && voters > 0) {
+                log.info("Converted the votes of {} voters to ballots", voters);
+            }
+        }
+        Integer changed = primaryWrite.execute(status -> ballotRepository.refreshTallies(electionId));
+        if (changed != null && changed > 0) {
+            // Cached results were built from the previous counts
+            clear("results");
+            clear("candidates");
+        }
+        return changed != null ? changed : 0;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh ballot tallies: {}", e.getMessage());
+        }
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,238 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
+import com.KTU.KTUVotingapp.model.Candidate;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structural ballot checks done before any database work: PIN present,
+ * at least one vote, every category known and present at most once, and
+ * every candidate number known for its category.
+ *
+ * Valid candidate numbers are held as one bitset per category, indexed by
+ * Category.getIndex() (see CategoryRegistry), and rebuilt from
+ * the candidates table every refresh-interval and whenever an admin edits
+ * candidates on this node. Checking a ballot is a few bit tests against
+ * that snapshot. A rejection is a Verdict constant rather than an
+ * exception, so rejecting a bad ballot allocates nothing and fills no
+ * stack trace. VotingService still resolves each candidate in the voting
+ * transaction, so a snapshot that is briefly stale cannot record a vote
+ * for a deleted candidate.
+ */
+@Service
+public class BallotValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(BallotValidator.class);
+
+    // voters.pin is VARCHAR(5)
+    public static final int MAX_PIN_LENGTH = 5;
+
+    public enum Verdict {
+        VALID(HttpStatus.OK, null),
+        INVALID_PIN(HttpStatus.BAD_REQUEST, "PIN must be 1 to " + MAX_PIN_LENGTH + " characters"),
+        NO_VOTES(HttpStatus.BAD_REQUEST, "At least one vote is required"),
+        INCOMPLETE_VOTE(HttpStatus.BAD_REQUEST, "Category and candidate number are required"),
+        UNKNOWN_CATEGORY(HttpStatus.BAD_REQUEST, "Unknown category"),
+        DUPLICATE_CATEGORY(HttpStatus.BAD_REQUEST, "Each category may appear only once per ballot"),
+        UNKNOWN_CANDIDATE(HttpStatus.NOT_FOUND, "Candidate not found"),
+        MALFORMED(HttpStatus.BAD_REQUEST, "Malformed ballot");
+
+        private final HttpStatus status;
+        private final String message;
+
+        Verdict(HttpStatus status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final CandidateRepository candidateRepository;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final TransactionTemplate primaryRead;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ballot-validator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Bit n of validNumbers[index] is set if candidate n exists in that category
+    private volatile long[][] validNumbers;
+
+    public BallotValidator(CandidateRepository candidateRepository, ElectionService electionService,
+                           CategoryRegistry categoryRegistry, PlatformTransactionManager transactionManager,
+                           @Value("${voting.ballot.candidate-refresh-interval:30s}") Duration refreshInterval) {
+        this.candidateRepository = candidateRepository;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        // Read-write on purpose: the first ballot must not fail because the
+        // read pool is saturated, and an admin edit must be visible at once
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        long millis = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check a JSON ballot.
+     */
+    public Verdict validate(BulkVoteRequest request) {
+        String pin = request.getPin();
+        if (pin == null || pin.isBlank() || pin.length() > MAX_PIN_LENGTH) {
+            return Verdict.INVALID_PIN;
+        }
+        List<BulkVoteRequest.VoteItem> votes = request.getVotes();
+        if (votes == null || votes.isEmpty()) {
+            return Verdict.NO_VOTES;
+        }
+
+        long[][] valid = snapshot();
+        // At most CategoryRegistry.MAX_CATEGORIES, one bit each
+        long seen = 0;
+        // Indexed loop: no Iterator on the hot path
+        for (int i = 0; i < votes.size(); i++) {
+            BulkVoteRequest.VoteItem item = votes.get(i);
+            if (item == null || item.getCategory() == null || item.getCandidateNumber() == null) {
+                return Verdict.INCOMPLETE_VOTE;
+            }
+            Category category = categoryRegistry.findByCode(item.getCategory()).orElse(null);
+            if (category == null) {
+                return Verdict.UNKNOWN_CATEGORY;
+            }
+            int index = category.getIndex();
+            if ((seen & (1L << index)) != 0) {
+                return Verdict.DUPLICATE_CATEGORY;
+            }
+            seen |= 1L << index;
+            if (!isSet(valid[index], item.getCandidateNumber())) {
+                return Verdict.UNKNOWN_CANDIDATE;
+            }
+        }
+        return Verdict.VALID;
+    }
+
+    /**
+     * Check a CompactBallot body before decoding it. A VALID body always
+     * decodes.
+     */
+    public Verdict validate(byte[] body) {
+        int categories = categoryRegistry.size();
+        int headerLength = CompactBallot.headerLength(categories);
+        if (body == null || body.length < headerLength || body[0] != CompactBallot.VERSION) {
+            return Verdict.MALFORMED;
+        }
+        int pinLength = body.length - headerLength;
+        if (pinLength < 1 || pinLength > MAX_PIN_LENGTH) {
+            return Verdict.INVALID_PIN;
+        }
+        for (int i = headerLength; i < body.length; i++) {
+            if (body[i] <= ' ' || body[i] > '~') {
+                return Verdict.INVALID_PIN;
+            }
+        }
+
+        long[][] valid = snapshot();
+        boolean anyVote = false;
+        for (int index = 0; index < categories; index++) {
+            int candidateNumber = body[1 + index] & 0xFF;
+            if (candidateNumber != 0) {
+                if (!isSet(valid[index], candidateNumber)) {
+                    return Verdict.UNKNOWN_CANDIDATE;
+                }
+                anyVote = true;
+            }
+        }
+        return anyVote ? Verdict.VALID : Verdict.NO_VOTES;
+    }
+
+    /**
+     * Rebuild the bitsets from the candidates table, e.g. after an admin
+     * edit.
+     */
+    public void refresh() {
+        update(primaryRead.execute(status ->
+                candidateRepository.findByElectionId(electionService.getCurrentElectionId())));
+    }
+
+    /**
+     * Replace the bitsets with the given candidates.
+     */
+    public void update(Collection<Candidate> candidates) {
+        int categories = categoryRegistry.size();
+        int[] maxNumber = new int[categories];
+        for (Candidate candidate : candidates) {
+            if (candidate.getCategoryId() != null && candidate.getCandidateNumber() != null) {
+                int index = candidate.getCategoryId() - 1;
+                maxNumber[index] = Math.max(maxNumber[index], candidate.getCandidateNumber());
+            }
+        }
+
+        long[][] bits = new long[categories][];
+        for (int index = 0; index < categories; index++) {
+            bits[index] = new long[(maxNumber[index] >> 6) + 1];
+        }
+        for (Candidate candidate : candidates) {
+            Integer number = candidate.getCandidateNumber();
+            if (candidate.getCategoryId() != null && number != null && number >= 0) {
+                bits[candidate.getCategoryId() - 1][number >> 6] |= 1L << number;
+            }
+        }
+        validNumbers = bits;
+    }
+
+    private long[][] snapshot() {
+        long[][] valid = validNumbers;
+        if (valid == null) {
+            synchronized (this) {
+                if (validNumbers == null) {
+                    refresh();
+                }
+                valid = validNumbers;
+            }
+        }
+        return valid;
+    }
+
+    private static boolean isSet(long[] bits, int number) {
+        int word = number >> 6;
+        return number >= 0 && word < bits.length && (bits[word] & (1L << number)) != 0;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep validating against the last snapshot
+            log.warn("Could not refresh candidate numbers: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,310 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.dto.CandidateImportDTO;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
+import com.KTU.KTUVotingapp.model.Category;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Bulk candidate import for the admin API, as CSV or as a JSON list of
+ * CandidateDTO. Images are referenced by imageUrl, as for single candidates.
+ *
+ * The whole set is validated in memory first, against the category
+ * registry and the candidates column limits, and every bad row is
+ * reported; one bad row rejects the import. A valid set is written with a
+ * single INSERT ... SELECT FROM unnest(...) ON CONFLICT statement keyed on
+ * (election_id, category_id, candidate_number): new candidates start at 0
+ * votes, existing ones get the new name, department and image and keep
+ * their votes. The ballot validator, the candidates/results caches and
+ * the live results are refreshed once afterwards, not per row.
+ */
+@Service
+public class CandidateImportService {
+
+    // Columns of candidates (V1__baseline_schema.sql)
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_DEPARTMENT_LENGTH = 100;
+    private static final int MAX_IMAGE_URL_LENGTH = 500;
+    // Binary ballots carry a candidate number in one byte
+    private static final int MAX_CANDIDATE_NUMBER = CompactBallot.MAX_CANDIDATE_NUMBER;
+
+    private static final String CSV_HEADER = "category,candidatenumber,name,department,imageurl";
+
+    // xmax is 0 only for a row this statement inserted
+    private static final String UPSERT_SQL =
+            "INSERT INTO candidates (election_id, category_id, candidate_number, name, department, image_url, vote_count) " +
+            "SELECT ?, c.category_id, c.candidate_number, c.name, c.department, c.image_url, 0 " +
+            "FROM unnest(?::smallint[], ?::integer[], ?::varchar[], ?::varchar[], ?::varchar[]) " +
+            "AS c (category_id, candidate_number, name, department, image_url) " +
+            "ON CONFLICT (election_id, category_id, candidate_number) DO UPDATE " +
+            "SET name = EXCLUDED.name, department = EXCLUDED.department, image_url = EXCLUDED.image_url " +
+            "RETURNING xmax = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate primaryWrite;
+    private final CategoryRegistry categoryRegistry;
+    private final ElectionService electionService;
+    private final BallotValidator ballotValidator;
+    private final LiveResultsService liveResultsService;
+    private final CacheManager cacheManager;
+
+    public CandidateImportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                  CategoryRegistry categoryRegistry, ElectionService electionService,
+                                  BallotValidator ballotValidator, LiveResultsService liveResultsService,
+                                  CacheManager cacheManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Read-write: with read routing enabled this must run on the primary
+        this.primaryWrite = new TransactionTemplate(transactionManager);
+        this.categoryRegistry = categoryRegistry;
+        this.electionService = electionService;
+        this.ballotValidator = ballotValidator;
+        this.liveResultsService = liveResultsService;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Import candidates from CSV with the header
+     * category,candidateNumber,name,department,imageUrl (any case). Rows
+     * that cannot be read and rows that fail validation are reported
+     * together, numbered by their CSV record.
+     */
+    public CandidateImportDTO importCsv(String csv) {
+        List<CandidateDTO> rows = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<CandidateImportDTO.RowError> errors = new ArrayList<>();
+        parseCsv(csv, rows, rowNumbers, errors);
+        // Rows that could not be read still count as received; a bad header (row 0) does not
+        int received = rows.size() + (int) errors.stream().filter(error -> error.getRow() > 0).count();
+        short[] categoryIds = new short[rows.size()];
+        // validate numbers rows by list position; map back to the CSV record
+        for (CandidateImportDTO.RowError error : validate(rows, categoryRegistry, categoryIds)) {
+            errors.add(new CandidateImportDTO.RowError(rowNumbers.get(error.getRow() - 1), error.getMessage()));
+        }
+        if (!errors.isEmpty()) {
+            errors.sort(Comparator.comparingInt(CandidateImportDTO.RowError::getRow));
+            return new CandidateImportDTO(received, 0, 0, errors);
+        }
+        return write(rows, categoryIds);
+    }
+
+    /**
+     * Validate and upsert candidates into the current election.
+     */
+    public CandidateImportDTO importCandidates(List<CandidateDTO> rows) {
+        short[] categoryIds = new short[rows.size()];
+        List<CandidateImportDTO.RowError> errors = validate(rows, categoryRegistry, categoryIds);
+        if (!errors.isEmpty()) {
+            return new CandidateImportDTO(rows.size(), 0, 0, errors);
+        }
+        return write(rows, categoryIds);
+    }
+
+    private CandidateImportDTO write(List<CandidateDTO> rows, short[] categoryIds) {
+        if (rows.isEmpty()) {
+            return new CandidateImportDTO(0, 0, 0, new ArrayList<>());
+        }
+        int[] counts = primaryWrite.execute(status -> upsert(rows, categoryIds));
+        ballotValidator.refresh();
+        clear("candidates");
+        clear("results");
+        liveResultsService.markStale();
+        return new CandidateImportDTO(rows.size(), counts[0], counts[1], new ArrayList<>());
+    }
+
+    // Fills categoryIds for the valid rows
+    static List<CandidateImportDTO.RowError> validate(List<CandidateDTO> rows, CategoryRegistry categoryRegistry,
+                                                      short[] categoryIds) {
+        List<CandidateImportDTO.RowError> errors = new ArrayList<>();
+        // Category ID << 16 | candidate number, to catch repeats in the set
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            CandidateDTO row = rows.get(i);
+            int rowNumber = i + 1;
+            if (row == null) {
+                errors.add(new CandidateImportDTO.RowError(rowNumber, "Empty row"));
+                continue;
+            }
+            Optional<Category> category = row.getCategory() != null
+                    ? categoryRegistry.findByCode(row.getCategory().trim().toUpperCase(Locale.ROOT))
+                    : Optional.empty();
+            Integer number = row.getCandidateNumber();
+            String error = null;
+            if (category.isEmpty()) {
+                error = "Unknown category: " + row.getCategory();
+            } else if (number == null || number < 1 || number > MAX_CANDIDATE_NUMBER) {
+                error = "candidateNumber must be 1 to " + MAX_CANDIDATE_NUMBER;
+            } else if (row.getName() == null || row.getName().isBlank()) {
+                error = "name is required";
+            } else if (row.getName().trim().length() > MAX_NAME_LENGTH) {
+                // Lengths are checked on the trimmed values, which are what gets stored
+                error = "name is longer than " + MAX_NAME_LENGTH + " characters";
+            } else if (row.getDepartment() != null && row.getDepartment().trim().length() > MAX_DEPARTMENT_LENGTH) {
+                error = "department is longer than " + MAX_DEPARTMENT_LENGTH + " characters";
+            } else if (row.getImageUrl() != null && row.getImageUrl().trim().length() > MAX_IMAGE_URL_LENGTH) {
+                error = "imageUrl is longer than " + MAX_IMAGE_URL_LENGTH + " characters";
+            } else if (!seen.add(category.get().getId() << 16 | number)) {
+                error = "Duplicate candidate " + category.get().getCode() + " " + number + " in this import";
+            }
+            if (error != null) {
+                errors.add(new CandidateImportDTO.RowError(rowNumber, error));
+            } else {
+                categoryIds[i] = category.get().getId();
+            }
+        }
+        return errors;
+    }
+
+    // Returns {inserted, updated}
+    private int[] upsert(List<CandidateDTO> rows, short[] categoryIds) {
+        Short[] categories = new Short[rows.size()];
+        Integer[] numbers = new Integer[rows.size()];
+        String[] names = new String[rows.size()];
+        String[] departments = new String[rows.size()];
+        String[] imageUrls = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            CandidateDTO row = rows.get(i);
+            categories[i] = categoryIds[i];
+            numbers[i] = row.getCandidateNumber();
+            names[i] = row.getName().trim();
+            departments[i] = blankToNull(row.getDepartment());
+            imageUrls[i] = blankToNull(row.getImageUrl());
+        }
+        Long electionId = electionService.getCurrentElectionId();
+        return jdbcTemplate.execute((ConnectionCallback<int[]>) connection -> {
+            Array categoryArray = connection.createArrayOf("smallint", categories);
+            Array numberArray = connection.createArrayOf("integer", numbers);
+            Array nameArray = connection.createArrayOf("varchar", names);
+            Array departmentArray = connection.createArrayOf("varchar", departments);
+            Array imageUrlArray = connection.createArrayOf("varchar", imageUrls);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                statement.setLong(1, electionId);
+                statement.setArray(2, categoryArray);
+                statement.setArray(3, numberArray);
+                statement.setArray(4, nameArray);
+                statement.setArray(5, departmentArray);
+                statement.setArray(6, imageUrlArray);
+                int inserted = 0;
+                int updated = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        if (rs.getBoolean(1)) {
+                            inserted++;
+                        } else {
+                            updated++;
+                        }
+                    }
+                }
+                return new int[]{inserted, updated};
+            }
+        });
+    }
+
+    // RFC 4180: comma-separated, fields optionally in double quotes with "" for a quote
+    // rowNumbers gets the CSV record number (1-based, after the header) of each parsed row
+    static void parseCsv(String csv, List<CandidateDTO> rows, List<Integer> rowNumbers,
+                         List<CandidateImportDTO.RowError> errors) {
+        List<List<String>> records = splitCsv(csv);
+        if (records.isEmpty()) {
+            return;
+        }
+        String header = String.join(",", records.get(0)).replace(" ", "").replace("_", "")
+                .replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+        if (!header.equals(CSV_HEADER)) {
+            errors.add(new CandidateImportDTO.RowError(0,
+                    "Header must be category,candidateNumber,name,department,imageUrl"));
+            return;
+        }
+        for (int i = 1; i < records.size(); i++) {
+            List<String> fields = records.get(i);
+            if (fields.size() != 5) {
+                errors.add(new CandidateImportDTO.RowError(i, "Expected 5 fields, found " + fields.size()));
+                continue;
+            }
+            Integer number;
+            try {
+                number = Integer.valueOf(fields.get(1).trim());
+            } catch (NumberFormatException e) {
+                errors.add(new CandidateImportDTO.RowError(i, "candidateNumber is not a number: " + fields.get(1)));
+                continue;
+            }
+            rows.add(new CandidateDTO(null, fields.get(0), number, fields.get(2), fields.get(3), fields.get(4), null));
+            rowNumbers.add(i);
+        }
+    }
+
+    private static List<List<String>> splitCsv(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = csv.length();
+        for (int i = 0; i < length; i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < length && csv.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < length && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                fields.add(field.toString());
+                field.setLength(0);
+                addRecord(records, fields);
+                fields = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        addRecord(records, fields);
+        return records;
+    }
+
+    // Blank lines are skipped
+    private static void addRecord(List<List<String>> records, List<String> fields) {
+        if (fields.size() > 1 || !fields.get(0).isBlank()) {
+            records.add(fields);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
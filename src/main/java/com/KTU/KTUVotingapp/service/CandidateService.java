@@ -17,21 +17,28 @@ import java.util.stream.Collectors;
 public class CandidateService {
 
     private final CandidateRepository candidateRepository;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
 
-    public CandidateService(CandidateRepository candidateRepository) {
+    public CandidateService(CandidateRepository candidateRepository, ElectionService electionService,
+                            CategoryRegistry categoryRegistry) {
         this.candidateRepository = candidateRepository;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
     }
 
-    @Cacheable(value = "candidates", key = "#category")
+    @Cacheable(value = "candidates", key = "#category.id")
     public List<CandidateDTO> getCandidatesByCategory(Category category) {
-        List<Candidate> candidates = candidateRepository.findByCategoryOrderByCandidateNumber(category);
+        List<Candidate> candidates = candidateRepository.findByCategoryOrderByCandidateNumber(
+                electionService.getCurrentElectionId(), category.getId());
         return candidates.stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
     public Optional<Candidate> findByCategoryAndNumber(Category category, Integer candidateNumber) {
-        return candidateRepository.findByCategoryAndCandidateNumber(category, candidateNumber);
+        return candidateRepository.findByElectionIdAndCategoryIdAndCandidateNumber(
+                electionService.getCurrentElectionId(), category.getId(), candidateNumber);
     }
 
     public Candidate getCandidateById(Long id) {
@@ -39,10 +46,10 @@ public class CandidateService {
                 .orElseThrow(() -> new IllegalArgumentException("Candidate not found with id: " + id));
     }
 
-    private CandidateDTO toDTO(Candidate candidate) {
+    public CandidateDTO toDTO(Candidate candidate) {
         return new CandidateDTO(
                 candidate.getId(),
-                candidate.getCategory(),
+                categoryRegistry.byId(candidate.getCategoryId()).getCode(),
                 candidate.getCandidateNumber(),
                 candidate.getName(),
                 candidate.getDepartment(),
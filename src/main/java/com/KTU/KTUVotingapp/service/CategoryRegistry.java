@@ -0,0 +1,118 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.CategoryRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The categories table held in memory. Category ids are dense (1..n), so
+ * per-category state elsewhere (ballot bitsets, live tallies, turnout
+ * buckets, the compact ballot layout) is a plain array indexed by
+ * {@link Category#getIndex()} rather than a map keyed by category.
+ *
+ * Categories are loaded on first use and do not change while the
+ * application runs; adding one is a migration and a restart.
+ */
+@Service
+public class CategoryRegistry {
+
+    // Ballots track the categories seen so far in one long
+    public static final int MAX_CATEGORIES = 64;
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+
+    public CategoryRegistry(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * All categories in id order; element i has index i.
+     */
+    public List<Category> all() {
+        return snapshot().categories;
+    }
+
+    public int size() {
+        return snapshot().categories.size();
+    }
+
+    public Category byIndex(int index) {
+        return snapshot().categories.get(index);
+    }
+
+    public Category byId(short id) {
+        return snapshot().categories.get(id - 1);
+    }
+
+    /**
+     * Look up a category by its code; case-sensitive, as codes are sent by
+     * clients exactly as listed.
+     */
+    public Optional<Category> findByCode(String code) {
+        return code == null ? Optional.empty() : Optional.ofNullable(snapshot().byCode.get(code));
+    }
+
+    /**
+     * Like findByCode, for callers that treat an unknown code like
+     * Enum.valueOf does.
+     *
+     * @throws IllegalArgumentException if there is no such category
+     */
+    public Category getByCode(String code) {
+        return findByCode(code).orElseThrow(() -> new IllegalArgumentException("Unknown category: " + code));
+    }
+
+    /**
+     * Replace the categories, e.g. in tests without a database.
+     *
+     * @throws IllegalStateException if the ids are not exactly 1..n
+     */
+    public void update(Collection<Category> categories) {
+        Category[] byIndex = new Category[categories.size()];
+        if (byIndex.length > MAX_CATEGORIES) {
+            throw new IllegalStateException("At most " + MAX_CATEGORIES + " categories are supported");
+        }
+        Map<String, Category> byCode = new HashMap<>();
+        for (Category category : categories) {
+            int index = category.getIndex();
+            if (index < 0 || index >= byIndex.length || byIndex[index] != null) {
+                throw new IllegalStateException("Category ids must be 1.." + byIndex.length
+                        + ", found " + category.getId() + " (" + category.getCode() + ")");
+            }
+            byIndex[index] = category;
+            byCode.put(category.getCode(), category);
+        }
+        snapshot = new Snapshot(List.of(byIndex), Map.copyOf(byCode));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    update(categoryRepository.findAllByOrderByIdAsc());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        private final List<Category> categories;
+        private final Map<String, Category> byCode;
+
+        private Snapshot(List<Category> categories, Map<String, Category> byCode) {
+            this.categories = categories;
+            this.byCode = byCode;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster mode (voting.cluster.enabled=true): keeps the per-JVM caches and
+ * rate-limit state of several instances in step through PostgreSQL
+ * LISTEN/NOTIFY on the database they already share.
+ *
+ * Instances serving the same election form a cluster; each election has
+ * its own channel, voting_cluster_<election id>, so votes for one election
+ * never touch another's caches. Messages are "nodeId|type|argument":
+ *   votes|txid:id,...   votes were committed by transaction txid for these
+ *                       candidate IDs (one entry per vote): drop the
+ *                       candidates/results caches and count them in
+ *                       LiveResultsService and TurnoutService
+ *   rate-failed|ip      a failed PIN attempt, replayed on every node
+ *   rate-succeeded|ip   a successful attempt (resets the counter)
+ *   rate-cleared|ip     rate-limit data for the IP removed
+ * Each node ignores its own messages, since it already applied them locally.
+ *
+ * The votes notification is sent after the voting transaction commits, so
+ * other nodes never evict for a rolled-back ballot and never re-read before
+ * the votes are visible. Sent inside the voting transaction instead, a
+ * failing pg_notify (e.g. a full NOTIFY queue, which surfaces at commit)
+ * would abort the ballot with it.
+ *
+ * Notifications are sent in order by one sender thread on a connection of
+ * its own outside the pool. At AFTER_COMMIT the voting thread still holds
+ * its pooled connection, so taking a second one there could starve the
+ * primary pool in a burst of ballots.
+ *
+ * Notifications are received on one dedicated connection outside the pool.
+ * After that connection is (re)established the local caches are cleared and
+ * the live results reloaded, because anything sent while it was down is lost.
+ */
+@Service
+@ConditionalOnProperty(name = "voting.cluster.enabled", havingValue = "true")
+public class ClusterSyncService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterSyncService.class);
+
+    private static final String CHANNEL_PREFIX = "voting_cluster_";
+
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final DataSource dataSource;
+    private final CacheManager cacheManager;
+    private final RateLimitService rateLimitService;
+    private final LiveResultsService liveResultsService;
+    private final TurnoutService turnoutService;
+    private final ElectionService electionService;
+
+    private volatile boolean running;
+    private volatile CountDownLatch listening = new CountDownLatch(1);
+    private Thread listenerThread;
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Used only on the sender thread; opened on first use and after a failure
+    private Connection senderConnection;
+
+    public ClusterSyncService(DataSource dataSource, CacheManager cacheManager, RateLimitService rateLimitService,
+                              LiveResultsService liveResultsService, TurnoutService turnoutService,
+                              ElectionService electionService) {
+        this.dataSource = dataSource;
+        this.cacheManager = cacheManager;
+        this.rateLimitService = rateLimitService;
+        this.liveResultsService = liveResultsService;
+        this.turnoutService = turnoutService;
+        this.electionService = electionService;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * The NOTIFY channel of this instance's election.
+     */
+    public String getChannel() {
+        return CHANNEL_PREFIX + electionService.getCurrentElectionId();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVotesCast(VotesCastEvent event) {
+        notifyCluster(votesPayload(event.getTransactionId(), event.getCandidateIds()));
+    }
+
+    /**
+     * The votes message for these candidate IDs, for callers that send the
+     * NOTIFY on their own connection (ReactiveVotingService).
+     */
+    public String votesPayload(long transactionId, List<Long> candidateIds) {
+        return payload("votes", transactionId + ":" + candidateIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+    }
+
+    @EventListener
+    public void onRateLimit(RateLimitEvent event) {
+        String type = switch (event.getKind()) {
+            case FAILED -> "rate-failed";
+            case SUCCEEDED -> "rate-succeeded";
+            case CLEARED -> "rate-cleared";
+        };
+        notifyCluster(payload(type, event.getIpAddress()));
+    }
+
+    private String payload(String type, String argument) {
+        return nodeId + "|" + type + "|" + argument;
+    }
+
+    private void notifyCluster(String payload) {
+        try {
+            sender.execute(() -> send(payload));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            log.debug("Not notifying cluster ({}): sender stopped", payload);
+        }
+    }
+
+    // On the sender thread. A failure never fails the vote or PIN check that
+    // caused it; other nodes fall back to cache expiry and the periodic live
+    // results resync.
+    private void send(String payload) {
+        try {
+            if (senderConnection == null) {
+                senderConnection = openDedicatedConnection();
+                senderConnection.setAutoCommit(true);
+            }
+            try (PreparedStatement statement = senderConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, getChannel());
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not notify cluster ({}): {}", payload, e.getMessage());
+            closeSenderConnection();
+        }
+    }
+
+    private void closeSenderConnection() {
+        if (senderConnection != null) {
+            try {
+                senderConnection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the cluster sender connection: {}", e.getMessage());
+            }
+            senderConnection = null;
+        }
+    }
+
+    void handle(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        switch (parts[1]) {
+            case "votes" -> {
+                evictLocalCaches();
+                int colon = parts[2].indexOf(':');
+                long transactionId = Long.parseLong(parts[2].substring(0, colon));
+                List<Long> candidateIds = parseIds(parts[2].substring(colon + 1));
+                liveResultsService.applyVotes(transactionId, candidateIds);
+                turnoutService.record(candidateIds);
+            }
+            case "rate-failed" -> rateLimitService.applyAttempt(parts[2], false);
+            case "rate-succeeded" -> rateLimitService.applyAttempt(parts[2], true);
+            case "rate-cleared" -> rateLimitService.applyClear(parts[2]);
+            default -> log.debug("Ignoring unknown cluster message: {}", payload);
+        }
+    }
+
+    private static List<Long> parseIds(String csv) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : csv.split(",")) {
+            if (!id.isEmpty()) {
+                ids.add(Long.valueOf(id));
+            }
+        }
+        return ids;
+    }
+
+    private void evictLocalCaches() {
+        for (String name : new String[] {"results", "candidates"}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openDedicatedConnection()) {
+                String channel = getChannel();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                evictLocalCaches();
+                liveResultsService.markStale();
+                listening.countDown();
+                log.info("Cluster node {} listening on channel {}", nodeId, channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                listening = new CountDownLatch(1);
+                log.warn("Cluster listener connection lost, reconnecting in {} ms: {}",
+                        RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A connection outside the pool, so LISTEN does not permanently take one
+     * of the pool's connections or get recycled by Hikari's max-lifetime, and
+     * sending never waits for the pool.
+     */
+    private Connection openDedicatedConnection() throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            return DriverManager.getConnection(hikari.getJdbcUrl(), hikari.getUsername(), hikari.getPassword());
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Wait until the listener connection is subscribed.
+     */
+    public boolean awaitListening(long timeout, TimeUnit unit) throws InterruptedException {
+        return listening.await(timeout, unit);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        try {
+            if (!awaitListening(10, TimeUnit.SECONDS)) {
+                log.warn("Cluster listener not subscribed yet, continuing startup");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (!sender.isShutdown()) {
+            // After the notifications already queued
+            sender.execute(this::closeSenderConnection);
+            sender.shutdown();
+        }
+        if (listenerThread != null) {
+            try {
+                listenerThread.join(POLL_MILLIS * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,84 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.model.Election;
+import com.KTU.KTUVotingapp.repository.ElectionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * The election this instance serves, chosen by voting.election.code. Every
+ * query against candidates, voters, votes and category totals is scoped to
+ * its id, which for votes means a single partition.
+ *
+ * The in-memory state built on top of those tables (LiveResultsService,
+ * BallotValidator, TurnoutService, the candidates/results caches) therefore
+ * belongs to one election too; elections running at the same time are served
+ * by separate instances on the same database.
+ *
+ * The election row is looked up on first use and created if it does not
+ * exist yet, so a new election needs nothing but a new code.
+ */
+@Service
+public class ElectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ElectionService.class);
+
+    private final ElectionRepository electionRepository;
+    private final TransactionTemplate primaryWrite;
+    private final String code;
+    private final String name;
+
+    private volatile Election current;
+
+    public ElectionService(ElectionRepository electionRepository, PlatformTransactionManager transactionManager,
+                           @Value("${voting.election.code:default}") String code,
+                           @Value("${voting.election.name:KTU Election}") String name) {
+        this.electionRepository = electionRepository;
+        // REQUIRES_NEW: the first call may come from inside another
+        // transaction (possibly a read-only one, routed to a replica)
+        this.primaryWrite = new TransactionTemplate(transactionManager);
+        this.primaryWrite.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.code = code;
+        this.name = name;
+    }
+
+    public Election getCurrentElection() {
+        Election election = current;
+        if (election == null) {
+            synchronized (this) {
+                if (current == null) {
+                    current = findOrCreate();
+                }
+                election = current;
+            }
+        }
+        return election;
+    }
+
+    public Long getCurrentElectionId() {
+        return getCurrentElection().getId();
+    }
+
+    private Election findOrCreate() {
+        Optional<Election> existing = primaryWrite.execute(status -> electionRepository.findByCode(code));
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            Election created = primaryWrite.execute(status -> electionRepository.save(new Election(code, name)));
+            log.info("Created election '{}' with id {}", code, created.getId());
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+            return primaryWrite.execute(status -> electionRepository.findByCode(code)).orElseThrow(() -> e);
+        }
+    }
+}
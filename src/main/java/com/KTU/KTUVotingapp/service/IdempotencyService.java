@@ -0,0 +1,155 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.model.IdempotencyRecord;
+import com.KTU.KTUVotingapp.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Completed ballot outcomes by Idempotency-Key: a bounded in-memory cache in
+ * front of the idempotency_keys table. The table makes a replay work on any
+ * node and after a restart; the cache makes the common retry (same client,
+ * seconds later, same node) a single map lookup.
+ *
+ * Keys are scoped to the election (V11). An instance serves one election,
+ * so the cache holds that election's keys only.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyRecordRepository repository;
+    private final ElectionService electionService;
+
+    private final Cache<String, Outcome> recent = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+
+    private final TransactionTemplate primaryRead;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ElectionService electionService,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.electionService = electionService;
+        // Read-write on purpose: with read routing enabled, a lagging replica
+        // could miss a ballot that has already committed on the primary
+        this.primaryRead = new TransactionTemplate(transactionManager);
+    }
+
+    public static class Outcome {
+        private final String requestHash;
+        private final int statusCode;
+        private final String message;
+
+        public Outcome(String requestHash, int statusCode, String message) {
+            this.requestHash = requestHash;
+            this.statusCode = statusCode;
+            this.message = message;
+        }
+
+        public String getRequestHash() {
+            return requestHash;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static boolean isValidKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * SHA-256 over the ballot's selections in a fixed order, so a key reused
+     * for a different ballot can be told apart from a genuine retry.
+     */
+    public static String fingerprint(BulkVoteRequest request) {
+        String canonical = request.getVotes().stream()
+                .map(item -> item.getCategory() + ":" + item.getCandidateNumber())
+                .sorted()
+                .collect(Collectors.joining(","));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The committed outcome for this key, if any. A cache hit needs no
+     * transaction or connection at all.
+     */
+    public Optional<Outcome> find(String key) {
+        Outcome cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(electionService.getCurrentElectionId(), key);
+        Optional<Outcome> stored = primaryRead.execute(status -> repository.findById(id))
+                .map(r -> new Outcome(r.getRequestHash(), r.getStatusCode(), r.getResponseMessage()));
+        stored.ifPresent(outcome -> recent.put(key, outcome));
+        return stored;
+    }
+
+    /**
+     * The cached outcome for this key, without falling back to the table.
+     * For the reactive stack, which reads the table over R2DBC itself.
+     */
+    public Optional<Outcome> findCached(String key) {
+        return Optional.ofNullable(recent.getIfPresent(key));
+    }
+
+    /**
+     * Cache an outcome that is known to be committed.
+     */
+    public void remember(String key, Outcome outcome) {
+        recent.put(key, outcome);
+    }
+
+    /**
+     * Store the outcome inside the caller's voting transaction. It is only
+     * cached once that transaction commits.
+     *
+     * @return false if the key was already used by a committed ballot
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean record(String key, String deviceId, BulkVoteRequest request, int statusCode, String message) {
+        String requestHash = fingerprint(request);
+        Long electionId = electionService.getCurrentElectionId();
+        if (repository.insertIfAbsent(electionId, key, deviceId, requestHash, (short) statusCode, message) == 0) {
+            return false;
+        }
+
+        Outcome outcome = new Outcome(requestHash, statusCode, message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.put(key, outcome);
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.KTU.KTUVotingapp.service;
+
+import java.util.Arrays;
+
+/**
+ * Candidates ranked by votes, kept ranked as votes are counted instead of
+ * sorted on read. Candidates are dense slots 0..size-1 chosen by the caller.
+ *
+ * Positions hold the slots in descending vote order, so candidates with the
+ * same count sit next to each other. A vote moves its candidate from its
+ * group to the front of that group, where it is now the last of the group
+ * one vote higher: one binary search for the group start plus a swap,
+ * O(log n) and allocation-free. The top k are the first k positions, and a
+ * candidate's rank is the start of its group, so ties share a rank (1, 2,
+ * 2, 4). The order among tied candidates is otherwise unspecified.
+ *
+ * Not thread-safe; LiveResultsService updates and reads it under its lock.
+ */
+public final class Leaderboard {
+
+    private final long[] votes;
+    // Position -> slot, and slot -> position
+    private final int[] order;
+    private final int[] positions;
+
+    /**
+     * @param votes initial vote count per slot; ties start in slot order
+     */
+    public Leaderboard(long[] votes) {
+        int size = votes.length;
+        this.votes = votes.clone();
+        this.order = new int[size];
+        this.positions = new int[size];
+        Integer[] sorted = new Integer[size];
+        for (int slot = 0; slot < size; slot++) {
+            sorted[slot] = slot;
+        }
+        // Stable, so equal counts keep slot order
+        Arrays.sort(sorted, (a, b) -> Long.compare(this.votes[b], this.votes[a]));
+        for (int position = 0; position < size; position++) {
+            order[position] = sorted[position];
+            positions[sorted[position]] = position;
+        }
+    }
+
+    public int size() {
+        return votes.length;
+    }
+
+    public long votes(int slot) {
+        return votes[slot];
+    }
+
+    /**
+     * Count one vote for slot.
+     */
+    public void increment(int slot) {
+        int position = positions[slot];
+        int groupStart = firstPositionWithAtMost(votes[slot]);
+        if (groupStart != position) {
+            int other = order[groupStart];
+            order[groupStart] = slot;
+            positions[slot] = groupStart;
+            order[position] = other;
+            positions[other] = position;
+        }
+        votes[slot]++;
+    }
+
+    /**
+     * The slot at position (0 has the most votes), for reading the top k.
+     */
+    public int slotAt(int position) {
+        return order[position];
+    }
+
+    /**
+     * 1 for the most votes; candidates with equal counts share a rank.
+     */
+    public int rankOf(int slot) {
+        return firstPositionWithAtMost(votes[slot]) + 1;
+    }
+
+    // Positions are in descending vote order
+    private int firstPositionWithAtMost(long count) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (votes[order[mid]] > count) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,530 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.ResultChangesDTO;
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.model.Candidate;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.BallotRepository;
+import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process live results, kept current from vote events instead of by
+ * re-querying the database on every poll.
+ *
+ * The snapshot is loaded once from the candidates table. After that, each
+ * committed vote adds one to its candidate: local votes arrive via the
+ * after-commit VotesCastEvent, and votes on other nodes arrive through
+ * ClusterSyncService's NOTIFY payload. Changes are coalesced and pushed to
+ * SSE subscribers every PUSH_INTERVAL_MILLIS.
+ *
+ * Each change is published as a new immutable ResultsSnapshot with the next
+ * version, swapped in through an AtomicReference: readers never take the
+ * lock once the first snapshot exists, and a version comparison tells a
+ * client whether anything changed. Long-polling clients (awaitChanges) wait
+ * as futures, with no thread each, and are answered with the candidates
+ * that changed since their version when the next snapshot is published.
+ *
+ * Rankings, overall and per category, are kept in Leaderboards updated as
+ * each vote is counted, so publishing a snapshot copies them in rank order
+ * rather than sorting.
+ *
+ * The snapshot is reloaded from the database on a cluster listener
+ * reconnect, on an unknown candidate ID (e.g. added by an admin), and every
+ * RESYNC_SECONDS as a safety net against lost notifications. A vote that
+ * committed before a reload is already in the counts it read, but its
+ * event can still arrive afterwards; every vote event carries the ID of
+ * its transaction, and events from transactions the reload's snapshot
+ * could see are skipped rather than counted twice. In ballot mode
+ * vote_count trails the ballots by up to a tally interval, so a reload adds
+ * the ballots BallotTallyService has not counted yet, read in the same
+ * snapshot as vote_count.
+ */
+@Service
+public class LiveResultsService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveResultsService.class);
+
+    private static final long PUSH_INTERVAL_MILLIS = 250;
+    private static final long HEARTBEAT_SECONDS = 20;
+    private static final long RESYNC_SECONDS = 60;
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    // Recent snapshots kept to answer long-polls with only what changed;
+    // at one per push tick this covers the last 16 seconds
+    private static final int HISTORY_SIZE = 64;
+
+    private final CandidateRepository candidateRepository;
+    private final BallotRepository ballotRepository;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate primaryRead;
+    private final Duration changesTimeout;
+    private final boolean ballotsEnabled;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Queue<ChangeWaiter> waiters = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-results");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private final Map<Long, CandidateTally> tallies = new LinkedHashMap<>();
+    // CandidateTally.slot -> tally; a category's slots are consecutive
+    private CandidateTally[] slots = new CandidateTally[0];
+    // Category index -> first slot of the category
+    private int[] categoryStart = new int[0];
+    private Leaderboard overall = new Leaderboard(new long[0]);
+    // Indexed by Category.getIndex(), over CandidateTally.categorySlot
+    private Leaderboard[] byCategory = new Leaderboard[0];
+    // Transactions whose votes the last reload read, from its snapshot
+    private TransactionSnapshot reloadSnapshot;
+    private boolean loaded;
+    private boolean stale;
+    private boolean dirty;
+
+    private final AtomicReference<ResultsSnapshot> current = new AtomicReference<>();
+    // Snapshot with version v at v % HISTORY_SIZE
+    private final AtomicReferenceArray<ResultsSnapshot> history = new AtomicReferenceArray<>(HISTORY_SIZE);
+    // Guarded by this; see ResultsSnapshot for why it starts from the clock
+    private long version = System.currentTimeMillis();
+
+    public LiveResultsService(CandidateRepository candidateRepository, BallotRepository ballotRepository,
+                              ElectionService electionService, CategoryRegistry categoryRegistry,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                              @Value("${voting.results.changes-timeout:25s}") Duration changesTimeout,
+                              @Value("${voting.ballots.enabled:false}") boolean ballotsEnabled) {
+        this.candidateRepository = candidateRepository;
+        this.ballotRepository = ballotRepository;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        this.objectMapper = objectMapper;
+        // Read-write on purpose: with read routing enabled, a lagging replica
+        // would drop votes whose deltas were already applied. Repeatable
+        // read, so every query of a reload sees the same committed ballots.
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.changesTimeout = changesTimeout;
+        this.ballotsEnabled = ballotsEnabled;
+        scheduler.scheduleWithFixedDelay(this::publishIfChanged,
+                PUSH_INTERVAL_MILLIS, PUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::markStale, RESYNC_SECONDS, RESYNC_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The latest published results, without touching the database or
+     * taking a lock once the first snapshot is loaded.
+     */
+    public ResultsSnapshot getSnapshot() {
+        ResultsSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    reload();
+                    snapshot = publish();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Current results for all categories; see getSnapshot().
+     */
+    public List<ResultDTO> getResults() {
+        return getSnapshot().getResults();
+    }
+
+    /**
+     * Whether results newer than version have been published.
+     */
+    public boolean hasChangedSince(long version) {
+        return getSnapshot().isNewerThan(version);
+    }
+
+    /**
+     * Long-poll for results newer than since: completes at once if there
+     * are, otherwise when the next snapshot is published, or after
+     * voting.results.changes-timeout with no changes.
+     */
+    public CompletableFuture<ResultChangesDTO> awaitChanges(long since) {
+        ResultsSnapshot snapshot = getSnapshot();
+        if (snapshot.isNewerThan(since)) {
+            return CompletableFuture.completedFuture(changesSince(since, snapshot));
+        }
+        ChangeWaiter waiter = new ChangeWaiter(since);
+        waiters.add(waiter);
+        // A snapshot published before the waiter was added did not see it
+        ResultsSnapshot latest = current.get();
+        if (latest.isNewerThan(since)) {
+            waiter.future.complete(changesSince(since, latest));
+        } else {
+            waiter.future.completeOnTimeout(new ResultChangesDTO(latest.getVersion(), false, List.of()),
+                    changesTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return waiter.future;
+    }
+
+    /**
+     * Register a live-results client. The current results are sent
+     * immediately, then again whenever they change.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+
+        try {
+            emitter.send(SseEmitter.event().name("results").data(toJson(getResults()), MediaType.APPLICATION_JSON));
+        } catch (IOException | RuntimeException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVotesCast(VotesCastEvent event) {
+        applyVotes(event.getTransactionId(), event.getCandidateIds());
+    }
+
+    /**
+     * Count one vote per candidate ID, committed by the transaction with
+     * this PostgreSQL ID, unless the last reload already read them.
+     */
+    public synchronized void applyVotes(long transactionId, Collection<Long> candidateIds) {
+        if (!loaded) {
+            // Nothing to update yet; the first reader loads committed counts
+            return;
+        }
+        if (reloadSnapshot.sees(transactionId)) {
+            return;
+        }
+        for (Long candidateId : candidateIds) {
+            CandidateTally tally = tallies.get(candidateId);
+            if (tally == null) {
+                stale = true;
+            } else {
+                tally.votes++;
+                overall.increment(tally.slot);
+                byCategory[tally.categoryIndex].increment(tally.categorySlot);
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * Reload from the database on the next push tick, e.g. after a window
+     * in which notifications may have been missed.
+     */
+    public synchronized void markStale() {
+        if (loaded) {
+            stale = true;
+        }
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void publishIfChanged() {
+        ResultsSnapshot snapshot;
+        try {
+            synchronized (this) {
+                if (stale) {
+                    reload();
+                }
+                if (!dirty) {
+                    return;
+                }
+                snapshot = publish();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh live results: {}", e.getMessage());
+            return;
+        }
+
+        notifyWaiters(snapshot);
+        if (!emitters.isEmpty()) {
+            String json = toJson(snapshot.getResults());
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("results").data(json, MediaType.APPLICATION_JSON));
+                } catch (IOException | RuntimeException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        }
+    }
+
+    private void notifyWaiters(ResultsSnapshot snapshot) {
+        // Most waiters polled from the same version; compare once per version
+        Map<Long, ResultChangesDTO> bySince = new HashMap<>();
+        for (ChangeWaiter waiter : waiters) {
+            if (snapshot.isNewerThan(waiter.since)) {
+                waiter.future.complete(bySince.computeIfAbsent(waiter.since, since -> changesSince(since, snapshot)));
+            }
+        }
+        waiters.removeIf(waiter -> waiter.future.isDone());
+    }
+
+    private ResultChangesDTO changesSince(long since, ResultsSnapshot snapshot) {
+        ResultsSnapshot seen = history.get((int) Math.floorMod(since, (long) HISTORY_SIZE));
+        List<ResultDTO> changes = seen != null && seen.getVersion() == since ? snapshot.changesSince(seen) : null;
+        if (changes == null) {
+            return new ResultChangesDTO(snapshot.getVersion(), true, snapshot.getResults());
+        }
+        return new ResultChangesDTO(snapshot.getVersion(), false, changes);
+    }
+
+    private void heartbeat() {
+        // Long-polls that timed out
+        waiters.removeIf(waiter -> waiter.future.isDone());
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | RuntimeException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void reload() {
+        Long electionId = electionService.getCurrentElectionId();
+        List<Candidate> candidates = new ArrayList<>();
+        List<Object[]> untallied = new ArrayList<>();
+        String snapshot = primaryRead.execute(status -> {
+            // First statement, so it is the snapshot the queries below read
+            String current = candidateRepository.currentSnapshot();
+            candidates.addAll(candidateRepository.findByElectionId(electionId));
+            if (ballotsEnabled) {
+                untallied.addAll(ballotRepository.countUntalliedByCandidate(electionId));
+            }
+            return current;
+        });
+        reloadSnapshot = TransactionSnapshot.parse(snapshot);
+        candidates.sort(Comparator.comparing(Candidate::getCategoryId).thenComparing(Candidate::getCandidateNumber));
+
+        tallies.clear();
+        for (Candidate candidate : candidates) {
+            tallies.put(candidate.getId(), new CandidateTally(candidate));
+        }
+        for (Object[] row : untallied) {
+            CandidateTally tally = tallies.get(((Number) row[0]).longValue());
+            if (tally != null) {
+                tally.votes += ((Number) row[1]).longValue();
+            }
+        }
+
+        int categoryCount = categoryRegistry.size();
+        slots = tallies.values().toArray(new CandidateTally[0]);
+        categoryStart = new int[categoryCount];
+        int[] categorySize = new int[categoryCount];
+        long[] votes = new long[slots.length];
+        for (int slot = slots.length - 1; slot >= 0; slot--) {
+            // Tallies are in category order, so the lowest slot is the start
+            CandidateTally tally = slots[slot];
+            tally.slot = slot;
+            categoryStart[tally.categoryIndex] = slot;
+            categorySize[tally.categoryIndex]++;
+            votes[slot] = tally.votes;
+        }
+        overall = new Leaderboard(votes);
+        byCategory = new Leaderboard[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            byCategory[i] = new Leaderboard(Arrays.copyOfRange(votes, categoryStart[i], categoryStart[i] + categorySize[i]));
+        }
+        for (CandidateTally tally : slots) {
+            tally.categorySlot = tally.slot - categoryStart[tally.categoryIndex];
+        }
+        loaded = true;
+        stale = false;
+        dirty = true;
+    }
+
+    // Caller holds the lock
+    private ResultsSnapshot publish() {
+        ResultsSnapshot snapshot = build(++version);
+        history.set((int) (version % HISTORY_SIZE), snapshot);
+        current.set(snapshot);
+        dirty = false;
+        return snapshot;
+    }
+
+    // Caller holds the lock; same shape and rounding as ResultService
+    private ResultsSnapshot build(long version) {
+        List<Category> categories = categoryRegistry.all();
+        // Indexed by Category.getIndex()
+        long[] totalVotes = new long[categories.size()];
+        for (CandidateTally tally : tallies.values()) {
+            totalVotes[tally.categoryIndex] += tally.votes;
+        }
+
+        List<List<ResultDTO.CandidateResultDTO>> candidateResults = new ArrayList<>(categories.size());
+        for (int i = 0; i < categories.size(); i++) {
+            candidateResults.add(new ArrayList<>());
+        }
+        // Tallies are in (category, candidate number) order
+        ResultDTO.CandidateResultDTO[] bySlot = new ResultDTO.CandidateResultDTO[slots.length];
+        for (CandidateTally tally : slots) {
+            long total = totalVotes[tally.categoryIndex];
+            double percentage = total > 0 ? (tally.votes * 100.0 / total) : 0.0;
+            bySlot[tally.slot] = new ResultDTO.CandidateResultDTO(
+                    tally.id,
+                    tally.candidateNumber,
+                    tally.name,
+                    tally.department,
+                    tally.imageUrl,
+                    tally.votes,
+                    Math.round(percentage * 100.0) / 100.0);
+            candidateResults.get(tally.categoryIndex).add(bySlot[tally.slot]);
+        }
+
+        List<ResultDTO> results = new ArrayList<>(categories.size());
+        List<List<ResultDTO.CandidateResultDTO>> categoryLeaderboards = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            int index = category.getIndex();
+            results.add(new ResultDTO(category.getCode(), totalVotes[index], candidateResults.get(index)));
+            List<ResultDTO.CandidateResultDTO> ranked = new ArrayList<>();
+            // A category added since the last reload has no candidates yet
+            if (index < byCategory.length) {
+                for (int position = 0; position < byCategory[index].size(); position++) {
+                    ranked.add(bySlot[categoryStart[index] + byCategory[index].slotAt(position)]);
+                }
+            }
+            categoryLeaderboards.add(ranked);
+        }
+        List<ResultDTO.CandidateResultDTO> leaderboard = new ArrayList<>(slots.length);
+        for (int position = 0; position < overall.size(); position++) {
+            leaderboard.add(bySlot[overall.slotAt(position)]);
+        }
+        return new ResultsSnapshot(version, results, leaderboard, categoryLeaderboards);
+    }
+
+    private String toJson(List<ResultDTO> results) {
+        try {
+            return objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize results", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (SseEmitter emitter : emitters) {
+            emitter.complete();
+        }
+        emitters.clear();
+        waiters.clear();
+    }
+
+    /**
+     * A PostgreSQL snapshot (txid_current_snapshot): transactions below xmin
+     * had ended when it was taken, those from xmax on had not started, and
+     * of those in between the ones in xip were still running.
+     */
+    static final class TransactionSnapshot {
+        private final long xmin;
+        private final long xmax;
+        private final Set<Long> xip;
+
+        private TransactionSnapshot(long xmin, long xmax, Set<Long> xip) {
+            this.xmin = xmin;
+            this.xmax = xmax;
+            this.xip = xip;
+        }
+
+        static TransactionSnapshot parse(String text) {
+            String[] parts = text.split(":", 3);
+            Set<Long> xip = new HashSet<>();
+            for (String id : parts[2].split(",")) {
+                if (!id.isEmpty()) {
+                    xip.add(Long.valueOf(id));
+                }
+            }
+            return new TransactionSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), xip);
+        }
+
+        /**
+         * Whether a committed transaction's writes are visible in the snapshot.
+         */
+        boolean sees(long transactionId) {
+            return transactionId < xmin || (transactionId < xmax && !xip.contains(transactionId));
+        }
+    }
+
+    private static final class ChangeWaiter {
+        private final long since;
+        private final CompletableFuture<ResultChangesDTO> future = new CompletableFuture<>();
+
+        private ChangeWaiter(long since) {
+            this.since = since;
+        }
+    }
+
+    private static final class CandidateTally {
+        private final Long id;
+        private final int categoryIndex;
+        private final Integer candidateNumber;
+        private final String name;
+        private final String department;
+        private final String imageUrl;
+        private long votes;
+        // Dense indexes for the Leaderboards, set by reload()
+        private int slot;
+        private int categorySlot;
+
+        private CandidateTally(Candidate candidate) {
+            this.id = candidate.getId();
+            this.categoryIndex = candidate.getCategoryId() - 1;
+            this.candidateNumber = candidate.getCandidateNumber();
+            this.name = candidate.getName();
+            this.department = candidate.getDepartment();
+            this.imageUrl = candidate.getImageUrl();
+            this.votes = candidate.getVoteCount() != null ? candidate.getVoteCount() : 0L;
+        }
+    }
+}
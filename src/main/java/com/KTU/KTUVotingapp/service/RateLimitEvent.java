@@ -0,0 +1,30 @@
+package com.KTU.KTUVotingapp.service;
+
+/**
+ * Published by RateLimitService for every local change to an IP's attempt
+ * state, so that other nodes can apply the same change.
+ */
+public class RateLimitEvent {
+
+    public enum Kind {
+        FAILED,
+        SUCCEEDED,
+        CLEARED
+    }
+
+    private final String ipAddress;
+    private final Kind kind;
+
+    public RateLimitEvent(String ipAddress, Kind kind) {
+        this.ipAddress = ipAddress;
+        this.kind = kind;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
@@ -1,5 +1,6 @@
 package com.KTU.KTUVotingapp.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -9,6 +10,8 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Simple in-memory rate limiting service to prevent brute force attacks.
  * Limits PIN verification attempts per IP address.
+ * Every change is also published as a RateLimitEvent; in cluster mode
+ * ClusterSyncService replays it on the other nodes via the apply* methods.
  */
 @Service
 public class RateLimitService {
@@ -25,6 +28,12 @@ public class RateLimitService {
     // Store attempt counts and timestamps per IP
     private final Map<String, AttemptInfo> attemptMap = new ConcurrentHashMap<>();
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RateLimitService(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
     public static class AttemptInfo {
         int count;
         Instant windowStart;
@@ -119,6 +128,15 @@ public class RateLimitService {
             return;
         }
 
+        applyAttempt(ipAddress, successful);
+        eventPublisher.publishEvent(new RateLimitEvent(ipAddress,
+                successful ? RateLimitEvent.Kind.SUCCEEDED : RateLimitEvent.Kind.FAILED));
+    }
+
+    /**
+     * Apply an attempt recorded on another node, without publishing it again.
+     */
+    public void applyAttempt(String ipAddress, boolean successful) {
         AttemptInfo info = attemptMap.computeIfAbsent(ipAddress, k -> new AttemptInfo());
 
         synchronized (info) {
@@ -141,10 +159,18 @@ public class RateLimitService {
      */
     public void clearRateLimit(String ipAddress) {
         if (ipAddress != null) {
-            attemptMap.remove(ipAddress);
+            applyClear(ipAddress);
+            eventPublisher.publishEvent(new RateLimitEvent(ipAddress, RateLimitEvent.Kind.CLEARED));
         }
     }
 
+    /**
+     * Apply a clear issued on another node, without publishing it again.
+     */
+    public void applyClear(String ipAddress) {
+        attemptMap.remove(ipAddress);
+    }
+
     /**
      * Get info about rate limit status (for debugging/admin).
      */
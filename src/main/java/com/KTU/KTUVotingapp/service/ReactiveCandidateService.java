@@ -0,0 +1,44 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.ReactiveVotingRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * CandidateService for the reactive profile. Shares the "candidates" cache
+ * (same keys and values), so evictions from votes and cluster messages
+ * apply to both stacks alike.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCandidateService {
+
+    private final ReactiveVotingRepository repository;
+    private final ElectionService electionService;
+    private final Cache cache;
+
+    public ReactiveCandidateService(ReactiveVotingRepository repository, ElectionService electionService,
+                                    CacheManager cacheManager) {
+        this.repository = repository;
+        this.electionService = electionService;
+        this.cache = cacheManager.getCache("candidates");
+    }
+
+    @SuppressWarnings("unchecked")
+    public Mono<List<CandidateDTO>> getCandidatesByCategory(Category category) {
+        List<CandidateDTO> cached = cache.get(category.getId(), List.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return repository.findCandidatesByCategory(electionService.getCurrentElectionId(), category)
+                .collectList()
+                .doOnNext(candidates -> cache.put(category.getId(), candidates));
+    }
+}
@@ -0,0 +1,73 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.ReactiveVotingRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * ResultService for the reactive profile: same queries, rounding and
+ * "results" cache entries, over R2DBC.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveResultService {
+
+    private static final String ALL_KEY = "all";
+
+    private final ReactiveVotingRepository repository;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final Cache cache;
+
+    public ReactiveResultService(ReactiveVotingRepository repository, ElectionService electionService,
+                                 CategoryRegistry categoryRegistry, CacheManager cacheManager) {
+        this.repository = repository;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        this.cache = cacheManager.getCache("results");
+    }
+
+    public Mono<ResultDTO> getResultsByCategory(Category category) {
+        ResultDTO cached = cache.get(category.getId(), ResultDTO.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return repository.sumCategoryTotal(electionService.getCurrentElectionId(), category)
+                .flatMap(totalVotes -> repository.findCandidatesByCategory(electionService.getCurrentElectionId(), category)
+                        .map(candidate -> {
+                            long voteCount = candidate.getVoteCount();
+                            double percentage = totalVotes > 0 ? (voteCount * 100.0 / totalVotes) : 0.0;
+                            return new ResultDTO.CandidateResultDTO(
+                                    candidate.getId(),
+                                    candidate.getCandidateNumber(),
+                                    candidate.getName(),
+                                    candidate.getDepartment(),
+                                    candidate.getImageUrl(),
+                                    voteCount,
+                                    Math.round(percentage * 100.0) / 100.0);
+                        })
+                        .collectList()
+                        .map(candidates -> new ResultDTO(category.getCode(), totalVotes, candidates)))
+                .doOnNext(result -> cache.put(category.getId(), result));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Mono<List<ResultDTO>> getAllResults() {
+        List<ResultDTO> cached = cache.get(ALL_KEY, List.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Flux.fromIterable(categoryRegistry.all())
+                .concatMap(this::getResultsByCategory)
+                .collectList()
+                .doOnNext(results -> cache.put(ALL_KEY, results));
+    }
+}
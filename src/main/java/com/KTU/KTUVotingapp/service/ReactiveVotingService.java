@@ -0,0 +1,237 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.ReactiveVotingRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * VotingService for the reactive profile: the same ballot steps and
+ * outcomes, run over R2DBC in one transaction without blocking a thread.
+ *
+ * What the servlet stack does in after-commit listeners happens here once
+ * the transaction Mono has completed: evicting the candidates/results
+ * caches, counting the votes in LiveResultsService and TurnoutService and
+ * caching the idempotency outcome. In cluster mode the votes NOTIFY is sent
+ * inside the transaction, so other nodes hear about the ballot only if it
+ * commits. In ballot mode (voting.ballots.enabled) a ballot is one ballots
+ * row, as in VotingService.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveVotingService {
+
+    private final ReactiveVotingRepository repository;
+    private final TransactionalOperator transactionalOperator;
+    private final BallotValidator ballotValidator;
+    private final IdempotencyService idempotencyService;
+    private final LiveResultsService liveResultsService;
+    private final TurnoutService turnoutService;
+    private final CacheManager cacheManager;
+    private final ObjectProvider<ClusterSyncService> clusterSyncService;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final boolean ballotsEnabled;
+
+    public ReactiveVotingService(ReactiveVotingRepository repository, TransactionalOperator transactionalOperator,
+                                 BallotValidator ballotValidator, IdempotencyService idempotencyService,
+                                 LiveResultsService liveResultsService, TurnoutService turnoutService,
+                                 CacheManager cacheManager,
+                                 ObjectProvider<ClusterSyncService> clusterSyncService,
+                                 ElectionService electionService, CategoryRegistry categoryRegistry,
+                                 @Value("${voting.ballots.enabled:false}") boolean ballotsEnabled) {
+        this.repository = repository;
+        this.transactionalOperator = transactionalOperator;
+        this.ballotValidator = ballotValidator;
+        this.idempotencyService = idempotencyService;
+        this.liveResultsService = liveResultsService;
+        this.turnoutService = turnoutService;
+        this.cacheManager = cacheManager;
+        this.clusterSyncService = clusterSyncService;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        this.ballotsEnabled = ballotsEnabled;
+    }
+
+    /**
+     * Cast a ballot; see VotingService.castBallot. Anything other than
+     * ACCEPTED rolls the transaction back. The outcome is emitted after the
+     * commit.
+     */
+    public Mono<BallotOutcome> castBallot(BulkVoteRequest request, String idempotencyKey) {
+        BallotValidator.Verdict verdict = ballotValidator.validate(request);
+        if (verdict != BallotValidator.Verdict.VALID) {
+            return Mono.just(switch (verdict) {
+                case DUPLICATE_CATEGORY -> BallotOutcome.DUPLICATE_CATEGORY;
+                case UNKNOWN_CANDIDATE -> BallotOutcome.UNKNOWN_CANDIDATE;
+                default -> BallotOutcome.INVALID;
+            });
+        }
+
+        return Mono.defer(() -> {
+            List<Long> candidateIds = new ArrayList<>(request.getVotes().size());
+            AtomicLong transactionId = new AtomicLong();
+            return transactionalOperator.execute(status -> cast(request, idempotencyKey, candidateIds, transactionId)
+                            .doOnNext(outcome -> {
+                                if (!outcome.isAccepted()) {
+                                    status.setRollbackOnly();
+                                }
+                            }))
+                    // Emits on completion, i.e. after the commit
+                    .singleOrEmpty()
+                    .doOnNext(outcome -> {
+                        if (outcome.isAccepted()) {
+                            afterCommit(request, idempotencyKey, candidateIds, transactionId.get());
+                        }
+                    });
+        });
+    }
+
+    /**
+     * The committed outcome for this key: the in-memory cache, then the
+     * idempotency_keys table.
+     */
+    public Mono<IdempotencyService.Outcome> findIdempotencyOutcome(String key) {
+        Optional<IdempotencyService.Outcome> cached = idempotencyService.findCached(key);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+        return repository.findIdempotencyOutcome(electionService.getCurrentElectionId(), key)
+                .doOnNext(outcome -> idempotencyService.remember(key, outcome));
+    }
+
+    public Mono<Boolean> hasVoted(String pin, Category category) {
+        return repository.hasVoted(electionService.getCurrentElectionId(), pin, category);
+    }
+
+    public Mono<Boolean> deviceHasVoted(String deviceId) {
+        return repository.deviceHasVoted(electionService.getCurrentElectionId(), deviceId);
+    }
+
+    private Mono<BallotOutcome> cast(BulkVoteRequest request, String idempotencyKey, List<Long> candidateIds,
+                                     AtomicLong transactionId) {
+        // Claim the device; nothing is written yet if that fails
+        Long electionId = electionService.getCurrentElectionId();
+        String deviceId = request.getDeviceId();
+        return repository.insertVotedIfAbsent(electionId, request.getPin(), deviceId)
+                .flatMap(inserted -> inserted > 0 ? Mono.just(true)
+                        : repository.markVoted(electionId, deviceId).map(updated -> updated > 0))
+                .flatMap(claimed -> !claimed
+                        ? Mono.just(BallotOutcome.DUPLICATE_DEVICE)
+                        : repository.findVoterIdByDeviceId(electionId, deviceId)
+                                .flatMap(voterId -> ballotsEnabled
+                                        ? castBallotRow(electionId, voterId, request, idempotencyKey, candidateIds, transactionId)
+                                        : castVotes(electionId, voterId, request, idempotencyKey, candidateIds, transactionId)));
+    }
+
+    private Mono<BallotOutcome> castVotes(Long electionId, Long voterId, BulkVoteRequest request,
+                                          String idempotencyKey, List<Long> candidateIds,
+                                          AtomicLong transactionId) {
+        // One statement at a time on the transaction's connection; the first
+        // rejection cancels the rest. The validator has checked every code.
+        return Flux.fromIterable(request.getVotes())
+                .concatMap(item -> {
+                    Category category = categoryRegistry.findByCode(item.getCategory()).orElseThrow();
+                    return repository.findCandidateId(electionId, category, item.getCandidateNumber())
+                            .flatMap(candidateId -> repository.insertVoteIfAbsent(electionId, voterId, candidateId, category)
+                                    .map(inserted -> {
+                                        if (inserted == 0) {
+                                            return BallotOutcome.DUPLICATE_CATEGORY;
+                                        }
+                                        candidateIds.add(candidateId);
+                                        return BallotOutcome.ACCEPTED;
+                                    }))
+                            .defaultIfEmpty(BallotOutcome.UNKNOWN_CANDIDATE);
+                })
+                .filter(outcome -> !outcome.isAccepted())
+                .next()
+                .switchIfEmpty(Mono.defer(() -> finish(request, idempotencyKey, candidateIds, transactionId)));
+    }
+
+    // Ballot mode: resolve every candidate, then write one ballots row; the
+    // tallies are recounted from ballots by BallotTallyService
+    private Mono<BallotOutcome> castBallotRow(Long electionId, Long voterId, BulkVoteRequest request,
+                                              String idempotencyKey, List<Long> candidateIds,
+                                              AtomicLong transactionId) {
+        // Candidate number per category index, 0 for none
+        Short[] selections = new Short[categoryRegistry.size()];
+        Arrays.fill(selections, (short) 0);
+        return Flux.fromIterable(request.getVotes())
+                .concatMap(item -> {
+                    Category category = categoryRegistry.findByCode(item.getCategory()).orElseThrow();
+                    return repository.findCandidateId(electionId, category, item.getCandidateNumber())
+                            .map(candidateId -> {
+                                candidateIds.add(candidateId);
+                                selections[category.getIndex()] = item.getCandidateNumber().shortValue();
+                                return BallotOutcome.ACCEPTED;
+                            })
+                            .defaultIfEmpty(BallotOutcome.UNKNOWN_CANDIDATE);
+                })
+                .filter(outcome -> !outcome.isAccepted())
+                .next()
+                // A conflict means the voter's device was reset after it voted
+                .switchIfEmpty(Mono.defer(() -> repository.insertBallotIfAbsent(electionId, voterId, selections)
+                        .flatMap(inserted -> inserted == 0
+                                ? Mono.just(BallotOutcome.DUPLICATE_DEVICE)
+                                : finish(request, idempotencyKey, candidateIds, transactionId))));
+    }
+
+    // Tallies, idempotency record and cluster notification, after every vote row is in
+    private Mono<BallotOutcome> finish(BulkVoteRequest request, String idempotencyKey, List<Long> candidateIds,
+                                       AtomicLong transactionId) {
+        Mono<Void> tallies = ballotsEnabled ? Mono.empty() : Flux.fromIterable(candidateIds)
+                .concatMap(repository::incrementVoteCount)
+                .then();
+        Mono<BallotOutcome> outcome = tallies
+                .then(repository.currentTransactionId())
+                .doOnNext(transactionId::set)
+                .thenReturn(BallotOutcome.ACCEPTED);
+
+        if (idempotencyKey != null) {
+            // A different device may have committed a ballot under this key
+            outcome = outcome.flatMap(accepted -> repository.insertIdempotencyRecordIfAbsent(
+                            electionService.getCurrentElectionId(), idempotencyKey, request.getDeviceId(),
+                            IdempotencyService.fingerprint(request), (short) accepted.getStatus().value(), accepted.getMessage())
+                    .map(inserted -> inserted > 0 ? accepted : BallotOutcome.DUPLICATE_DEVICE));
+        }
+
+        ClusterSyncService cluster = clusterSyncService.getIfAvailable();
+        if (cluster != null) {
+            outcome = outcome.flatMap(result -> !result.isAccepted() ? Mono.just(result)
+                    : repository.notify(cluster.getChannel(), cluster.votesPayload(transactionId.get(), candidateIds))
+                            .thenReturn(result));
+        }
+        return outcome;
+    }
+
+    private void afterCommit(BulkVoteRequest request, String idempotencyKey, List<Long> candidateIds,
+                             long transactionId) {
+        for (String name : new String[] {"results", "candidates"}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        liveResultsService.applyVotes(transactionId, candidateIds);
+        turnoutService.record(candidateIds);
+        if (idempotencyKey != null) {
+            idempotencyService.remember(idempotencyKey, new IdempotencyService.Outcome(
+                    IdempotencyService.fingerprint(request), BallotOutcome.ACCEPTED.getStatus().value(),
+                    BallotOutcome.ACCEPTED.getMessage()));
+        }
+    }
+}
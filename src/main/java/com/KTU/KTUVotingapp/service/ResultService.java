@@ -1,15 +1,23 @@
 package com.KTU.KTUVotingapp.service;
 
 import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.dto.TallyConsistencyDTO;
 import com.KTU.KTUVotingapp.model.Candidate;
 import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.BallotRepository;
 import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import com.KTU.KTUVotingapp.repository.CategoryTotalRepository;
 import com.KTU.KTUVotingapp.repository.VoteRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,16 +26,31 @@ public class ResultService {
 
     private final VoteRepository voteRepository;
     private final CandidateRepository candidateRepository;
+    private final CategoryTotalRepository categoryTotalRepository;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final BallotRepository ballotRepository;
+    private final boolean ballotsEnabled;
 
-    public ResultService(VoteRepository voteRepository, CandidateRepository candidateRepository) {
+    public ResultService(VoteRepository voteRepository, CandidateRepository candidateRepository,
+                         CategoryTotalRepository categoryTotalRepository, ElectionService electionService,
+                         CategoryRegistry categoryRegistry, BallotRepository ballotRepository,
+                         @Value("${voting.ballots.enabled:false}") boolean ballotsEnabled) {
         this.voteRepository = voteRepository;
         this.candidateRepository = candidateRepository;
+        this.categoryTotalRepository = categoryTotalRepository;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        this.ballotRepository = ballotRepository;
+        this.ballotsEnabled = ballotsEnabled;
     }
 
-    @Cacheable(value = "results", key = "#category")
+    @Cacheable(value = "results", key = "#category.id")
     public ResultDTO getResultsByCategory(Category category) {
-        List<Candidate> candidates = candidateRepository.findByCategoryOrderByCandidateNumber(category);
-        long totalVotes = voteRepository.countByCategory(category);
+        Long electionId = electionService.getCurrentElectionId();
+        List<Candidate> candidates = candidateRepository.findByCategoryOrderByCandidateNumber(electionId, category.getId());
+        // Trigger-maintained total: cost depends on the shard count, not on turnout
+        long totalVotes = categoryTotalRepository.sumByCategory(electionId, category.getId());
 
         List<ResultDTO.CandidateResultDTO> candidateResults = candidates.stream()
                 .map(candidate -> {
@@ -46,18 +69,80 @@ public class ResultService {
                 })
                 .collect(Collectors.toList());
 
-        return new ResultDTO(category, totalVotes, candidateResults);
+        return new ResultDTO(category.getCode(), totalVotes, candidateResults);
     }
 
     @Cacheable(value = "results", key = "'all'")
     public List<ResultDTO> getAllResults() {
-        return List.of(
-                getResultsByCategory(Category.KING),
-                getResultsByCategory(Category.QUEEN),
-                getResultsByCategory(Category.PRINCE),
-                getResultsByCategory(Category.PRINCESS),
-                getResultsByCategory(Category.COUPLE)
-        );
+        List<Category> categories = categoryRegistry.all();
+        List<ResultDTO> results = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            results.add(getResultsByCategory(category));
+        }
+        return results;
     }
-}
 
+    /**
+     * Recount every vote from the votes and ballots tables and compare it
+     * with the stored tallies. Reports drift only; nothing is rewritten. In
+     * ballot mode the stored tallies trail by up to one tally interval, so the
+     * ballots the next tally run will add count as recorded.
+     * Repeatable read, so the recounts and the stored tallies come from one
+     * snapshot and votes committing meanwhile do not show up as drift.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TallyConsistencyDTO checkTallyConsistency() {
+        // Indexed by Category.getIndex()
+        long[] countedByCategory = new long[categoryRegistry.size()];
+        Map<Long, Long> countedByCandidate = new HashMap<>();
+        Long electionId = electionService.getCurrentElectionId();
+        List<Object[]> rows = new ArrayList<>(voteRepository.countGroupedByCategoryAndCandidate(electionId));
+        rows.addAll(ballotRepository.countGroupedByCategoryAndCandidate(electionId));
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            countedByCategory[((Number) row[0]).intValue() - 1] += count;
+            countedByCandidate.merge(((Number) row[1]).longValue(), count, Long::sum);
+        }
+
+        long[] recordedByCategory = new long[categoryRegistry.size()];
+        for (Object[] row : categoryTotalRepository.sumGroupedByCategory(electionId)) {
+            recordedByCategory[(Short) row[0] - 1] = (Long) row[1];
+        }
+        List<Candidate> stored = candidateRepository.findByElectionId(electionId);
+        Map<Long, Long> untalliedByCandidate = new HashMap<>();
+        if (ballotsEnabled) {
+            for (Object[] row : ballotRepository.countUntalliedByCandidate(electionId)) {
+                untalliedByCandidate.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+            for (Candidate candidate : stored) {
+                recordedByCategory[categoryRegistry.byId(candidate.getCategoryId()).getIndex()] +=
+                        untalliedByCandidate.getOrDefault(candidate.getId(), 0L);
+            }
+        }
+
+        boolean consistent = true;
+        List<TallyConsistencyDTO.CategoryDrift> categories = new ArrayList<>();
+        for (Category category : categoryRegistry.all()) {
+            TallyConsistencyDTO.CategoryDrift drift = new TallyConsistencyDTO.CategoryDrift(
+                    category.getCode(),
+                    recordedByCategory[category.getIndex()],
+                    countedByCategory[category.getIndex()]);
+            consistent &= drift.getDrift() == 0;
+            categories.add(drift);
+        }
+
+        List<TallyConsistencyDTO.CandidateDrift> candidates = new ArrayList<>();
+        for (Candidate candidate : stored) {
+            TallyConsistencyDTO.CandidateDrift drift = new TallyConsistencyDTO.CandidateDrift(
+                    candidate.getId(),
+                    categoryRegistry.byId(candidate.getCategoryId()).getCode(),
+                    candidate.getCandidateNumber(),
+                    candidate.getVoteCount() + untalliedByCandidate.getOrDefault(candidate.getId(), 0L),
+                    countedByCandidate.getOrDefault(candidate.getId(), 0L));
+            consistent &= drift.getDrift() == 0;
+            candidates.add(drift);
+        }
+
+        return new TallyConsistencyDTO(consistent, categories, candidates);
+    }
+}
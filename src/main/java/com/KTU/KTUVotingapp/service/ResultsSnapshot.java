@@ -0,0 +1,157 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.model.Category;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One published version of the live results (see LiveResultsService):
+ * per-category results with their percentages, and the candidates ranked
+ * by votes overall and per category, as ranked by the Leaderboards.
+ * Everything is computed when the snapshot is built and nothing changes
+ * afterwards, so readers share one instance without locking; top-k and
+ * rank lookups are a sublist and a map lookup.
+ *
+ * Versions only increase. They start from the clock at start-up, so a
+ * client holding a version from before a restart still sees a change.
+ */
+public final class ResultsSnapshot {
+
+    private final long version;
+    // Indexed by Category.getIndex()
+    private final List<ResultDTO> results;
+    private final List<ResultDTO.CandidateResultDTO> leaderboard;
+    // Indexed by Category.getIndex()
+    private final List<List<ResultDTO.CandidateResultDTO>> categoryLeaderboards;
+    // Candidate ID -> rank, overall and within its category
+    private final Map<Long, Integer> ranks;
+    private final Map<Long, Integer> categoryRanks;
+
+    /**
+     * @param leaderboard          all candidates, most votes first
+     * @param categoryLeaderboards per category index, most votes first
+     */
+    ResultsSnapshot(long version, List<ResultDTO> results, List<ResultDTO.CandidateResultDTO> leaderboard,
+                    List<List<ResultDTO.CandidateResultDTO>> categoryLeaderboards) {
+        this.version = version;
+        this.results = List.copyOf(results);
+        this.leaderboard = List.copyOf(leaderboard);
+        List<List<ResultDTO.CandidateResultDTO>> byCategory = new ArrayList<>(categoryLeaderboards.size());
+        for (List<ResultDTO.CandidateResultDTO> ranked : categoryLeaderboards) {
+            byCategory.add(List.copyOf(ranked));
+        }
+        this.categoryLeaderboards = List.copyOf(byCategory);
+
+        Map<Long, Integer> overallRanks = HashMap.newHashMap(leaderboard.size());
+        putRanks(this.leaderboard, overallRanks);
+        this.ranks = overallRanks;
+        Map<Long, Integer> withinCategory = HashMap.newHashMap(leaderboard.size());
+        for (List<ResultDTO.CandidateResultDTO> ranked : this.categoryLeaderboards) {
+            putRanks(ranked, withinCategory);
+        }
+        this.categoryRanks = withinCategory;
+    }
+
+    // Equal counts share a rank: 1, 2, 2, 4
+    private static void putRanks(List<ResultDTO.CandidateResultDTO> ranked, Map<Long, Integer> ranks) {
+        int rank = 0;
+        for (int position = 0; position < ranked.size(); position++) {
+            if (position == 0 || !ranked.get(position).getVoteCount().equals(ranked.get(position - 1).getVoteCount())) {
+                rank = position + 1;
+            }
+            ranks.put(ranked.get(position).getId(), rank);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether these results differ from the ones a client saw at version.
+     */
+    public boolean isNewerThan(long version) {
+        return this.version > version;
+    }
+
+    public List<ResultDTO> getResults() {
+        return results;
+    }
+
+    public ResultDTO getResults(Category category) {
+        return results.get(category.getIndex());
+    }
+
+    /**
+     * All candidates across categories, most votes first.
+     */
+    public List<ResultDTO.CandidateResultDTO> getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * The k candidates with the most votes across categories.
+     */
+    public List<ResultDTO.CandidateResultDTO> getTop(int k) {
+        return leaderboard.subList(0, Math.min(Math.max(k, 0), leaderboard.size()));
+    }
+
+    /**
+     * The k candidates with the most votes in category.
+     */
+    public List<ResultDTO.CandidateResultDTO> getTop(Category category, int k) {
+        List<ResultDTO.CandidateResultDTO> ranked = categoryLeaderboards.get(category.getIndex());
+        return ranked.subList(0, Math.min(Math.max(k, 0), ranked.size()));
+    }
+
+    /**
+     * Rank across categories, 1 for the most votes; null for an unknown candidate.
+     */
+    public Integer getRank(Long candidateId) {
+        return ranks.get(candidateId);
+    }
+
+    /**
+     * Rank within the candidate's category; null for an unknown candidate.
+     */
+    public Integer getCategoryRank(Long candidateId) {
+        return categoryRanks.get(candidateId);
+    }
+
+    /**
+     * The categories whose counts differ from older, each with only the
+     * candidates whose vote count changed. Null when the two snapshots have
+     * different candidates, e.g. one was added in between.
+     */
+    List<ResultDTO> changesSince(ResultsSnapshot older) {
+        if (older.results.size() != results.size()) {
+            return null;
+        }
+        List<ResultDTO> changes = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            // Both in candidate number order
+            List<ResultDTO.CandidateResultDTO> now = results.get(i).getCandidates();
+            List<ResultDTO.CandidateResultDTO> before = older.results.get(i).getCandidates();
+            if (now.size() != before.size()) {
+                return null;
+            }
+            List<ResultDTO.CandidateResultDTO> changed = new ArrayList<>();
+            for (int j = 0; j < now.size(); j++) {
+                if (!now.get(j).getId().equals(before.get(j).getId())) {
+                    return null;
+                }
+                if (!now.get(j).getVoteCount().equals(before.get(j).getVoteCount())) {
+                    changed.add(now.get(j));
+                }
+            }
+            if (!changed.isEmpty()) {
+                changes.add(new ResultDTO(results.get(i).getCategory(), results.get(i).getTotalVotes(), changed));
+            }
+        }
+        return changes;
+    }
+}
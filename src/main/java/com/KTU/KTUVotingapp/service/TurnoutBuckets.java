@@ -0,0 +1,85 @@
+package com.KTU.KTUVotingapp.service;
+
+import java.util.Arrays;
+
+/**
+ * Vote counts per category in fixed-width time buckets, for the most recent
+ * {@code capacity} buckets only: a ring of slots indexed by bucket number
+ * modulo capacity. Each slot remembers which bucket it holds, so a slot left
+ * over from an earlier lap reads as zero and is cleared when reused, and
+ * memory is capacity x categories whatever the election's length.
+ * Categories are addressed by Category.getIndex().
+ *
+ * Not thread-safe; TurnoutService guards it.
+ */
+final class TurnoutBuckets {
+
+    private final long bucketSeconds;
+    private final int capacity;
+    private final int categories;
+    // Bucket number held by each slot, or Long.MIN_VALUE while unused
+    private final long[] slotBucket;
+    // counts[slot * categories + categoryIndex]
+    private final long[] counts;
+
+    TurnoutBuckets(long bucketSeconds, int capacity, int categories) {
+        if (bucketSeconds <= 0 || capacity <= 0 || categories <= 0) {
+            throw new IllegalArgumentException("bucketSeconds, capacity and categories must be positive");
+        }
+        this.bucketSeconds = bucketSeconds;
+        this.capacity = capacity;
+        this.categories = categories;
+        this.slotBucket = new long[capacity];
+        this.counts = new long[capacity * categories];
+        Arrays.fill(slotBucket, Long.MIN_VALUE);
+    }
+
+    long bucketSeconds() {
+        return bucketSeconds;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long bucketOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, bucketSeconds);
+    }
+
+    /**
+     * Count votes at epochSecond. Dropped if that bucket has already been
+     * overwritten by a newer lap, i.e. it is older than the ring covers.
+     */
+    void add(long epochSecond, int categoryIndex, long votes) {
+        long bucket = bucketOf(epochSecond);
+        int slot = (int) Math.floorMod(bucket, (long) capacity);
+        if (slotBucket[slot] != bucket) {
+            if (slotBucket[slot] > bucket) {
+                return;
+            }
+            slotBucket[slot] = bucket;
+            Arrays.fill(counts, slot * categories, (slot + 1) * categories, 0L);
+        }
+        counts[slot * categories + categoryIndex] += votes;
+    }
+
+    /**
+     * Counts for buckets fromBucket..toBucket inclusive, one row per
+     * category index and one column per bucket. Buckets the ring does not
+     * hold read as zero. The caller bounds the window to capacity buckets.
+     */
+    long[][] window(long fromBucket, long toBucket) {
+        int length = (int) (toBucket - fromBucket + 1);
+        long[][] window = new long[categories][length];
+        for (int i = 0; i < length; i++) {
+            long bucket = fromBucket + i;
+            int slot = (int) Math.floorMod(bucket, (long) capacity);
+            if (slotBucket[slot] == bucket) {
+                for (int c = 0; c < categories; c++) {
+                    window[c][i] = counts[slot * categories + c];
+                }
+            }
+        }
+        return window;
+    }
+}
@@ -0,0 +1,304 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.TurnoutDTO;
+import com.KTU.KTUVotingapp.model.Candidate;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.repository.BallotRepository;
+import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import com.KTU.KTUVotingapp.repository.VoteRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Votes per category over time for the admin turnout chart, without
+ * scanning votes.created_at on every request.
+ *
+ * Counts are kept in two in-memory rings (see TurnoutBuckets): per second
+ * for the last voting.turnout.second-buckets seconds and per minute for the
+ * last voting.turnout.minute-buckets minutes. Older buckets are dropped, so
+ * memory is fixed however long the election runs, and reading a window
+ * touches only the buckets in it.
+ *
+ * Committed votes are counted as they arrive, from the same feeds as
+ * LiveResultsService: the after-commit VotesCastEvent, ClusterSyncService
+ * for other nodes and ReactiveVotingService. Votes from before this
+ * instance started are loaded once, after startup, with a single grouped
+ * query over the minute ring's span.
+ *
+ * record() runs after commit and never touches the database. A vote for a
+ * candidate it does not know yet (added since the last load) waits for a
+ * reload on the turnout-categories thread and is then counted at the
+ * second it arrived; an ID that still does not resolve is ignored from
+ * then on.
+ */
+@Service
+public class TurnoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(TurnoutService.class);
+
+    public enum Resolution {
+        SECOND(1),
+        MINUTE(60);
+
+        private final long bucketSeconds;
+
+        Resolution(long bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        public long getBucketSeconds() {
+            return bucketSeconds;
+        }
+    }
+
+    private final VoteRepository voteRepository;
+    private final BallotRepository ballotRepository;
+    private final CandidateRepository candidateRepository;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final TransactionTemplate primaryRead;
+
+    // votes.created_at is a local timestamp in this JVM's zone (Vote, and
+    // CURRENT_TIMESTAMP in the session zone the JDBC driver sets)
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Live counting starts here; the startup rebuild covers everything before
+    private final Instant recordingSince = Instant.now();
+
+    private final int secondBuckets;
+    private final int minuteBuckets;
+
+    // Guarded by this; created on first use, once the categories are known
+    private TurnoutBuckets seconds;
+    private TurnoutBuckets minutes;
+
+    private final Object categoryLock = new Object();
+    // Candidate ID -> Category.getIndex()
+    private volatile Map<Long, Integer> categoryIndexById = Map.of();
+    // Candidate IDs no reload resolved, e.g. from another election
+    private final Set<Long> unknownIds = ConcurrentHashMap.newKeySet();
+    // Guarded by categoryLock: unresolved candidate ID -> epoch second of each vote
+    private Map<Long, List<Long>> pending = new HashMap<>();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+    private final ExecutorService categoryLoader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "turnout-categories");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TurnoutService(VoteRepository voteRepository, BallotRepository ballotRepository,
+                          CandidateRepository candidateRepository, ElectionService electionService,
+                          CategoryRegistry categoryRegistry, PlatformTransactionManager transactionManager,
+                          @Value("${voting.turnout.second-buckets:3600}") int secondBuckets,
+                          @Value("${voting.turnout.minute-buckets:1440}") int minuteBuckets) {
+        this.voteRepository = voteRepository;
+        this.ballotRepository = ballotRepository;
+        this.candidateRepository = candidateRepository;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        // Read-write on purpose: the rebuild cut-off must match what this
+        // node has already counted, which a lagging replica would not
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.secondBuckets = secondBuckets;
+        this.minuteBuckets = minuteBuckets;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAfterStartup() {
+        Thread thread = new Thread(this::rebuild, "turnout-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVotesCast(VotesCastEvent event) {
+        record(event.getCandidateIds());
+    }
+
+    /**
+     * Count one committed vote per candidate ID, now.
+     */
+    public void record(Collection<Long> candidateIds) {
+        long now = Instant.now().getEpochSecond();
+        Map<Long, Integer> known = categoryIndexById;
+        List<Integer> categories = new ArrayList<>(candidateIds.size());
+        boolean unresolved = false;
+        for (Long candidateId : candidateIds) {
+            Integer categoryIndex = known.get(candidateId);
+            if (categoryIndex != null) {
+                categories.add(categoryIndex);
+            } else if (!unknownIds.contains(candidateId)) {
+                synchronized (categoryLock) {
+                    pending.computeIfAbsent(candidateId, id -> new ArrayList<>()).add(now);
+                }
+                unresolved = true;
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < categories.size(); i++) {
+                ring(Resolution.SECOND).add(now, categories.get(i), 1);
+                ring(Resolution.MINUTE).add(now, categories.get(i), 1);
+            }
+        }
+        if (unresolved && reloadQueued.compareAndSet(false, true)) {
+            try {
+                categoryLoader.execute(this::resolvePending);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    /**
+     * Votes per category in the buckets covering [from, to], trimmed to what
+     * the resolution's ring still holds and to the current bucket.
+     */
+    public TurnoutDTO getTurnout(Resolution resolution, Instant from, Instant to) {
+        TurnoutBuckets ring = ring(resolution);
+        long nowBucket = ring.bucketOf(Instant.now().getEpochSecond());
+        long fromBucket = Math.max(ring.bucketOf(from.getEpochSecond()), nowBucket - ring.capacity() + 1);
+        long toBucket = Math.min(ring.bucketOf(to.getEpochSecond()), nowBucket);
+        if (toBucket < fromBucket) {
+            toBucket = fromBucket - 1;
+        }
+
+        long[][] window;
+        synchronized (this) {
+            window = ring.window(fromBucket, toBucket);
+        }
+
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        long[] totals = new long[(int) (toBucket - fromBucket + 1)];
+        for (Category category : categoryRegistry.all()) {
+            long[] series = window[category.getIndex()];
+            counts.put(category.getCode(), series);
+            for (int i = 0; i < series.length; i++) {
+                totals[i] += series[i];
+            }
+        }
+        return new TurnoutDTO(resolution.name(), ring.bucketSeconds(),
+                Instant.ofEpochSecond(fromBucket * ring.bucketSeconds()),
+                Instant.ofEpochSecond((toBucket + 1) * ring.bucketSeconds()),
+                counts, totals);
+    }
+
+    private void rebuild() {
+        try {
+            loadCategories();
+            TurnoutBuckets minuteRing = ring(Resolution.MINUTE);
+            Instant since = recordingSince.minusSeconds(minuteRing.capacity() * minuteRing.bucketSeconds());
+            Long electionId = electionService.getCurrentElectionId();
+            LocalDateTime from = LocalDateTime.ofInstant(since, zone);
+            LocalDateTime until = LocalDateTime.ofInstant(recordingSince, zone);
+            // Votes rows and ballots rows alike (ballot mode)
+            List<Object[]> rows = primaryRead.execute(status -> {
+                List<Object[]> counted = new ArrayList<>(voteRepository.countGroupedByCategoryAndSecond(
+                        electionId, from, until));
+                counted.addAll(ballotRepository.countGroupedByCategoryAndSecond(electionId, from, until));
+                return counted;
+            });
+            long votes = 0;
+            synchronized (this) {
+                for (Object[] row : rows) {
+                    int categoryIndex = ((Number) row[0]).intValue() - 1;
+                    long epochSecond = toLocalDateTime(row[1]).atZone(zone).toEpochSecond();
+                    long count = ((Number) row[2]).longValue();
+                    ring(Resolution.SECOND).add(epochSecond, categoryIndex, count);
+                    ring(Resolution.MINUTE).add(epochSecond, categoryIndex, count);
+                    votes += count;
+                }
+            }
+            log.info("Turnout rebuilt from {} votes since {}", votes, since);
+        } catch (RuntimeException e) {
+            // The chart then starts from this instance's start-up
+            log.warn("Could not rebuild turnout: {}", e.getMessage());
+        }
+    }
+
+    private synchronized TurnoutBuckets ring(Resolution resolution) {
+        if (seconds == null) {
+            int categories = categoryRegistry.size();
+            seconds = new TurnoutBuckets(Resolution.SECOND.getBucketSeconds(), secondBuckets, categories);
+            minutes = new TurnoutBuckets(Resolution.MINUTE.getBucketSeconds(), minuteBuckets, categories);
+        }
+        return resolution == Resolution.SECOND ? seconds : minutes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        categoryLoader.shutdown();
+    }
+
+    // Reload the candidates and count the votes that waited for them
+    private void resolvePending() {
+        reloadQueued.set(false);
+        Map<Long, Integer> known;
+        try {
+            known = loadCategories();
+        } catch (RuntimeException e) {
+            // The waiting votes stay queued for the next unresolved vote
+            log.warn("Could not load candidate categories: {}", e.getMessage());
+            return;
+        }
+        Map<Long, List<Long>> resolving;
+        synchronized (categoryLock) {
+            resolving = pending;
+            pending = new HashMap<>();
+        }
+        synchronized (this) {
+            for (Map.Entry<Long, List<Long>> entry : resolving.entrySet()) {
+                Integer categoryIndex = known.get(entry.getKey());
+                if (categoryIndex == null) {
+                    unknownIds.add(entry.getKey());
+                    continue;
+                }
+                for (long epochSecond : entry.getValue()) {
+                    ring(Resolution.SECOND).add(epochSecond, categoryIndex, 1);
+                    ring(Resolution.MINUTE).add(epochSecond, categoryIndex, 1);
+                }
+            }
+        }
+    }
+
+    private Map<Long, Integer> loadCategories() {
+        synchronized (categoryLock) {
+            Map<Long, Integer> loaded = new HashMap<>();
+            for (Candidate candidate : primaryRead.execute(status ->
+                    candidateRepository.findByElectionId(electionService.getCurrentElectionId()))) {
+                loaded.put(candidate.getId(), candidate.getCategoryId() - 1);
+            }
+            categoryIndexById = Map.copyOf(loaded);
+            return categoryIndexById;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
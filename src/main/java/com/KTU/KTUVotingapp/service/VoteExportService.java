@@ -0,0 +1,208 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Every vote with its voter device, category, candidate and timestamp, for
+ * post-election audits, written as CSV or NDJSON while it is read. Votes
+ * stored as ballots rows (ballot mode) follow the votes rows, one line per
+ * category voted in, without a vote ID.
+ *
+ * Rows come straight off a forward-only JDBC cursor (PostgreSQL only uses
+ * one inside a transaction with a fetch size set) and are written to the
+ * caller's stream one at a time; no entities are loaded. Memory use is one
+ * fetch-size batch of rows plus the write buffer, whatever the table size.
+ */
+@Service
+public class VoteExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT v.id, v.voter_id, vr.device_id, k.code, c.candidate_number, c.name, v.created_at"
+            + " FROM votes v"
+            + " JOIN voters vr ON vr.id = v.voter_id"
+            + " JOIN candidates c ON c.id = v.candidate_id"
+            + " JOIN categories k ON k.id = v.category_id"
+            + " WHERE v.election_id = ?"
+            + " ORDER BY v.id";
+
+    // Same columns from the ballots layout, which has no vote IDs
+    private static final String BALLOT_EXPORT_SQL =
+            "SELECT NULL::BIGINT, b.voter_id, vr.device_id, k.code, c.candidate_number, c.name, b.created_at"
+            + " FROM ballot_votes b"
+            + " JOIN voters vr ON vr.id = b.voter_id"
+            + " JOIN candidates c ON c.id = b.candidate_id"
+            + " JOIN categories k ON k.id = b.category_id"
+            + " WHERE b.election_id = ?"
+            + " ORDER BY b.voter_id, b.category_id";
+
+    private static final String CSV_HEADER =
+            "vote_id,voter_id,device_id,category,candidate_number,candidate_name,created_at";
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public VoteExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                             @Value("${voting.export.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Write all votes of an election to out in vote ID order, then those
+     * stored as ballots in voter ID order. out is flushed but not closed.
+     *
+     * @return the number of votes written
+     * @throws IOException if writing fails, e.g. the client disconnected;
+     *                     the cursor and its transaction are closed first
+     */
+    public long export(Long electionId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        try {
+            long rows = readOnly.execute(status -> switch (format) {
+                case CSV -> writeCsv(electionId, writer);
+                case NDJSON -> writeNdjson(electionId, writer);
+            });
+            writer.flush();
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeCsv(Long electionId, Writer writer) {
+        long[] rows = {0};
+        try {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        RowCallbackHandler handler = rs -> {
+            try {
+                long voteId = rs.getLong(1);
+                if (!rs.wasNull()) {
+                    writer.write(Long.toString(voteId));
+                }
+                writer.write(',');
+                writer.write(Long.toString(rs.getLong(2)));
+                writer.write(',');
+                writeCsvField(writer, rs.getString(3));
+                writer.write(',');
+                writer.write(rs.getString(4));
+                writer.write(',');
+                writer.write(Integer.toString(rs.getInt(5)));
+                writer.write(',');
+                writeCsvField(writer, rs.getString(6));
+                writer.write(',');
+                writer.write(timestamp(rs));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        };
+        jdbcTemplate.query(EXPORT_SQL, handler, electionId);
+        jdbcTemplate.query(BALLOT_EXPORT_SQL, handler, electionId);
+        return rows[0];
+    }
+
+    private long writeNdjson(Long electionId, Writer writer) {
+        long[] rows = {0};
+        try (JsonGenerator json = jsonFactory.createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line, with no separator of Jackson's own in between
+            json.setRootValueSeparator(null);
+            RowCallbackHandler handler = rs -> {
+                try {
+                    json.writeStartObject();
+                    long voteId = rs.getLong(1);
+                    if (rs.wasNull()) {
+                        json.writeNullField("voteId");
+                    } else {
+                        json.writeNumberField("voteId", voteId);
+                    }
+                    json.writeNumberField("voterId", rs.getLong(2));
+                    json.writeStringField("deviceId", rs.getString(3));
+                    json.writeStringField("category", rs.getString(4));
+                    json.writeNumberField("candidateNumber", rs.getInt(5));
+                    json.writeStringField("candidateName", rs.getString(6));
+                    json.writeStringField("createdAt", timestamp(rs));
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            };
+            jdbcTemplate.query(EXPORT_SQL, handler, electionId);
+            jdbcTemplate.query(BALLOT_EXPORT_SQL, handler, electionId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows[0];
+    }
+
+    private static String timestamp(ResultSet rs) throws SQLException {
+        return rs.getObject(7, LocalDateTime.class).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
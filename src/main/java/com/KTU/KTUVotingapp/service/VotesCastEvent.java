@@ -0,0 +1,39 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.model.Category;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published by VotingService inside the voting transaction, after the votes
+ * have been written. The listeners run after commit and do not use the
+ * voting transaction's connection: LiveResultsService and TurnoutService
+ * count in memory, ClusterSyncService sends on a connection of its own.
+ * candidateIds holds one entry per vote cast; transactionId is the
+ * PostgreSQL ID of the voting transaction (txid_current).
+ */
+public class VotesCastEvent {
+
+    private final Set<Category> categories;
+    private final List<Long> candidateIds;
+    private final long transactionId;
+
+    public VotesCastEvent(Set<Category> categories, List<Long> candidateIds, long transactionId) {
+        this.categories = categories;
+        this.candidateIds = candidateIds;
+        this.transactionId = transactionId;
+    }
+
+    public Set<Category> getCategories() {
+        return categories;
+    }
+
+    public List<Long> getCandidateIds() {
+        return candidateIds;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+}
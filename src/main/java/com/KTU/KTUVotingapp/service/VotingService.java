@@ -2,23 +2,26 @@ package com.KTU.KTUVotingapp.service;
 
 import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
 import com.KTU.KTUVotingapp.dto.VoteRequest;
-import com.KTU.KTUVotingapp.model.Candidate;
 import com.KTU.KTUVotingapp.model.Category;
-import com.KTU.KTUVotingapp.model.Vote;
 import com.KTU.KTUVotingapp.model.Voter;
+import com.KTU.KTUVotingapp.repository.BallotRepository;
 import com.KTU.KTUVotingapp.repository.CandidateRepository;
 import com.KTU.KTUVotingapp.repository.VoteRepository;
 import com.KTU.KTUVotingapp.repository.VoterRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.http.HttpStatus;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class VotingService {
@@ -26,194 +29,179 @@ public class VotingService {
     private final VoterRepository voterRepository;
     private final VoteRepository voteRepository;
     private final CandidateRepository candidateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdempotencyService idempotencyService;
+    private final BallotValidator ballotValidator;
+    private final ElectionService electionService;
+    private final CategoryRegistry categoryRegistry;
+    private final BallotRepository ballotRepository;
+    // One ballots row per ballot instead of votes rows; see BallotTallyService
+    private final boolean ballotsEnabled;
 
     public VotingService(VoterRepository voterRepository, VoteRepository voteRepository,
-                        CandidateRepository candidateRepository) {
+                        CandidateRepository candidateRepository, ApplicationEventPublisher eventPublisher,
+                        IdempotencyService idempotencyService, BallotValidator ballotValidator,
+                        ElectionService electionService, CategoryRegistry categoryRegistry,
+                        BallotRepository ballotRepository,
+                        @Value("${voting.ballots.enabled:false}") boolean ballotsEnabled) {
         this.voterRepository = voterRepository;
         this.voteRepository = voteRepository;
         this.candidateRepository = candidateRepository;
+        this.eventPublisher = eventPublisher;
+        this.idempotencyService = idempotencyService;
+        this.ballotValidator = ballotValidator;
+        this.electionService = electionService;
+        this.categoryRegistry = categoryRegistry;
+        this.ballotRepository = ballotRepository;
+        this.ballotsEnabled = ballotsEnabled;
     }
 
     /**
-     * Submit a single vote with pessimistic locking and transaction management.
-     * Uses READ_COMMITTED isolation level for optimal performance with consistency.
-     * Supports shared PINs - multiple devices can use the same PIN.
-     *
-     * Surgical change: remove explicit pessimistic locking calls to reduce long-lived DB locks
-     * under high concurrency. Rely on DB unique constraints and DataIntegrityViolationException
-     * to detect duplicates. This reduces transaction contention and moves locking responsibility
-     * back to the DB (single responsibility) instead of the service.
+     * Submit a single vote, for callers that want a ResponseStatusException
+     * on rejection. The device may vote once, so this is a one-item ballot.
      */
     @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
     @CacheEvict(value = {"results", "candidates"}, allEntries = true)
     public void submitVote(VoteRequest request) {
-        // NOTE: removed pessimistic locking reads to shorten transaction duration and avoid
-        // heavy lock contention. Use non-locking checks and let DB constraints guard uniqueness.
-
-        // Step 1: Check device ID existence (non-locking quick check)
-        Optional<Voter> existingDeviceVoter = voterRepository.findByDeviceId(request.getDeviceId());
-        if (existingDeviceVoter.isPresent()) {
-            Voter existingVoter = existingDeviceVoter.get();
-            if (existingVoter.isHasVoted() || voteRepository.existsByVoter(existingVoter)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT,
-                    "This device has already submitted a vote");
-            }
-        }
-
-        // Step 2: Get or create voter by device ID (PIN can be shared)
-        Voter voter = getOrCreateVoter(request.getPin(), request.getDeviceId());
-
-        if (voter.isHasVoted() || voteRepository.existsByVoter(voter)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                "This device has already submitted a vote");
-        }
-
-        // Step 3: Check if voter already voted in this category (non-locking existence check)
-        if (voteRepository.existsByVoterAndCategory(voter, request.getCategory())) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                "You have already voted in this category");
-        }
-
-        // Step 4: Get candidate
-        Candidate candidate = candidateRepository.findByCategoryAndCandidateNumber(
-                request.getCategory(), request.getCandidateNumber())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                    "Candidate not found for category " + request.getCategory() +
-                    " and number " + request.getCandidateNumber()));
-
-        // Step 5: Create and save vote (database constraint will prevent duplicates)
-        try {
-            Vote vote = new Vote(voter, candidate, request.getCategory());
-            voteRepository.save(vote);
-
-            // Atomically increment candidate vote count in DB to avoid lost updates
-            candidateRepository.incrementVoteCount(candidate.getId());
-
-            // Update voter status
-            if (!voter.isHasVoted()) {
-                voter.setHasVoted(true);
-                voter.setVotedAt(LocalDateTime.now());
-                voterRepository.save(voter);
-            }
-        } catch (DataIntegrityViolationException e) {
-            // Database constraint violation - handle gracefully
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                "Duplicate vote detected. You may have already voted in this category.");
-        }
+        BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+        item.setCategory(request.getCategory());
+        item.setCandidateNumber(request.getCandidateNumber());
+        BulkVoteRequest ballot = new BulkVoteRequest();
+        ballot.setPin(request.getPin());
+        ballot.setDeviceId(request.getDeviceId());
+        ballot.setVotes(List.of(item));
+        throwUnlessAccepted(cast(ballot, null));
     }
 
     /**
-     * Submit multiple votes in a single transaction (bulk voting).
-     * All votes are processed atomically - either all succeed or all fail.
-     * Supports shared PINs - multiple devices can use the same PIN.
-     *
-     * Surgical change: same approach as above, avoid pessimistic locking reads.
+     * Submit multiple votes in a single transaction (bulk voting), for
+     * callers that want a ResponseStatusException on rejection.
      */
     @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
     @CacheEvict(value = {"results", "candidates"}, allEntries = true)
     public void submitBulkVotes(BulkVoteRequest request) {
-        // Step 1: Check device ID existence (non-locking)
-        Optional<Voter> existingDeviceVoter = voterRepository.findByDeviceId(request.getDeviceId());
-        if (existingDeviceVoter.isPresent()) {
-            Voter existingVoter = existingDeviceVoter.get();
-            if (existingVoter.isHasVoted() || voteRepository.existsByVoter(existingVoter)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT,
-                    "This device has already submitted votes");
-            }
-        }
+        throwUnlessAccepted(cast(request, null));
+    }
 
-        // Step 2: Get or create voter by device ID (PIN can be shared)
-        Voter voter = getOrCreateVoter(request.getPin(), request.getDeviceId());
+    /**
+     * Cast a ballot and report the outcome as a value. All votes are
+     * recorded atomically: anything other than ACCEPTED leaves the
+     * database unchanged. With an idempotency key, the outcome is also
+     * recorded for IdempotencyService in the same transaction.
+     *
+     * Conflicts are detected with INSERT ... ON CONFLICT DO NOTHING rather
+     * than by catching constraint violations, so a double-tapped submit
+     * costs no exception and does not leave Hibernate's session broken.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
+    @CacheEvict(value = {"results", "candidates"}, allEntries = true,
+            condition = "#result == T(com.KTU.KTUVotingapp.service.BallotOutcome).ACCEPTED")
+    public BallotOutcome castBallot(BulkVoteRequest request, String idempotencyKey) {
+        return cast(request, idempotencyKey);
+    }
 
-        if (voter.isHasVoted() || voteRepository.existsByVoter(voter)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                "This device has already submitted votes");
+    private BallotOutcome cast(BulkVoteRequest request, String idempotencyKey) {
+        // Step 1: Structural checks against the in-memory candidate bitsets.
+        // VotingController has already run these for HTTP ballots.
+        BallotValidator.Verdict verdict = ballotValidator.validate(request);
+        if (verdict != BallotValidator.Verdict.VALID) {
+            return switch (verdict) {
+                case DUPLICATE_CATEGORY -> BallotOutcome.DUPLICATE_CATEGORY;
+                case UNKNOWN_CANDIDATE -> BallotOutcome.UNKNOWN_CANDIDATE;
+                default -> BallotOutcome.INVALID;
+            };
         }
 
-        // Step 3: Validate all votes before processing
-        for (BulkVoteRequest.VoteItem voteItem : request.getVotes()) {
-            // Check if already voted in this category
-            if (voteRepository.existsByVoterAndCategory(voter, voteItem.getCategory())) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT,
-                    "You have already voted in category: " + voteItem.getCategory());
+        // Step 2: Claim the device. A device that already voted, or whose
+        // concurrent ballot just committed, updates no row. Nothing has been
+        // written at that point, so there is nothing to roll back.
+        Long electionId = electionService.getCurrentElectionId();
+        String deviceId = request.getDeviceId();
+        if (voterRepository.insertVotedIfAbsent(electionId, request.getPin(), deviceId) == 0
+                && voterRepository.markVoted(electionId, deviceId) == 0) {
+            return BallotOutcome.DUPLICATE_DEVICE;
+        }
+        Long voterId = voterRepository.findIdByDeviceId(electionId, deviceId);
+
+        // Step 3: Resolve the candidates
+        List<BulkVoteRequest.VoteItem> votes = request.getVotes();
+        Set<Category> categories = new HashSet<>();
+        List<Long> candidateIds = new ArrayList<>(votes.size());
+        short[] categoryIds = new short[votes.size()];
+        // Candidate number per category index, 0 for none (ballots layout)
+        short[] selections = new short[categoryRegistry.size()];
+        for (int i = 0; i < votes.size(); i++) {
+            BulkVoteRequest.VoteItem voteItem = votes.get(i);
+            // The validator has checked that the code exists
+            Category category = categoryRegistry.findByCode(voteItem.getCategory()).orElseThrow();
+            // Authoritative lookup: the validator's snapshot may be seconds old
+            Long candidateId = candidateRepository.findIdByCategoryAndCandidateNumber(electionId,
+                    category.getId(), voteItem.getCandidateNumber());
+            if (candidateId == null) {
+                return rollback(BallotOutcome.UNKNOWN_CANDIDATE);
             }
-
-            // Validate candidate exists
-            candidateRepository.findByCategoryAndCandidateNumber(
-                    voteItem.getCategory(), voteItem.getCandidateNumber())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
-                        "Candidate not found for category " + voteItem.getCategory() +
-                        " and number " + voteItem.getCandidateNumber()));
+            categories.add(category);
+            candidateIds.add(candidateId);
+            categoryIds[i] = category.getId();
+            selections[category.getIndex()] = voteItem.getCandidateNumber().shortValue();
         }
 
-        // Step 4: Process all votes
-        try {
-            for (BulkVoteRequest.VoteItem voteItem : request.getVotes()) {
-                Candidate candidate = candidateRepository.findByCategoryAndCandidateNumber(
-                        voteItem.getCategory(), voteItem.getCandidateNumber())
-                        .orElseThrow();
-
-                Vote vote = new Vote(voter, candidate, voteItem.getCategory());
-                voteRepository.save(vote);
-
-                // Atomically increment candidate vote count in DB
-                candidateRepository.incrementVoteCount(candidate.getId());
+        // Step 4: Record the ballot
+        if (ballotsEnabled) {
+            // One row; the tallies are recounted from ballots by BallotTallyService.
+            // A conflict means the voter's device was reset after it voted.
+            if (ballotRepository.insertIfAbsent(electionId, voterId, selections) == 0) {
+                return rollback(BallotOutcome.DUPLICATE_DEVICE);
             }
-
-            // Update voter status
-            if (!voter.isHasVoted()) {
-                voter.setHasVoted(true);
-                voter.setVotedAt(LocalDateTime.now());
-                voterRepository.save(voter);
+        } else {
+            // One vote row per category, then the tallies after every vote row is in
+            for (int i = 0; i < votes.size(); i++) {
+                if (voteRepository.insertIfAbsent(electionId, voterId, candidateIds.get(i), categoryIds[i]) == 0) {
+                    return rollback(BallotOutcome.DUPLICATE_CATEGORY);
+                }
+            }
+            for (int i = 0; i < candidateIds.size(); i++) {
+                candidateRepository.incrementVoteCount(candidateIds.get(i));
             }
-        } catch (DataIntegrityViolationException e) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT,
-                "Duplicate vote detected. Transaction rolled back.");
         }
-    }
 
-    /**
-     * Get or create voter with pessimistic locking to prevent race conditions.
-     * Supports shared PINs - multiple devices can use the same PIN.
-     * Device ID is unique, PIN can be shared across multiple devices.
-     *
-     * Surgical change: avoid acquiring pessimistic locks here. Try to insert and on
-     * unique constraint violation, read the existing record. This reduces lock time and
-     * reliance on application-side locking.
-     */
-    private Voter getOrCreateVoter(String pin, String deviceId) {
-        // Find by device ID first (non-locking quick check)
-        Optional<Voter> voterOpt = voterRepository.findByDeviceId(deviceId);
-
-        if (voterOpt.isPresent()) {
-            // Device already exists - return it
-            return voterOpt.get();
+        // A different device may have committed a ballot under this key,
+        // e.g. a retry whose client IP changed; the caller replays that one
+        if (idempotencyKey != null && !idempotencyService.record(idempotencyKey, deviceId, request,
+                BallotOutcome.ACCEPTED.getStatus().value(), BallotOutcome.ACCEPTED.getMessage())) {
+            return rollback(BallotOutcome.DUPLICATE_DEVICE);
         }
 
-        // Device doesn't exist - create new voter with this PIN and device ID
-        // Multiple devices can share the same PIN
-        try {
-            Voter newVoter = new Voter(pin, deviceId);
-            return voterRepository.save(newVoter);
-        } catch (DataIntegrityViolationException e) {
-            // Race condition - another thread created the voter with same device ID
-            // Retry by finding it (non-locking)
-            return voterRepository.findByDeviceId(deviceId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
-                        "Failed to create voter. Please try again."));
+        eventPublisher.publishEvent(new VotesCastEvent(categories, candidateIds,
+                candidateRepository.currentTransactionId()));
+        return BallotOutcome.ACCEPTED;
+    }
+
+    // Undo the device claim and any vote rows without throwing
+    private static BallotOutcome rollback(BallotOutcome outcome) {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        return outcome;
+    }
+
+    private static void throwUnlessAccepted(BallotOutcome outcome) {
+        if (!outcome.isAccepted()) {
+            throw new ResponseStatusException(outcome.getStatus(), outcome.getMessage());
         }
     }
 
     public boolean hasVoted(String pin, Category category) {
-        Optional<Voter> voterOpt = voterRepository.findByPin(pin);
+        Long electionId = electionService.getCurrentElectionId();
+        Optional<Voter> voterOpt = voterRepository.findByElectionIdAndPin(electionId, pin);
         if (voterOpt.isEmpty()) {
             return false;
         }
-        return voteRepository.existsByVoterAndCategory(voterOpt.get(), category);
+        // Either layout may hold the voter's ballot, e.g. after a switch to ballot mode
+        return voteRepository.existsByElectionIdAndVoterAndCategoryId(electionId, voterOpt.get(), category.getId())
+                || ballotRepository.existsByVoterAndCategory(electionId, voterOpt.get().getId(), category.getId());
     }
 
     public boolean deviceHasVoted(String deviceId) {
-        Optional<Voter> voterOpt = voterRepository.findByDeviceId(deviceId);
+        Optional<Voter> voterOpt = voterRepository.findByElectionIdAndDeviceId(electionService.getCurrentElectionId(), deviceId);
         return voterOpt.isPresent() && voterOpt.get().isHasVoted();
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+-- Incremental ballot tallies. refresh_ballot_tallies (V9) recounted every
+-- ballot of the election on every node every tally-interval; at a million
+-- ballots one recount is a scan of about two seconds. It now adds only the
+-- ballots written since its previous run, and one node at a time does so.
+--
+-- Ballots commit out of order, so neither created_at nor a sequence can
+-- say which ones a previous run already saw. Each ballot records the ID of
+-- the transaction that wrote it instead, and a run counts the ballots with
+-- txid in [counted_below, xmin of its snapshot): every transaction below
+-- xmin has finished, so none of those ballots can still appear later, and
+-- the next run starts where this one stopped. A transaction left open
+-- holds the tallies back until it ends; nothing is lost or counted twice.
+--
+-- ballots is insert-only and filled in txid order, so a BRIN index keeps
+-- the scan to the newest block ranges for a few bytes per partition.
+
+-- ALTER TABLE locks ballots, so the rows written so far all get this
+-- migration's transaction ID and none are added until it commits
+ALTER TABLE ballots ADD COLUMN txid BIGINT NOT NULL DEFAULT txid_current();
+
+CREATE INDEX idx_ballots_txid ON ballots USING brin (txid);
+
+-- Ballots with txid below counted_below are in candidates.vote_count and
+-- category_totals shard 16. No row means none are.
+CREATE TABLE ballot_tallies (
+    election_id    BIGINT NOT NULL REFERENCES elections (id),
+    counted_below  BIGINT NOT NULL,
+    CONSTRAINT ballot_tallies_pkey PRIMARY KEY (election_id)
+);
+
+-- Elections that already have ballots: a last full recount with the V9
+-- function, which then covers every existing ballot
+SELECT refresh_ballot_tallies(e.id)
+FROM elections e
+WHERE EXISTS (SELECT 1 FROM ballots b WHERE b.election_id = e.id);
+
+INSERT INTO ballot_tallies (election_id, counted_below)
+SELECT e.id, txid_current() + 1
+FROM elections e
+WHERE EXISTS (SELECT 1 FROM ballots b WHERE b.election_id = e.id);
+
+-- Adds the ballots written since the previous run to the tallies. A node
+-- that finds another node's run in progress returns 0 at once instead of
+-- waiting. Returns the number of candidates whose count changed.
+CREATE OR REPLACE FUNCTION refresh_ballot_tallies(p_election_id BIGINT) RETURNS INTEGER AS $$
+DECLARE
+    from_txid BIGINT;
+    below_txid BIGINT;
+    changed INTEGER;
+BEGIN
+    INSERT INTO ballot_tallies (election_id, counted_below)
+    VALUES (p_election_id, 0)
+    ON CONFLICT (election_id) DO NOTHING;
+
+    SELECT counted_below INTO from_txid
+    FROM ballot_tallies
+    WHERE election_id = p_election_id
+    FOR UPDATE SKIP LOCKED;
+    IF NOT FOUND THEN
+        RETURN 0;
+    END IF;
+
+    -- Taken after the lock, so it is never behind a run that just committed
+    below_txid := txid_snapshot_xmin(txid_current_snapshot());
+    IF below_txid <= from_txid THEN
+        RETURN 0;
+    END IF;
+
+    WITH counted AS (
+        SELECT s.category_id::SMALLINT AS category_id, s.candidate_number, count(*) AS n
+        FROM ballots b
+        CROSS JOIN LATERAL unnest(b.selections) WITH ORDINALITY AS s (candidate_number, category_id)
+        WHERE b.election_id = p_election_id
+          AND b.txid >= from_txid AND b.txid < below_txid
+          AND s.candidate_number > 0
+        GROUP BY 1, 2
+    ), totals AS (
+        INSERT INTO category_totals (election_id, category_id, shard, total_votes)
+        SELECT p_election_id, t.category_id, 16, sum(t.n)
+        FROM counted t
+        GROUP BY t.category_id
+        ON CONFLICT (election_id, category_id, shard)
+            DO UPDATE SET total_votes = category_totals.total_votes + EXCLUDED.total_votes
+    )
+    UPDATE candidates c SET vote_count = c.vote_count + t.n
+    FROM counted t
+    WHERE c.election_id = p_election_id
+      AND c.category_id = t.category_id
+      AND c.candidate_number = t.candidate_number;
+    GET DIAGNOSTICS changed = ROW_COUNT;
+
+    UPDATE ballot_tallies SET counted_below = below_txid WHERE election_id = p_election_id;
+    RETURN changed;
+END;
+$$ LANGUAGE plpgsql;
+
+-- As in V9, and the deleted votes rows now also leave candidates.vote_count:
+-- the ballots that replace them are added by the next tally run, where V9
+-- recounted vote_count from scratch.
+CREATE OR REPLACE FUNCTION convert_votes_to_ballots(p_election_id BIGINT) RETURNS BIGINT AS $$
+DECLARE
+    converted BIGINT;
+BEGIN
+    WITH voters_with_votes AS (
+        SELECT voter_id, min(created_at) AS first_vote
+        FROM votes
+        WHERE election_id = p_election_id
+        GROUP BY voter_id
+    ), inserted AS (
+        INSERT INTO ballots (election_id, voter_id, selections, created_at)
+        SELECT p_election_id,
+               w.voter_id,
+               array_agg(COALESCE(c.candidate_number, 0)::SMALLINT ORDER BY k.id),
+               min(w.first_vote)
+        FROM voters_with_votes w
+        CROSS JOIN categories k
+        LEFT JOIN votes v
+            ON v.election_id = p_election_id AND v.voter_id = w.voter_id AND v.category_id = k.id
+        LEFT JOIN candidates c ON c.id = v.candidate_id
+        GROUP BY w.voter_id
+        ON CONFLICT (election_id, voter_id) DO NOTHING
+        RETURNING voter_id
+    ), deleted AS (
+        DELETE FROM votes v
+        USING inserted i
+        WHERE v.election_id = p_election_id AND v.voter_id = i.voter_id
+        RETURNING v.voter_id, v.candidate_id
+    ), uncounted AS (
+        UPDATE candidates c SET vote_count = c.vote_count - d.n
+        FROM (SELECT candidate_id, count(*) AS n FROM deleted GROUP BY candidate_id) d
+        WHERE c.id = d.candidate_id
+    )
+    SELECT count(DISTINCT voter_id) INTO converted FROM deleted;
+    RETURN converted;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,23 @@
+-- Idempotency keys belong to an election, like the ballots they replay
+-- (V6). A client that reuses a key in a later election gets its ballot
+-- run there instead of the earlier election's outcome replayed, and the
+-- rows are kept or removed with their election, as its votes are.
+
+ALTER TABLE idempotency_keys ADD COLUMN election_id BIGINT REFERENCES elections (id);
+
+-- Existing keys: the election of the voter row the same device voted with
+-- closest to when the key was written (same transaction)
+UPDATE idempotency_keys k
+SET election_id = (
+    SELECT v.election_id
+    FROM voters v
+    WHERE v.device_id = k.device_id AND v.voted_at IS NOT NULL
+    ORDER BY abs(extract(epoch FROM v.voted_at - k.created_at))
+    LIMIT 1);
+
+-- A key with no voted device belongs to no ballot and can never replay one
+DELETE FROM idempotency_keys WHERE election_id IS NULL;
+
+ALTER TABLE idempotency_keys ALTER COLUMN election_id SET NOT NULL;
+ALTER TABLE idempotency_keys DROP CONSTRAINT pk_idempotency_keys;
+ALTER TABLE idempotency_keys ADD CONSTRAINT pk_idempotency_keys PRIMARY KEY (election_id, idempotency_key);
@@ -0,0 +1,32 @@
+-- Baseline schema, matching what Hibernate's ddl-auto=update produced before
+-- Flyway took over. Databases created that way are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and skip this script.
+
+CREATE TABLE IF NOT EXISTS voters (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    pin         VARCHAR(5)   NOT NULL,
+    device_id   VARCHAR(255) NOT NULL,
+    has_voted   BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    voted_at    TIMESTAMP(6),
+    CONSTRAINT uk_device_id UNIQUE (device_id)
+);
+
+CREATE TABLE IF NOT EXISTS candidates (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category          VARCHAR(20)  NOT NULL CHECK (category IN ('KING', 'QUEEN', 'PRINCE', 'PRINCESS', 'COUPLE')),
+    candidate_number  INTEGER      NOT NULL,
+    name              VARCHAR(100) NOT NULL,
+    department        VARCHAR(100),
+    image_url         VARCHAR(500),
+    vote_count        BIGINT       NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS votes (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    voter_id      BIGINT       NOT NULL REFERENCES voters (id),
+    candidate_id  BIGINT       NOT NULL REFERENCES candidates (id),
+    category      VARCHAR(20)  NOT NULL CHECK (category IN ('KING', 'QUEEN', 'PRINCE', 'PRINCESS', 'COUPLE')),
+    created_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_voter_category UNIQUE (voter_id, category)
+);
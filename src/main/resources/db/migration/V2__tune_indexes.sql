@@ -0,0 +1,59 @@
+-- Index set driven by the queries the application actually runs.
+-- Every index on votes is maintained on each of the five inserts per ballot,
+-- so anything a unique constraint already covers is dropped.
+
+-- voters ---------------------------------------------------------------
+-- uk_device_id already backs findByDeviceId / existsByDeviceId.
+DROP INDEX IF EXISTS idx_device_id;
+-- Boolean column, never used as a filter on its own.
+DROP INDEX IF EXISTS idx_has_voted;
+-- Hibernate named the device_id unique constraint itself (uk_<hash>) because
+-- of @Column(unique = true); normalise it to uk_device_id and drop any
+-- duplicate single-column unique constraint on the same column.
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'voters'::regclass
+          AND con.contype = 'u'
+          AND con.conname <> 'uk_device_id'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname = 'device_id'
+    LOOP
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'voters'::regclass AND conname = 'uk_device_id') THEN
+            EXECUTE format('ALTER TABLE voters DROP CONSTRAINT %I', c.conname);
+        ELSE
+            EXECUTE format('ALTER TABLE voters RENAME CONSTRAINT %I TO uk_device_id', c.conname);
+        END IF;
+    END LOOP;
+END $$;
+-- has_voted / voted_at are written once per voter; leave room for HOT updates.
+ALTER TABLE voters SET (fillfactor = 90);
+
+-- votes ----------------------------------------------------------------
+-- uk_voter_category (voter_id, category) serves existsByVoter,
+-- existsByVoterAndCategory and findByVoterAndCategory.
+DROP INDEX IF EXISTS idx_voter_id;
+DROP INDEX IF EXISTS idx_voter_category;
+-- Replaced by the covering index below.
+DROP INDEX IF EXISTS idx_category;
+DROP INDEX IF EXISTS idx_candidate_id;
+-- countByCategory becomes an index-only scan, and per-candidate tallies
+-- within a category (GROUP BY candidate_id) read nothing but this index.
+CREATE INDEX IF NOT EXISTS idx_votes_category_candidate ON votes (category, candidate_id);
+
+-- candidates -----------------------------------------------------------
+-- One unique key serves findByCategoryAndCandidateNumber on the vote path
+-- and returns the results query already ordered by candidate_number.
+-- vote_count is deliberately not INCLUDEd: it changes on every vote and
+-- would turn each increment into a non-HOT update plus an index write.
+DROP INDEX IF EXISTS idx_category_number;
+ALTER TABLE candidates
+    ADD CONSTRAINT uk_candidate_category_number UNIQUE (category, candidate_number);
+-- vote_count is incremented in place on every vote; spare page space keeps
+-- those updates HOT (no index maintenance, no new heap page).
+ALTER TABLE candidates SET (fillfactor = 50);
@@ -0,0 +1,46 @@
+-- Per-category vote totals maintained by the database, so the results query
+-- no longer runs COUNT(*) over votes. Each category is split into counter
+-- shards picked by backend pid: concurrent ballots run on different pooled
+-- connections and therefore increment different rows instead of queueing on
+-- a single row lock per category until commit.
+
+CREATE TABLE category_totals (
+    category     VARCHAR(20) NOT NULL,
+    shard        SMALLINT    NOT NULL,
+    total_votes  BIGINT      NOT NULL DEFAULT 0,
+    CONSTRAINT pk_category_totals PRIMARY KEY (category, shard)
+);
+
+ALTER TABLE category_totals SET (fillfactor = 50);
+
+-- Backfill from existing votes into shard 0
+INSERT INTO category_totals (category, shard, total_votes)
+SELECT c.category, 0, count(v.id)
+FROM (VALUES ('KING'), ('QUEEN'), ('PRINCE'), ('PRINCESS'), ('COUPLE')) AS c (category)
+LEFT JOIN votes v ON v.category = c.category
+GROUP BY c.category;
+
+CREATE FUNCTION maintain_category_totals() RETURNS trigger AS $$
+DECLARE
+    delta    BIGINT;
+    row_cat  VARCHAR(20);
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        delta := 1;
+        row_cat := NEW.category;
+    ELSE
+        delta := -1;
+        row_cat := OLD.category;
+    END IF;
+
+    INSERT INTO category_totals (category, shard, total_votes)
+    VALUES (row_cat, pg_backend_pid() % 16, delta)
+    ON CONFLICT (category, shard)
+        DO UPDATE SET total_votes = category_totals.total_votes + EXCLUDED.total_votes;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_votes_category_totals
+    AFTER INSERT OR DELETE ON votes
+    FOR EACH ROW EXECUTE FUNCTION maintain_category_totals();
@@ -0,0 +1,14 @@
+-- Completed ballot submissions by client-supplied Idempotency-Key. A row is
+-- written in the same transaction as the votes, so it exists exactly when
+-- the ballot was committed; a retry with the same key replays the stored
+-- response instead of running the ballot again.
+
+CREATE TABLE idempotency_keys (
+    idempotency_key   VARCHAR(128) NOT NULL,
+    device_id         VARCHAR(255) NOT NULL,
+    request_hash      VARCHAR(64)  NOT NULL,
+    status_code       SMALLINT     NOT NULL,
+    response_message  VARCHAR(255) NOT NULL,
+    created_at        TIMESTAMP    NOT NULL DEFAULT now(),
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (idempotency_key)
+);
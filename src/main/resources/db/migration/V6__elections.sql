@@ -0,0 +1,123 @@
+-- Elections: candidates, voters, votes and category totals belong to one
+-- election, so several elections (e.g. faculty and university level) can
+-- share the database and past ones can be kept.
+--
+-- votes is list-partitioned by election_id with one partition per election,
+-- created by a trigger when the election row is inserted. Every query the
+-- application runs filters on election_id, so it touches one partition only:
+-- its indexes and unique-constraint checks stay the size of that election,
+-- however many past elections are kept.
+
+CREATE TABLE elections (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code        VARCHAR(50)  NOT NULL,
+    name        VARCHAR(200) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_election_code UNIQUE (code)
+);
+
+-- Existing data becomes the 'default' election, id 1 in the new table
+INSERT INTO elections (code, name) VALUES ('default', 'KTU Election');
+
+-- candidates -----------------------------------------------------------
+ALTER TABLE candidates ADD COLUMN election_id BIGINT NOT NULL DEFAULT 1 REFERENCES elections (id);
+ALTER TABLE candidates ALTER COLUMN election_id DROP DEFAULT;
+ALTER TABLE candidates DROP CONSTRAINT uk_candidate_category_number;
+ALTER TABLE candidates
+    ADD CONSTRAINT uk_candidate_category_number UNIQUE (election_id, category, candidate_number);
+
+-- voters ---------------------------------------------------------------
+-- A device votes once per election
+ALTER TABLE voters ADD COLUMN election_id BIGINT NOT NULL DEFAULT 1 REFERENCES elections (id);
+ALTER TABLE voters ALTER COLUMN election_id DROP DEFAULT;
+ALTER TABLE voters DROP CONSTRAINT uk_device_id;
+ALTER TABLE voters ADD CONSTRAINT uk_device_id UNIQUE (election_id, device_id);
+
+-- category_totals ------------------------------------------------------
+ALTER TABLE category_totals ADD COLUMN election_id BIGINT NOT NULL DEFAULT 1 REFERENCES elections (id);
+ALTER TABLE category_totals ALTER COLUMN election_id DROP DEFAULT;
+ALTER TABLE category_totals DROP CONSTRAINT pk_category_totals;
+ALTER TABLE category_totals ADD CONSTRAINT pk_category_totals PRIMARY KEY (election_id, category, shard);
+
+-- votes ----------------------------------------------------------------
+-- Move the old table and its named objects aside, then copy into the
+-- partitioned table. Unique keys on a partitioned table must contain the
+-- partition key, hence election_id in the primary and voter/category keys.
+ALTER TABLE votes RENAME TO votes_unpartitioned;
+ALTER TABLE votes_unpartitioned RENAME CONSTRAINT votes_pkey TO votes_unpartitioned_pkey;
+ALTER TABLE votes_unpartitioned RENAME CONSTRAINT uk_voter_category TO uk_voter_category_unpartitioned;
+ALTER INDEX idx_votes_category_candidate RENAME TO idx_votes_category_candidate_unpartitioned;
+DROP TRIGGER trg_votes_category_totals ON votes_unpartitioned;
+
+-- Identity columns are not allowed on partitioned tables before
+-- PostgreSQL 17, so ids come from a plain sequence
+CREATE SEQUENCE votes_id_seq_partitioned;
+
+CREATE TABLE votes (
+    id            BIGINT       NOT NULL DEFAULT nextval('votes_id_seq_partitioned'),
+    election_id   BIGINT       NOT NULL REFERENCES elections (id),
+    voter_id      BIGINT       NOT NULL REFERENCES voters (id),
+    candidate_id  BIGINT       NOT NULL REFERENCES candidates (id),
+    category      VARCHAR(20)  NOT NULL CHECK (category IN ('KING', 'QUEEN', 'PRINCE', 'PRINCESS', 'COUPLE')),
+    created_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT votes_pkey PRIMARY KEY (election_id, id),
+    CONSTRAINT uk_voter_category UNIQUE (election_id, voter_id, category)
+) PARTITION BY LIST (election_id);
+
+ALTER SEQUENCE votes_id_seq_partitioned OWNED BY votes.id;
+
+-- Covering index of V2 with election_id in front: the planner still checks
+-- election_id = ? on each row of the chosen partition, and without the
+-- column in the index counts would stop being index-only scans
+CREATE INDEX idx_votes_category_candidate ON votes (election_id, category, candidate_id);
+
+CREATE FUNCTION create_votes_partition() RETURNS trigger AS $$
+BEGIN
+    EXECUTE format('CREATE TABLE %I.%I PARTITION OF %I.votes FOR VALUES IN (%s)',
+                   TG_TABLE_SCHEMA, 'votes_election_' || NEW.id, TG_TABLE_SCHEMA, NEW.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_elections_votes_partition
+    AFTER INSERT ON elections
+    FOR EACH ROW EXECUTE FUNCTION create_votes_partition();
+
+-- The default election was inserted before the trigger existed
+CREATE TABLE votes_election_1 PARTITION OF votes FOR VALUES IN (1);
+
+INSERT INTO votes (id, election_id, voter_id, candidate_id, category, created_at)
+SELECT id, 1, voter_id, candidate_id, category, created_at FROM votes_unpartitioned;
+SELECT setval('votes_id_seq_partitioned', COALESCE((SELECT max(id) FROM votes), 0) + 1, false);
+
+DROP TABLE votes_unpartitioned;
+ALTER SEQUENCE votes_id_seq_partitioned RENAME TO votes_id_seq;
+
+-- Totals per election; installed after the copy, which must not count again
+CREATE OR REPLACE FUNCTION maintain_category_totals() RETURNS trigger AS $$
+DECLARE
+    delta     BIGINT;
+    row_elec  BIGINT;
+    row_cat   VARCHAR(20);
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        delta := 1;
+        row_elec := NEW.election_id;
+        row_cat := NEW.category;
+    ELSE
+        delta := -1;
+        row_elec := OLD.election_id;
+        row_cat := OLD.category;
+    END IF;
+
+    INSERT INTO category_totals (election_id, category, shard, total_votes)
+    VALUES (row_elec, row_cat, pg_backend_pid() % 16, delta)
+    ON CONFLICT (election_id, category, shard)
+        DO UPDATE SET total_votes = category_totals.total_votes + EXCLUDED.total_votes;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_votes_category_totals
+    AFTER INSERT OR DELETE ON votes
+    FOR EACH ROW EXECUTE FUNCTION maintain_category_totals();
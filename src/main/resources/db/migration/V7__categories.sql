@@ -0,0 +1,85 @@
+-- Categories become data: one row each, with a dense SMALLINT id (1..n)
+-- that the application uses as an array index (CategoryRegistry). The
+-- category VARCHAR(20) columns of candidates, votes and category_totals are
+-- replaced by category_id SMALLINT foreign keys, which shrinks every vote
+-- row and every index that contains the category.
+
+CREATE TABLE categories (
+    id    SMALLINT     PRIMARY KEY CHECK (id > 0),
+    code  VARCHAR(20)  NOT NULL,
+    name  VARCHAR(100) NOT NULL,
+    CONSTRAINT uk_category_code UNIQUE (code)
+);
+
+INSERT INTO categories (id, code, name) VALUES
+    (1, 'KING', 'King'),
+    (2, 'QUEEN', 'Queen'),
+    (3, 'PRINCE', 'Prince'),
+    (4, 'PRINCESS', 'Princess'),
+    (5, 'COUPLE', 'Couple');
+
+-- The IN (...) checks of V1 and V6 are replaced by the foreign keys. Their
+-- names depend on who created the table (Flyway or Hibernate), so look them up.
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conrelid::regclass AS tbl, con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid IN ('candidates'::regclass, 'votes'::regclass, 'category_totals'::regclass)
+          AND con.contype = 'c'
+          AND att.attname = 'category'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', c.tbl, c.conname);
+    END LOOP;
+END $$;
+
+-- USING cannot contain a subquery, hence the CASE over the seeded codes.
+-- Each ALTER rewrites the table (and, for votes, every partition) and
+-- rebuilds the indexes containing the column, so they come out compact
+ALTER TABLE candidates ALTER COLUMN category TYPE SMALLINT
+    USING CASE category
+        WHEN 'KING' THEN 1 WHEN 'QUEEN' THEN 2 WHEN 'PRINCE' THEN 3
+        WHEN 'PRINCESS' THEN 4 WHEN 'COUPLE' THEN 5 END;
+ALTER TABLE candidates RENAME COLUMN category TO category_id;
+ALTER TABLE candidates ADD CONSTRAINT fk_candidate_category FOREIGN KEY (category_id) REFERENCES categories (id);
+
+ALTER TABLE votes ALTER COLUMN category TYPE SMALLINT
+    USING CASE category
+        WHEN 'KING' THEN 1 WHEN 'QUEEN' THEN 2 WHEN 'PRINCE' THEN 3
+        WHEN 'PRINCESS' THEN 4 WHEN 'COUPLE' THEN 5 END;
+ALTER TABLE votes RENAME COLUMN category TO category_id;
+ALTER TABLE votes ADD CONSTRAINT fk_vote_category FOREIGN KEY (category_id) REFERENCES categories (id);
+
+ALTER TABLE category_totals ALTER COLUMN category TYPE SMALLINT
+    USING CASE category
+        WHEN 'KING' THEN 1 WHEN 'QUEEN' THEN 2 WHEN 'PRINCE' THEN 3
+        WHEN 'PRINCESS' THEN 4 WHEN 'COUPLE' THEN 5 END;
+ALTER TABLE category_totals RENAME COLUMN category TO category_id;
+ALTER TABLE category_totals ADD CONSTRAINT fk_category_total_category FOREIGN KEY (category_id) REFERENCES categories (id);
+
+CREATE OR REPLACE FUNCTION maintain_category_totals() RETURNS trigger AS $$
+DECLARE
+    delta     BIGINT;
+    row_elec  BIGINT;
+    row_cat   SMALLINT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        delta := 1;
+        row_elec := NEW.election_id;
+        row_cat := NEW.category_id;
+    ELSE
+        delta := -1;
+        row_elec := OLD.election_id;
+        row_cat := OLD.category_id;
+    END IF;
+
+    INSERT INTO category_totals (election_id, category_id, shard, total_votes)
+    VALUES (row_elec, row_cat, pg_backend_pid() % 16, delta)
+    ON CONFLICT (election_id, category_id, shard)
+        DO UPDATE SET total_votes = category_totals.total_votes + EXCLUDED.total_votes;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,61 @@
+-- Compact ballot layout: one row per ballot instead of one votes row per
+-- category. selections holds the candidate number chosen in each category,
+-- element i for category id i (0 = no vote), the same layout as the
+-- compact ballot the clients send. A ballot row is about the size of one
+-- votes row and has one index instead of three, so a five-category ballot
+-- takes roughly a fifth of the space.
+--
+-- ballot_votes unpacks ballots into the (election_id, voter_id,
+-- candidate_id, category_id, created_at) shape of votes, so per-vote
+-- queries keep working against either layout.
+--
+-- ballots is list-partitioned by election_id like votes, one
+-- ballots_election_<id> partition per election.
+
+CREATE TABLE ballots (
+    election_id  BIGINT       NOT NULL REFERENCES elections (id),
+    voter_id     BIGINT       NOT NULL REFERENCES voters (id),
+    selections   SMALLINT[]   NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT ballots_pkey PRIMARY KEY (election_id, voter_id),
+    -- Subscripts must start at 1 for element i to be category id i
+    CONSTRAINT ck_ballot_selections CHECK (array_ndims(selections) = 1 AND array_lower(selections, 1) = 1)
+) PARTITION BY LIST (election_id);
+
+CREATE FUNCTION create_ballots_partition() RETURNS trigger AS $$
+BEGIN
+    EXECUTE format('CREATE TABLE %I.%I PARTITION OF %I.ballots FOR VALUES IN (%s)',
+                   TG_TABLE_SCHEMA, 'ballots_election_' || NEW.id, TG_TABLE_SCHEMA, NEW.id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_elections_ballots_partition
+    AFTER INSERT ON elections
+    FOR EACH ROW EXECUTE FUNCTION create_ballots_partition();
+
+-- Elections created before the trigger existed
+DO $$
+DECLARE
+    e RECORD;
+BEGIN
+    FOR e IN SELECT id FROM elections LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF ballots FOR VALUES IN (%s)',
+                       'ballots_election_' || e.id, e.id);
+    END LOOP;
+END $$;
+
+-- Filters on election_id reach the ballots scan, so partitions are pruned
+-- through the view as well
+CREATE VIEW ballot_votes AS
+SELECT b.election_id,
+       b.voter_id,
+       c.id AS candidate_id,
+       c.category_id,
+       b.created_at
+FROM ballots b
+CROSS JOIN LATERAL unnest(b.selections) WITH ORDINALITY AS s (candidate_number, category_id)
+JOIN candidates c
+    ON c.election_id = b.election_id
+   AND c.category_id = s.category_id
+   AND c.candidate_number = s.candidate_number;
@@ -0,0 +1,98 @@
+-- Ballot mode (voting.ballots.enabled): a ballot is one ballots row (V8)
+-- instead of a votes row per category plus a vote_count UPDATE per
+-- candidate. The counters that results read are then recomputed from the
+-- ballots by refresh_ballot_tallies() every few seconds (BallotTallyService)
+-- rather than incremented by every ballot.
+--
+-- Both are functions rather than statements run here because the layout is
+-- chosen per deployment, not per schema version.
+
+-- Converts an election's votes rows into ballots; BallotTallyService runs
+-- it for the current election when ballot mode starts, and it is a no-op
+-- once the election has no votes rows.
+--
+-- A voter's votes become one ballot with the candidate number per category
+-- id (0 where the voter skipped a category) and the time of their first
+-- vote. Voters that already have a ballot keep their votes rows; reads cover
+-- both layouts. The deleted votes rows take their counts out of
+-- category_totals through the existing trigger.
+CREATE FUNCTION convert_votes_to_ballots(p_election_id BIGINT) RETURNS BIGINT AS $$
+DECLARE
+    converted BIGINT;
+BEGIN
+    WITH voters_with_votes AS (
+        SELECT voter_id, min(created_at) AS first_vote
+        FROM votes
+        WHERE election_id = p_election_id
+        GROUP BY voter_id
+    ), inserted AS (
+        INSERT INTO ballots (election_id, voter_id, selections, created_at)
+        SELECT p_election_id,
+               w.voter_id,
+               array_agg(COALESCE(c.candidate_number, 0)::SMALLINT ORDER BY k.id),
+               min(w.first_vote)
+        FROM voters_with_votes w
+        CROSS JOIN categories k
+        LEFT JOIN votes v
+            ON v.election_id = p_election_id AND v.voter_id = w.voter_id AND v.category_id = k.id
+        LEFT JOIN candidates c ON c.id = v.candidate_id
+        GROUP BY w.voter_id
+        ON CONFLICT (election_id, voter_id) DO NOTHING
+        RETURNING voter_id
+    ), deleted AS (
+        DELETE FROM votes v
+        USING inserted i
+        WHERE v.election_id = p_election_id AND v.voter_id = i.voter_id
+        RETURNING v.voter_id
+    )
+    SELECT count(DISTINCT voter_id) INTO converted FROM deleted;
+    RETURN converted;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recounts an election's ballots in one scan and writes the result where
+-- the results queries already look:
+--   * category_totals shard 16, which the votes trigger (shards 0..15)
+--     never touches, so the sum over shards is votes rows plus ballots;
+--   * candidates.vote_count, set to the votes rows plus the ballots that
+--     chose the candidate.
+-- Rows whose count did not change are not written. Returns the number of
+-- candidates whose count changed.
+CREATE FUNCTION refresh_ballot_tallies(p_election_id BIGINT) RETURNS INTEGER AS $$
+DECLARE
+    changed INTEGER;
+BEGIN
+    WITH counted AS (
+        SELECT s.category_id::SMALLINT AS category_id, s.candidate_number, count(*) AS n
+        FROM ballots b
+        CROSS JOIN LATERAL unnest(b.selections) WITH ORDINALITY AS s (candidate_number, category_id)
+        WHERE b.election_id = p_election_id AND s.candidate_number > 0
+        GROUP BY 1, 2
+    ), totals AS (
+        INSERT INTO category_totals (election_id, category_id, shard, total_votes)
+        SELECT p_election_id, k.id, 16, COALESCE(sum(t.n), 0)
+        FROM categories k
+        LEFT JOIN counted t ON t.category_id = k.id
+        GROUP BY k.id
+        ON CONFLICT (election_id, category_id, shard)
+            DO UPDATE SET total_votes = EXCLUDED.total_votes
+            WHERE category_totals.total_votes <> EXCLUDED.total_votes
+    )
+    UPDATE candidates c SET vote_count = x.votes
+    FROM (
+        SELECT k.id, COALESCE(v.n, 0) + COALESCE(t.n, 0) AS votes
+        FROM candidates k
+        LEFT JOIN (
+            SELECT candidate_id, count(*) AS n
+            FROM votes
+            WHERE election_id = p_election_id
+            GROUP BY candidate_id
+        ) v ON v.candidate_id = k.id
+        LEFT JOIN counted t ON t.category_id = k.category_id AND t.candidate_number = k.candidate_number
+        WHERE k.election_id = p_election_id
+    ) x
+    WHERE c.id = x.id AND c.vote_count <> x.votes;
+    GET DIAGNOSTICS changed = ROW_COUNT;
+    RETURN changed;
+END;
+$$ LANGUAGE plpgsql;
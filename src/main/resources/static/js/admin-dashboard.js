@@ -21,23 +21,50 @@ document.addEventListener("DOMContentLoaded", () => {
         document.getElementById("pinSection").style.display = "none";
 
         startLiveResultsRefresh();
+        startTurnoutRefresh();
         populateCandidates();
     });
 
     async function startLiveResultsRefresh() {
-        setInterval(async () => {
+        // Pushed by the server whenever a vote is committed on any node
+        if (window.EventSource) {
+            const source = new EventSource("/api/results/stream");
+            source.addEventListener("results", (event) => {
+                const results = JSON.parse(event.data);
+                const candidates = results
+                    .flatMap(r => r.candidates.map(c => ({ ...c, category: r.category })))
+                    .sort((a, b) => b.voteCount - a.voteCount);
+                updateResultsTable(candidates);
+                document.getElementById('lastUpdated').textContent = 'Last updated: ' + new Date().toLocaleTimeString();
+            });
+            // EventSource reconnects by itself after an error
+            source.onerror = () => console.error("Live results stream interrupted, reconnecting");
+            return;
+        }
+
+        // Long-poll: the server answers when results change (only the changed
+        // candidates) or after ~25s with none, then we ask again
+        const candidatesById = new Map();
+        let version = 0;
+        while (true) {
             try {
-                // NOTE: backend expects 'adminPin' query parameter
-                const response = await fetch(`${API_BASE}/results?adminPin=${ADMIN_PIN}`);
+                const response = await fetch(`/api/results/changes?since=${version}`);
                 if (!response.ok) throw new Error("Failed to fetch results");
 
-                const results = await response.json();
-                updateResultsTable(results);
-                document.getElementById('lastUpdated').textContent = 'Last updated: ' + new Date().toLocaleTimeString();
+                const changes = await response.json();
+                if (changes.full) candidatesById.clear();
+                changes.results.forEach(r => r.candidates.forEach(c =>
+                    candidatesById.set(c.id, { ...c, category: r.category })));
+                version = changes.version;
+                if (changes.results.length > 0) {
+                    updateResultsTable([...candidatesById.values()].sort((a, b) => b.voteCount - a.voteCount));
+                    document.getElementById('lastUpdated').textContent = 'Last updated: ' + new Date().toLocaleTimeString();
+                }
             } catch (error) {
                 console.error("Error fetching live results:", error);
+                await new Promise(resolve => setTimeout(resolve, 5000));
             }
-        }, 5000);
+        }
     }
 
     function updateResultsTable(results) {
@@ -55,6 +82,64 @@ document.addEventListener("DOMContentLoaded", () => {
         });
     }
 
+    const TURNOUT_COLORS = {
+        KING: "#4f46e5", QUEEN: "#db2777", PRINCE: "#059669", PRINCESS: "#d97706", COUPLE: "#0891b2"
+    };
+
+    // Categories added later get a stable colour derived from their code
+    function turnoutColor(category) {
+        if (TURNOUT_COLORS[category]) return TURNOUT_COLORS[category];
+        let hash = 0;
+        for (const ch of category) hash = (hash * 31 + ch.charCodeAt(0)) >>> 0;
+        return `hsl(${hash % 360}, 65%, 45%)`;
+    }
+
+    function startTurnoutRefresh() {
+        refreshTurnout();
+        setInterval(refreshTurnout, 10000);
+    }
+
+    async function refreshTurnout() {
+        try {
+            const response = await fetch(`${API_BASE}/turnout?adminPin=${ADMIN_PIN}&resolution=minute`);
+            if (!response.ok) throw new Error("Failed to fetch turnout");
+            renderTurnout(await response.json());
+        } catch (error) {
+            console.error("Error fetching turnout:", error);
+        }
+    }
+
+    // One stacked bar per minute, one colour per category
+    function renderTurnout(turnout) {
+        const chart = document.getElementById("turnoutChart");
+        const width = 600, height = 160;
+        const buckets = turnout.totals.length;
+        const max = Math.max(1, ...turnout.totals);
+        const barWidth = width / Math.max(1, buckets);
+        const start = Date.parse(turnout.from);
+        const categories = Object.keys(turnout.counts);
+
+        let bars = "";
+        for (let i = 0; i < buckets; i++) {
+            let y = height;
+            const label = new Date(start + i * turnout.bucketSeconds * 1000).toLocaleTimeString();
+            categories.forEach(category => {
+                const count = turnout.counts[category][i] || 0;
+                if (count === 0) return;
+                const barHeight = count / max * height;
+                y -= barHeight;
+                bars += `<rect x="${i * barWidth}" y="${y}" width="${Math.max(1, barWidth - 1)}" height="${barHeight}"
+                               fill="${turnoutColor(category)}"><title>${label} ${category}: ${count}</title></rect>`;
+            });
+        }
+        chart.innerHTML = bars;
+
+        document.getElementById("turnoutLegend").innerHTML = categories.map(category => {
+            const total = turnout.counts[category].reduce((sum, count) => sum + count, 0);
+            return `<span><span style="color:${turnoutColor(category)}">&#9632;</span> ${category} ${total}</span>`;
+        }).join("") + `<span>peak ${Math.max(0, ...turnout.totals)}/min</span>`;
+    }
+
     async function populateCandidates() {
         try {
             const response = await fetch(`${API_BASE}/candidates?adminPin=${ADMIN_PIN}`);
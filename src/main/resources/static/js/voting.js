@@ -170,18 +170,53 @@
     return res.json();
   };
 
+  // One Idempotency-Key per ballot, kept until the server answers, so a
+  // resubmission after a dropped connection cannot be counted as a new vote
+  const BALLOT_KEY_STORAGE = 'ktuBallotIdempotency';
+
+  const ballotIdempotencyKey = (body) => {
+    try {
+      const saved = JSON.parse(sessionStorage.getItem(BALLOT_KEY_STORAGE) || 'null');
+      if (saved && saved.body === body) return saved.key;
+    } catch (e) { /* fall through and issue a new key */ }
+    const key = (window.crypto && crypto.randomUUID)
+      ? crypto.randomUUID()
+      : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+    try { sessionStorage.setItem(BALLOT_KEY_STORAGE, JSON.stringify({ key, body })); } catch (e) { /* private mode */ }
+    return key;
+  };
+
   const submitVotes = async ({ pin, deviceId, votes }) => {
-    const res = await fetch(`${API_BASE}/voting/bulk-vote`, {
-      method: 'POST',
-      headers: { 'Content-Type': 'application/json' },
-      body: JSON.stringify({ pin, deviceId, votes }),
-    });
+    const payload = JSON.stringify({ pin, deviceId, votes });
+    const idempotencyKey = ballotIdempotencyKey(payload);
+
+    let res;
+    for (let attempt = 0; ; attempt++) {
+      let retryAfterMs = 500 * (attempt + 1);
+      try {
+        res = await fetch(`${API_BASE}/voting/bulk-vote`, {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json', 'Idempotency-Key': idempotencyKey },
+          body: payload,
+        });
+        // 503: server at capacity, the ballot was not attempted
+        if (res.status !== 503 || attempt >= 2) break;
+        retryAfterMs = Math.max(retryAfterMs, (Number(res.headers.get('Retry-After')) || 1) * 1000);
+      } catch (networkError) {
+        // No response at all: safe to resend under the same key
+        if (attempt >= 2) throw new Error('Network error while submitting your vote. Please try again.');
+      }
+      await new Promise((resolve) => setTimeout(resolve, retryAfterMs));
+    }
 
     const contentType = res.headers.get('content-type') || '';
     const body = contentType.includes('application/json')
       ? await res.json()
       : await res.text();
 
+    if (res.status < 500) {
+      try { sessionStorage.removeItem(BALLOT_KEY_STORAGE); } catch (e) { /* ignore */ }
+    }
     if (!res.ok) {
       const msg = body && body.message ? body.message : (body || 'Vote submission failed.');
       throw new Error(msg);
@@ -0,0 +1,92 @@
+package com.KTU.KTUVotingapp.benchmark;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
+import com.KTU.KTUVotingapp.model.Category;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a request body into a validated BulkVoteRequest: the JSON
+ * path (Jackson + Bean Validation, as /bulk-vote does it) against
+ * CompactBallot.decode (/ballot). Both ballots vote in all five categories.
+ *
+ * mvn -Pjmh -DskipTests verify -Djmh.args=BallotDecode
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallotDecodeBenchmark {
+
+    private static final String JSON_BALLOT = "{\"deviceId\":\"ip-0123456789abcdef0123456789abcdef\",\"pin\":\"12345\","
+            + "\"votes\":[{\"category\":\"KING\",\"candidateNumber\":3},"
+            + "{\"category\":\"QUEEN\",\"candidateNumber\":1},"
+            + "{\"category\":\"PRINCE\",\"candidateNumber\":7},"
+            + "{\"category\":\"PRINCESS\",\"candidateNumber\":2},"
+            + "{\"category\":\"COUPLE\",\"candidateNumber\":5}]}";
+
+    // The categories V7__categories.sql seeds, in id order
+    private static final List<Category> CATEGORIES = List.of(
+            new Category((short) 1, "KING", "King"),
+            new Category((short) 2, "QUEEN", "Queen"),
+            new Category((short) 3, "PRINCE", "Prince"),
+            new Category((short) 4, "PRINCESS", "Princess"),
+            new Category((short) 5, "COUPLE", "Couple"));
+
+    private ObjectMapper objectMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private byte[] jsonBody;
+    private byte[] compactBody;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        jsonBody = JSON_BALLOT.getBytes(StandardCharsets.UTF_8);
+        compactBody = CompactBallot.encode("12345", new int[] {3, 1, 7, 2, 5});
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public BulkVoteRequest jsonWithBeanValidation() throws Exception {
+        BulkVoteRequest request = objectMapper.readValue(jsonBody, BulkVoteRequest.class);
+        Set<ConstraintViolation<BulkVoteRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException(violations.toString());
+        }
+        return request;
+    }
+
+    @Benchmark
+    public BulkVoteRequest compactDecode() {
+        return CompactBallot.decode(compactBody, CATEGORIES);
+    }
+}
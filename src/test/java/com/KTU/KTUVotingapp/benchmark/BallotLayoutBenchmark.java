@@ -0,0 +1,212 @@
+package com.KTU.KTUVotingapp.benchmark;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-disk size and insert throughput of the two vote layouts for the same
+ * ballots: five votes rows per ballot (election 1) against one ballots row
+ * (election 2, see V8__ballots.sql). Voters are loaded up front; the timed
+ * part inserts the ballots in batches of BATCH per transaction, with the
+ * votes counter trigger firing as in production. Sizes are of the two
+ * election partitions after VACUUM ANALYZE.
+ *
+ * Over plain JDBC on one connection, in a throwaway schema migrated by
+ * Flyway. Needs the test class path:
+ *
+ *   mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat cp.txt) \
+ *       com.KTU.KTUVotingapp.benchmark.BallotLayoutBenchmark [jdbcUrl] [user] [password] [ballots]
+ *
+ * ballots defaults to 1000000.
+ */
+public class BallotLayoutBenchmark {
+
+    private static final String SCHEMA = "ballot_layout_benchmark";
+    private static final int BATCH = 1000;
+    // Category ids seeded by V7__categories.sql
+    private static final int CATEGORIES = 5;
+    private static final int CANDIDATES_PER_CATEGORY = 9;
+
+    private static final long VOTES_ELECTION = 1;
+    private static final long BALLOTS_ELECTION = 2;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/ktuvoting";
+        String user = args.length > 1 ? args[1] : "postgres";
+        String password = args.length > 2 ? args[2] : "kkkkk11111";
+        int ballots = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        Flyway.configure().dataSource(url, user, password).schemas(SCHEMA).load().migrate();
+
+        try (Connection connection = DriverManager.getConnection(url + "?currentSchema=" + SCHEMA, user, password)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO elections (code, name) VALUES ('ballots', 'Ballot layout')");
+                statement.execute("INSERT INTO candidates (election_id, category_id, candidate_number, name, vote_count) "
+                        + "SELECT " + BALLOTS_ELECTION + ", category_id, candidate_number, name, 0 FROM candidates "
+                        + "WHERE election_id = " + VOTES_ELECTION);
+            }
+            long firstVotesVoter = loadVoters(connection, VOTES_ELECTION, ballots);
+            long firstBallotsVoter = loadVoters(connection, BALLOTS_ELECTION, ballots);
+            analyze(connection);
+
+            System.out.printf("%n== %d ballots, %d per transaction ==%n", ballots, BATCH);
+            report(connection, "votes (5 rows/ballot)", "votes_election_" + VOTES_ELECTION,
+                    insertVotes(connection, firstVotesVoter, ballots), ballots);
+            report(connection, "ballots (1 row/ballot)", "ballots_election_" + BALLOTS_ELECTION,
+                    insertBallots(connection, firstBallotsVoter, ballots), ballots);
+
+            System.out.printf("%nvotes rows: %d, ballot_votes rows: %d%n",
+                    queryLong(connection, "SELECT count(*) FROM votes WHERE election_id = " + VOTES_ELECTION),
+                    queryLong(connection, "SELECT count(*) FROM ballot_votes WHERE election_id = " + BALLOTS_ELECTION));
+            System.out.printf("tally recount: votes %.0f ms, ballot_votes %.0f ms%n",
+                    timeQuery(connection, "SELECT category_id, candidate_id, count(*) FROM votes "
+                            + "WHERE election_id = " + VOTES_ELECTION + " GROUP BY category_id, candidate_id") / 1e6,
+                    timeQuery(connection, "SELECT category_id, candidate_id, count(*) FROM ballot_votes "
+                            + "WHERE election_id = " + BALLOTS_ELECTION + " GROUP BY category_id, candidate_id") / 1e6);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET search_path TO public");
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+        }
+    }
+
+    // Voter i of the election gets candidate 1 + (i + c) % 9 in category index c
+    private static int candidateNumber(long voter, int categoryIndex) {
+        return 1 + (int) ((voter + categoryIndex) % CANDIDATES_PER_CATEGORY);
+    }
+
+    private static long insertVotes(Connection connection, long firstVoter, int ballots) throws SQLException {
+        Map<Integer, Long> candidateIds = candidateIds(connection, VOTES_ELECTION);
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement vote = connection.prepareStatement(
+                "INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int b = 0; b < ballots; b++) {
+                long voter = firstVoter + b;
+                for (int c = 0; c < CATEGORIES; c++) {
+                    int number = candidateNumber(voter, c);
+                    vote.setLong(1, VOTES_ELECTION);
+                    vote.setLong(2, voter);
+                    vote.setLong(3, candidateIds.get(c * CANDIDATES_PER_CATEGORY + number));
+                    vote.setShort(4, (short) (c + 1));
+                    vote.setTimestamp(5, now);
+                    vote.addBatch();
+                }
+                if ((b + 1) % BATCH == 0 || b == ballots - 1) {
+                    vote.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long insertBallots(Connection connection, long firstVoter, int ballots) throws SQLException {
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement ballot = connection.prepareStatement(
+                "INSERT INTO ballots (election_id, voter_id, selections, created_at) VALUES (?, ?, ?, ?)")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            Short[] selections = new Short[CATEGORIES];
+            for (int b = 0; b < ballots; b++) {
+                long voter = firstVoter + b;
+                for (int c = 0; c < CATEGORIES; c++) {
+                    selections[c] = (short) candidateNumber(voter, c);
+                }
+                Array array = connection.createArrayOf("int2", selections);
+                ballot.setLong(1, BALLOTS_ELECTION);
+                ballot.setLong(2, voter);
+                ballot.setArray(3, array);
+                ballot.setTimestamp(4, now);
+                ballot.addBatch();
+                if ((b + 1) % BATCH == 0 || b == ballots - 1) {
+                    ballot.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Keyed by category index * 9 + candidate number
+    private static Map<Integer, Long> candidateIds(Connection connection, long electionId) throws SQLException {
+        Map<Integer, Long> ids = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT category_id, candidate_number, id FROM candidates "
+                     + "WHERE election_id = " + electionId)) {
+            while (rs.next()) {
+                ids.put((rs.getInt(1) - 1) * CANDIDATES_PER_CATEGORY + rs.getInt(2), rs.getLong(3));
+            }
+        }
+        return ids;
+    }
+
+    // Returns the first voter id; ids of one election are consecutive
+    private static long loadVoters(Connection connection, long electionId, int voters) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at) "
+                    + "SELECT " + electionId + ", '12345', 'layout-' || g, true, now(), now() "
+                    + "FROM generate_series(1, " + voters + ") g");
+        }
+        return queryLong(connection, "SELECT min(id) FROM voters WHERE election_id = " + electionId);
+    }
+
+    private static void report(Connection connection, String label, String partition, long nanos, int ballots)
+            throws SQLException {
+        analyze(connection);
+        System.out.printf("%-24s %8.0f ballots/s  heap %4d MB  indexes %4d MB  total %4d MB%n",
+                label, ballots / (nanos / 1e9),
+                queryLong(connection, "SELECT pg_table_size('" + partition + "')") >> 20,
+                queryLong(connection, "SELECT pg_indexes_size('" + partition + "')") >> 20,
+                queryLong(connection, "SELECT pg_total_relation_size('" + partition + "')") >> 20);
+    }
+
+    private static void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE");
+        }
+    }
+
+    // Best of three
+    private static long timeQuery(Connection connection, String sql) throws SQLException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+                while (rs.next()) {
+                    rs.getObject(1);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
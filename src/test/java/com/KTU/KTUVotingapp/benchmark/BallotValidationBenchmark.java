@@ -0,0 +1,159 @@
+package com.KTU.KTUVotingapp.benchmark;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.dto.CompactBallot;
+import com.KTU.KTUVotingapp.model.Candidate;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.service.BallotValidator;
+import com.KTU.KTUVotingapp.service.CategoryRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of ballot checks on an already-bound request, with
+ * nine candidates per category. Run with the GC profiler to see bytes
+ * allocated per operation (gc.alloc.rate.norm):
+ *
+ * mvn -Pjmh -DskipTests verify -Djmh.args="BallotValidation -prof gc"
+ *
+ * The exception baselines reproduce the previous rejection path: Bean
+ * Validation of the request, then a ResponseStatusException carrying the
+ * formatted message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallotValidationBenchmark {
+
+    private BallotValidator ballotValidator;
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+
+    private BulkVoteRequest validBallot;
+    private BulkVoteRequest duplicateCategoryBallot;
+    private BulkVoteRequest unknownCandidateBallot;
+    private byte[] compactValidBallot;
+    private byte[] compactUnknownCandidateBallot;
+
+    @Setup
+    public void setUp() {
+        // The categories V7__categories.sql seeds
+        CategoryRegistry categoryRegistry = new CategoryRegistry(null);
+        categoryRegistry.update(List.of(
+                new Category((short) 1, "KING", "King"),
+                new Category((short) 2, "QUEEN", "Queen"),
+                new Category((short) 3, "PRINCE", "Prince"),
+                new Category((short) 4, "PRINCESS", "Princess"),
+                new Category((short) 5, "COUPLE", "Couple")));
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Category category : categoryRegistry.all()) {
+            for (int number = 1; number <= 9; number++) {
+                Candidate candidate = new Candidate();
+                candidate.setCategoryId(category.getId());
+                candidate.setCandidateNumber(number);
+                candidates.add(candidate);
+            }
+        }
+        ballotValidator = new BallotValidator(null, null, categoryRegistry, null, Duration.ofDays(1));
+        ballotValidator.update(candidates);
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+
+        validBallot = ballot(new String[] {"KING", "QUEEN", "PRINCE", "PRINCESS", "COUPLE"},
+                new int[] {3, 1, 7, 2, 5});
+        duplicateCategoryBallot = ballot(new String[] {"KING", "QUEEN", "KING"},
+                new int[] {3, 1, 4});
+        unknownCandidateBallot = ballot(new String[] {"KING", "QUEEN", "PRINCE"},
+                new int[] {3, 1, 42});
+        compactValidBallot = CompactBallot.encode("12345", new int[] {3, 1, 7, 2, 5});
+        compactUnknownCandidateBallot = CompactBallot.encode("12345", new int[] {3, 1, 42, 0, 0});
+    }
+
+    @TearDown
+    public void tearDown() {
+        ballotValidator.shutdown();
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public BallotValidator.Verdict validatorAccepts() {
+        return ballotValidator.validate(validBallot);
+    }
+
+    @Benchmark
+    public BallotValidator.Verdict validatorRejectsDuplicateCategory() {
+        return ballotValidator.validate(duplicateCategoryBallot);
+    }
+
+    @Benchmark
+    public BallotValidator.Verdict validatorRejectsUnknownCandidate() {
+        return ballotValidator.validate(unknownCandidateBallot);
+    }
+
+    @Benchmark
+    public BallotValidator.Verdict compactValidatorAccepts() {
+        return ballotValidator.validate(compactValidBallot);
+    }
+
+    @Benchmark
+    public BallotValidator.Verdict compactValidatorRejectsUnknownCandidate() {
+        return ballotValidator.validate(compactUnknownCandidateBallot);
+    }
+
+    @Benchmark
+    public Object beanValidationAccepts() {
+        return beanValidator.validate(validBallot);
+    }
+
+    @Benchmark
+    public Object exceptionRejectsUnknownCandidate() {
+        beanValidator.validate(unknownCandidateBallot);
+        try {
+            BulkVoteRequest.VoteItem item = unknownCandidateBallot.getVotes().get(2);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Candidate not found for category " + item.getCategory() +
+                    " and number " + item.getCandidateNumber());
+        } catch (ResponseStatusException e) {
+            return e.getStatusCode();
+        }
+    }
+
+    private static BulkVoteRequest ballot(String[] categories, int[] numbers) {
+        List<BulkVoteRequest.VoteItem> items = new ArrayList<>();
+        for (int i = 0; i < categories.length; i++) {
+            BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+            item.setCategory(categories[i]);
+            item.setCandidateNumber(numbers[i]);
+            items.add(item);
+        }
+        BulkVoteRequest request = new BulkVoteRequest();
+        request.setDeviceId("ip-0123456789abcdef0123456789abcdef");
+        request.setPin("12345");
+        request.setVotes(items);
+        return request;
+    }
+}
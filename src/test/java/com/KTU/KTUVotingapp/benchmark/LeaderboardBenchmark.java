@@ -0,0 +1,105 @@
+package com.KTU.KTUVotingapp.benchmark;
+
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.service.Leaderboard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The incrementally ranked Leaderboard against sorting on read, as the live
+ * admin results did before, for a departmental election with thousands of
+ * candidates:
+ *
+ * mvn -Pjmh -DskipTests verify -Djmh.args="Leaderboard"
+ *
+ * Votes are skewed towards a few candidates, so counts spread out with
+ * long runs of ties at the bottom.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    private static final int TOP = 10;
+    // Power of two, so the next vote is a mask away
+    private static final int VOTE_SEQUENCE = 1 << 16;
+
+    @Param({"10000"})
+    private int candidates;
+
+    private Leaderboard leaderboard;
+    private int[] voteSlots;
+    private int nextVote;
+    private List<ResultDTO.CandidateResultDTO> unranked;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        voteSlots = new int[VOTE_SEQUENCE];
+        for (int i = 0; i < VOTE_SEQUENCE; i++) {
+            voteSlots[i] = skewed(random);
+        }
+        long[] votes = new long[candidates];
+        for (int i = 0; i < candidates * 20; i++) {
+            votes[skewed(random)]++;
+        }
+        leaderboard = new Leaderboard(votes);
+
+        unranked = new ArrayList<>(candidates);
+        for (int slot = 0; slot < candidates; slot++) {
+            unranked.add(new ResultDTO.CandidateResultDTO((long) slot, slot + 1, "Candidate " + slot,
+                    "Department", null, votes[slot], 0.0));
+        }
+    }
+
+    private int skewed(Random random) {
+        return Math.min(random.nextInt(candidates), Math.min(random.nextInt(candidates), random.nextInt(candidates)));
+    }
+
+    @Benchmark
+    public long countVote() {
+        int slot = voteSlots[nextVote++ & (VOTE_SEQUENCE - 1)];
+        leaderboard.increment(slot);
+        return leaderboard.votes(slot);
+    }
+
+    @Benchmark
+    public int topTen() {
+        int sum = 0;
+        for (int position = 0; position < TOP; position++) {
+            sum += leaderboard.slotAt(position);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int rankOfCandidate() {
+        return leaderboard.rankOf(voteSlots[nextVote++ & (VOTE_SEQUENCE - 1)]);
+    }
+
+    // Before: every live admin request sorted all candidates
+    @Benchmark
+    public List<ResultDTO.CandidateResultDTO> sortOnRead() {
+        return unranked.stream()
+                .sorted(Comparator.comparingLong(ResultDTO.CandidateResultDTO::getVoteCount).reversed())
+                .toList();
+    }
+}
@@ -0,0 +1,286 @@
+package com.KTU.KTUVotingapp.benchmark;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ballot insert and results latency for the current election, first with
+ * no other elections in the database and then with ten past elections
+ * loaded into their own votes partitions. With partition pruning the two
+ * runs should match: the current election's indexes and unique checks do
+ * not grow with history.
+ *
+ * Runs the statements VotingService, ResultService and the tally check
+ * issue (same SQL as the repositories), over plain JDBC on one connection,
+ * in a throwaway schema migrated by Flyway. Needs the test class path:
+ *
+ *   mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat cp.txt) \
+ *       com.KTU.KTUVotingapp.benchmark.PartitionedVotesBenchmark [jdbcUrl] [user] [password] [historyVoters]
+ *
+ * historyVoters is the voter count per past election (five votes each,
+ * default 200000, i.e. ten million past votes).
+ */
+public class PartitionedVotesBenchmark {
+
+    private static final String SCHEMA = "partition_benchmark";
+    private static final int HISTORY_ELECTIONS = 10;
+    private static final int CURRENT_VOTERS = 100_000;
+    private static final int BALLOTS = 3000;
+    private static final int RESULT_ROUNDS = 300;
+    private static final int TALLY_ROUNDS = 20;
+    // Category ids seeded by V7__categories.sql
+    private static final short[] CATEGORIES = {1, 2, 3, 4, 5};
+
+    private static final long ELECTION_ID = 1;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/ktuvoting";
+        String user = args.length > 1 ? args[1] : "postgres";
+        String password = args.length > 2 ? args[2] : "kkkkk11111";
+        int historyVoters = args.length > 3 ? Integer.parseInt(args[3]) : 200_000;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        Flyway.configure().dataSource(url, user, password).schemas(SCHEMA).load().migrate();
+
+        try (Connection connection = DriverManager.getConnection(url + "?currentSchema=" + SCHEMA, user, password)) {
+            // The current election already has some turnout
+            loadVotes(connection, ELECTION_ID, CURRENT_VOTERS, "current");
+            analyze(connection);
+
+            measure(connection, "no past elections", "a");
+
+            long started = System.nanoTime();
+            for (int i = 1; i <= HISTORY_ELECTIONS; i++) {
+                long electionId = createElection(connection, "past-" + i);
+                loadVotes(connection, electionId, historyVoters, "past-" + i);
+            }
+            analyze(connection);
+            System.out.printf("%nLoaded %d past elections x %d votes in %.1f s; votes total: %d%n",
+                    HISTORY_ELECTIONS, historyVoters * 5L, (System.nanoTime() - started) / 1e9,
+                    queryLong(connection, "SELECT count(*) FROM votes"));
+
+            measure(connection, HISTORY_ELECTIONS + " past elections", "b");
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET search_path TO public");
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+        }
+    }
+
+    private static void measure(Connection connection, String label, String run) throws SQLException {
+        System.out.printf("%n== %s (election %d: %d votes) ==%n", label, ELECTION_ID,
+                queryLong(connection, "SELECT count(*) FROM votes WHERE election_id = " + ELECTION_ID));
+
+        // Warm up, then time
+        castBallots(connection, run + "-warmup", BALLOTS / 10);
+        print("ballot (5 votes)", castBallots(connection, run, BALLOTS));
+        print("results (5 categories)", results(connection, RESULT_ROUNDS));
+        print("tally recount", tallies(connection, TALLY_ROUNDS));
+
+        System.out.println("partitions read by countByCategory: "
+                + partitionsRead(connection, "SELECT count(*) FROM votes WHERE election_id = "
+                + ELECTION_ID + " AND category_id = 1"));
+        System.out.println("partitions read by existsByVoterAndCategory: "
+                + partitionsRead(connection, "SELECT 1 FROM votes WHERE election_id = " + ELECTION_ID
+                + " AND voter_id = 1 AND category_id = 1 LIMIT 1"));
+    }
+
+    // One transaction per ballot, statement for statement as in VotingService.cast
+    private static long[] castBallots(Connection connection, String run, int ballots) throws SQLException {
+        long[] nanos = new long[ballots];
+        connection.setAutoCommit(false);
+        try (PreparedStatement claim = connection.prepareStatement(
+                     "INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at) "
+                     + "VALUES (?, '12345', ?, TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING");
+             PreparedStatement voterId = connection.prepareStatement(
+                     "SELECT id FROM voters WHERE election_id = ? AND device_id = ?");
+             PreparedStatement candidateId = connection.prepareStatement(
+                     "SELECT id FROM candidates WHERE election_id = ? AND category_id = ? AND candidate_number = ?");
+             PreparedStatement vote = connection.prepareStatement(
+                     "INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at) "
+                     + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING");
+             PreparedStatement increment = connection.prepareStatement(
+                     "UPDATE candidates SET vote_count = vote_count + 1 WHERE id = ?")) {
+            for (int b = 0; b < ballots; b++) {
+                long start = System.nanoTime();
+                String deviceId = "bench-" + run + "-" + b;
+                claim.setLong(1, ELECTION_ID);
+                claim.setString(2, deviceId);
+                claim.executeUpdate();
+                voterId.setLong(1, ELECTION_ID);
+                voterId.setString(2, deviceId);
+                long voter = single(voterId);
+
+                long[] candidates = new long[CATEGORIES.length];
+                for (int c = 0; c < CATEGORIES.length; c++) {
+                    candidateId.setLong(1, ELECTION_ID);
+                    candidateId.setShort(2, CATEGORIES[c]);
+                    candidateId.setInt(3, 1 + (b + c) % 9);
+                    candidates[c] = single(candidateId);
+                    vote.setLong(1, ELECTION_ID);
+                    vote.setLong(2, voter);
+                    vote.setLong(3, candidates[c]);
+                    vote.setShort(4, CATEGORIES[c]);
+                    vote.executeUpdate();
+                }
+                for (long candidate : candidates) {
+                    increment.setLong(1, candidate);
+                    increment.executeUpdate();
+                }
+                connection.commit();
+                nanos[b] = System.nanoTime() - start;
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return nanos;
+    }
+
+    // ResultService.getResultsByCategory for every category, uncached
+    private static long[] results(Connection connection, int rounds) throws SQLException {
+        long[] nanos = new long[rounds];
+        try (PreparedStatement candidates = connection.prepareStatement(
+                     "SELECT * FROM candidates WHERE election_id = ? AND category_id = ? ORDER BY candidate_number");
+             PreparedStatement total = connection.prepareStatement(
+                     "SELECT COALESCE(SUM(total_votes), 0) FROM category_totals WHERE election_id = ? AND category_id = ?")) {
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                for (short category : CATEGORIES) {
+                    candidates.setLong(1, ELECTION_ID);
+                    candidates.setShort(2, category);
+                    drain(candidates);
+                    total.setLong(1, ELECTION_ID);
+                    total.setShort(2, category);
+                    drain(total);
+                }
+                nanos[r] = System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    // VoteRepository.countGroupedByCategoryAndCandidate: the full recount
+    private static long[] tallies(Connection connection, int rounds) throws SQLException {
+        long[] nanos = new long[rounds];
+        try (PreparedStatement tally = connection.prepareStatement(
+                "SELECT category_id, candidate_id, count(*) FROM votes WHERE election_id = ? GROUP BY category_id, candidate_id")) {
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                tally.setLong(1, ELECTION_ID);
+                drain(tally);
+                nanos[r] = System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    private static long createElection(Connection connection, String code) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO elections (code, name) VALUES ('" + code + "', '" + code + "')");
+            long electionId = queryLong(connection, "SELECT id FROM elections WHERE code = '" + code + "'");
+            statement.execute("INSERT INTO candidates (election_id, category_id, candidate_number, name, vote_count) "
+                    + "SELECT " + electionId + ", category_id, candidate_number, name, 0 FROM candidates "
+                    + "WHERE election_id = " + ELECTION_ID);
+            return electionId;
+        }
+    }
+
+    // Five votes per voter; counters filled in one go instead of by the row trigger
+    private static void loadVotes(Connection connection, long electionId, int voters, String devicePrefix)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET synchronous_commit = off");
+            // Skips the FK and counter triggers, which make bulk loads many times slower
+            statement.execute("SET session_replication_role = replica");
+            statement.execute("INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at) "
+                    + "SELECT " + electionId + ", '12345', '" + devicePrefix + "-' || g, true, now(), now() "
+                    + "FROM generate_series(1, " + voters + ") g");
+            statement.execute("INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at) "
+                    + "SELECT v.election_id, v.id, c.id, c.category_id, now() FROM voters v "
+                    + "JOIN candidates c ON c.election_id = v.election_id AND c.candidate_number = (v.id % 9) + 1 "
+                    + "WHERE v.election_id = " + electionId);
+            statement.execute("INSERT INTO category_totals (election_id, category_id, shard, total_votes) "
+                    + "SELECT election_id, category_id, 0, count(*) FROM votes WHERE election_id = " + electionId
+                    + " GROUP BY election_id, category_id "
+                    + "ON CONFLICT (election_id, category_id, shard) "
+                    + "DO UPDATE SET total_votes = category_totals.total_votes + EXCLUDED.total_votes");
+            statement.execute("UPDATE candidates c SET vote_count = t.n FROM "
+                    + "(SELECT candidate_id, count(*) AS n FROM votes WHERE election_id = " + electionId
+                    + " GROUP BY candidate_id) t WHERE c.id = t.candidate_id");
+            statement.execute("SET session_replication_role = origin");
+            statement.execute("SET synchronous_commit = on");
+        }
+    }
+
+    private static void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE");
+        }
+    }
+
+    private static Set<String> partitionsRead(Connection connection, String sql) throws SQLException {
+        Set<String> partitions = new LinkedHashSet<>();
+        Pattern partition = Pattern.compile("votes_election_\\d+");
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            while (plan.next()) {
+                Matcher matcher = partition.matcher(plan.getString(1));
+                while (matcher.find()) {
+                    partitions.add(matcher.group());
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static long single(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void drain(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rs.getObject(1);
+            }
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void print(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        List<String> parts = new ArrayList<>();
+        for (double p : new double[] {0.50, 0.99}) {
+            long value = sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+            parts.add(String.format("p%d %.2f ms", (int) (p * 100), value / 1e6));
+        }
+        System.out.printf("%-24s n=%-5d %s%n", label, nanos.length, String.join("  ", parts));
+    }
+}
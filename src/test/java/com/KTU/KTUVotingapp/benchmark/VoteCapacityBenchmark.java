@@ -0,0 +1,143 @@
+package com.KTU.KTUVotingapp.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent-connection capacity of a running instance: opens N
+ * connections that each send one request at the same moment, while a probe
+ * keeps calling the liveness endpoint. It reports status counts and
+ * latency, plus probe latency, which shows whether request threads stayed
+ * free during the burst.
+ *
+ * Scenarios:
+ *   votes    each connection submits a ballot from a distinct client IP
+ *   results  each connection fetches /api/results/all (results reveal)
+ *
+ * JDK only, so it runs without the test class path:
+ *
+ *   java src/test/java/com/KTU/KTUVotingapp/benchmark/VoteCapacityBenchmark.java [baseUrl] [connections] [scenario]
+ *
+ * Compare an instance started with --voting.async.enabled=false against
+ * the default, or against --spring.profiles.active=reactive. A small
+ * --server.tomcat.threads.max makes the difference visible on a laptop.
+ */
+public class VoteCapacityBenchmark {
+
+    private static final String BALLOT = "{\"pin\":\"12345\",\"votes\":["
+            + "{\"category\":\"KING\",\"candidateNumber\":1},"
+            + "{\"category\":\"QUEEN\",\"candidateNumber\":1},"
+            + "{\"category\":\"PRINCE\",\"candidateNumber\":1},"
+            + "{\"category\":\"PRINCESS\",\"candidateNumber\":1},"
+            + "{\"category\":\"COUPLE\",\"candidateNumber\":1}]}";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        boolean ballots = args.length <= 2 || "votes".equals(args[2]);
+        // Distinct per run, so earlier runs' voters do not turn ballots into 409s
+        int run = (int) (System.currentTimeMillis() / 1000 % 200);
+
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(threads)
+                .build();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> voteLatencies = Collections.synchronizedList(new ArrayList<>());
+        Map<String, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        List<Future<?>> requests = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            String clientIp = "10." + (50 + run % 200) + "." + (i / 250) + "." + (i % 250);
+            HttpRequest request = ballots
+                    ? HttpRequest.newBuilder(URI.create(baseUrl + "/api/voting/bulk-vote"))
+                            .timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .header("X-Forwarded-For", clientIp)
+                            .POST(HttpRequest.BodyPublishers.ofString(BALLOT))
+                            .build()
+                    : HttpRequest.newBuilder(URI.create(baseUrl + "/api/results/all"))
+                            .timeout(Duration.ofSeconds(60))
+                            .header("X-Forwarded-For", clientIp)
+                            .build();
+            requests.add(threads.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                String status;
+                try {
+                    status = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+                } catch (Exception e) {
+                    status = e.getClass().getSimpleName();
+                }
+                voteLatencies.add((System.nanoTime() - begin) / 1_000_000);
+                statuses.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }));
+        }
+
+        AtomicBoolean probing = new AtomicBoolean(true);
+        List<Long> probeLatencies = Collections.synchronizedList(new ArrayList<>());
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/liveness"))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        Future<?> prober = threads.submit(() -> {
+            start.await();
+            while (probing.get()) {
+                long begin = System.nanoTime();
+                try {
+                    client.send(probe, HttpResponse.BodyHandlers.discarding());
+                } catch (Exception e) {
+                    // Counted by its latency
+                }
+                probeLatencies.add((System.nanoTime() - begin) / 1_000_000);
+                Thread.sleep(20);
+            }
+            return null;
+        });
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> request : requests) {
+            request.get();
+        }
+        long wallMillis = (System.nanoTime() - begin) / 1_000_000;
+        probing.set(false);
+        prober.get();
+        threads.shutdown();
+
+        System.out.printf("connections      %d%n", connections);
+        System.out.printf("wall time        %d ms%n", wallMillis);
+        System.out.printf("statuses         %s%n", new TreeMap<>(statuses));
+        System.out.printf("latency          %s%n", percentiles(voteLatencies));
+        System.out.printf("probe latency    %s (%d probes)%n", percentiles(probeLatencies), probeLatencies.size());
+    }
+
+    private static String percentiles(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        if (sorted.isEmpty()) {
+            return "n/a";
+        }
+        Collections.sort(sorted);
+        return String.format("p50 %d ms, p99 %d ms, max %d ms",
+                sorted.get((int) Math.ceil(sorted.size() * 0.50) - 1),
+                sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1),
+                sorted.get(sorted.size() - 1));
+    }
+}
@@ -0,0 +1,203 @@
+package com.KTU.KTUVotingapp.repository;
+
+import com.KTU.KTUVotingapp.support.PostgresTestSchema;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts that the queries issued by the repositories are served by the
+ * indexes created in the Flyway migrations, and that queries on votes read
+ * only the current election's partition. Runs EXPLAIN ANALYZE against a
+ * local PostgreSQL (same defaults as application.properties) in a throwaway
+ * schema; skipped when no database is reachable.
+ */
+class QueryPlanTest {
+
+    private static final PostgresTestSchema SCHEMA = new PostgresTestSchema("query_plan_test");
+
+    private static final int VOTERS = 5000;
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbc;
+    private static Flyway flyway;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void migrateAndLoad() {
+        SCHEMA.assumeAvailable();
+
+        dataSource = new SingleConnectionDataSource(PostgresTestSchema.URL, PostgresTestSchema.USER,
+                PostgresTestSchema.PASSWORD, true);
+        dataSource.setAutoCommit(true);
+        jdbc = new JdbcTemplate(dataSource);
+
+        flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA.getName())
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+        jdbc.execute("SET search_path TO " + SCHEMA.getName());
+
+        // A past election (id 2) with the same candidates and devices, so
+        // that a plan reading more than one partition would show up
+        jdbc.update("INSERT INTO elections (code, name) VALUES ('archive', 'Archived election')");
+        jdbc.update("INSERT INTO candidates (election_id, category_id, candidate_number, name, vote_count) " +
+                "SELECT 2, category_id, candidate_number, name, 0 FROM candidates WHERE election_id = 1");
+
+        // Five votes per voter in each election, spread over its candidates
+        jdbc.update("INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at) " +
+                "SELECT e, '12345', 'device-' || g, true, now(), now() " +
+                "FROM generate_series(1, 2) e CROSS JOIN generate_series(1, ?) g", VOTERS);
+        jdbc.update("INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at) " +
+                "SELECT v.election_id, v.id, c.id, c.category_id, now() FROM voters v " +
+                "JOIN candidates c ON c.election_id = v.election_id AND c.candidate_number = (v.id % 9) + 1");
+        jdbc.execute("VACUUM ANALYZE voters");
+        jdbc.execute("VACUUM ANALYZE votes");
+        jdbc.execute("VACUUM ANALYZE votes_election_1");
+        jdbc.execute("VACUUM ANALYZE votes_election_2");
+        jdbc.execute("VACUUM ANALYZE candidates");
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (flyway != null) {
+            flyway.clean();
+            jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA.getName() + " CASCADE");
+        }
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void countByCategory_isIndexOnlyScan() throws Exception {
+        JsonNode plan = explain("SELECT count(*) FROM votes WHERE election_id = 1 AND category_id = 1");
+
+        assertThat(scannedRelations(plan)).as("plan: %s", plan).containsExactly("votes_election_1");
+        JsonNode scan = findNode(plan, "Index Only Scan");
+        assertThat(scan).as("plan: %s", plan).isNotNull();
+        assertThat(scan.get("Index Name").asText()).isEqualTo("votes_election_1_election_id_category_candidate_id_idx");
+        assertThat(scan.get("Heap Fetches").asLong()).isZero();
+    }
+
+    @Test
+    void tallyByCandidate_readsOnlyTheCoveringIndex() throws Exception {
+        JsonNode plan = explain("SELECT candidate_id, count(*) FROM votes " +
+                "WHERE election_id = 1 AND category_id = 2 GROUP BY candidate_id");
+
+        assertThat(scannedRelations(plan)).as("plan: %s", plan).containsExactly("votes_election_1");
+        assertThat(findNode(plan, "Seq Scan")).as("plan: %s", plan).isNull();
+        JsonNode scan = findNode(plan, "Index Only Scan");
+        assertThat(scan).as("plan: %s", plan).isNotNull();
+        assertThat(scan.get("Index Name").asText()).isEqualTo("votes_election_1_election_id_category_candidate_id_idx");
+    }
+
+    @Test
+    void resultsQuery_usesUniqueKeyWithoutSort() throws Exception {
+        // 45 rows fit in one page, so the planner rightly prefers a seq scan;
+        // force index access to check the key can serve both filter and order.
+        jdbc.execute("SET enable_seqscan = off");
+        jdbc.execute("SET enable_bitmapscan = off");
+        try {
+            JsonNode plan = explain("SELECT * FROM candidates " +
+                    "WHERE election_id = 1 AND category_id = 1 ORDER BY candidate_number");
+
+            assertThat(findNode(plan, "Sort")).as("plan: %s", plan).isNull();
+            JsonNode scan = findNode(plan, "Index Scan");
+            assertThat(scan).as("plan: %s", plan).isNotNull();
+            assertThat(scan.get("Index Name").asText()).isEqualTo("uk_candidate_category_number");
+        } finally {
+            jdbc.execute("RESET enable_seqscan");
+            jdbc.execute("RESET enable_bitmapscan");
+        }
+    }
+
+    @Test
+    void existsByVoterAndCategory_usesUniqueConstraint() throws Exception {
+        Long voterId = jdbc.queryForObject("SELECT min(id) FROM voters WHERE election_id = 1", Long.class);
+        JsonNode plan = explain("SELECT 1 FROM votes " +
+                "WHERE election_id = 1 AND voter_id = " + voterId + " AND category_id = 1 LIMIT 1");
+
+        assertThat(scannedRelations(plan)).as("plan: %s", plan).containsExactly("votes_election_1");
+        JsonNode scan = findNode(plan, "Index Only Scan");
+        assertThat(scan).as("plan: %s", plan).isNotNull();
+        assertThat(scan.get("Index Name").asText()).isEqualTo("votes_election_1_election_id_voter_id_category_key");
+    }
+
+    @Test
+    void findByDeviceId_usesUniqueConstraint() throws Exception {
+        JsonNode plan = explain("SELECT * FROM voters WHERE election_id = 1 AND device_id = 'device-42'");
+
+        JsonNode scan = findNode(plan, "Index Scan");
+        assertThat(scan).as("plan: %s", plan).isNotNull();
+        assertThat(scan.get("Index Name").asText()).isEqualTo("uk_device_id");
+    }
+
+    @Test
+    void redundantIndexesAreGone() {
+        List<String> indexes = jdbc.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = ? ORDER BY indexname", String.class, SCHEMA.getName());
+
+        assertThat(indexes).doesNotContain(
+                "idx_device_id", "idx_has_voted", "idx_voter_id", "idx_voter_category",
+                "idx_category", "idx_candidate_id", "idx_category_number");
+        assertThat(jdbc.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE schemaname = ? AND tablename = 'votes'", Integer.class, SCHEMA.getName()))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void newElection_getsItsOwnPartition() {
+        jdbc.update("INSERT INTO elections (code, name) VALUES ('partition-check', 'Partition check')");
+        Long electionId = jdbc.queryForObject("SELECT id FROM elections WHERE code = 'partition-check'", Long.class);
+
+        List<String> partitions = jdbc.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'votes'::regclass", String.class);
+        assertThat(partitions).contains("votes_election_1", "votes_election_2", "votes_election_" + electionId);
+    }
+
+    private JsonNode explain(String sql) throws Exception {
+        String json = jdbc.queryForObject("EXPLAIN (ANALYZE, FORMAT JSON) " + sql, String.class);
+        return objectMapper.readTree(json).get(0).get("Plan");
+    }
+
+    // Tables and partitions the plan reads, in plan order
+    private static List<String> scannedRelations(JsonNode node) {
+        List<String> relations = new ArrayList<>();
+        if (node.has("Relation Name")) {
+            relations.add(node.get("Relation Name").asText());
+        }
+        node.path("Plans").forEach(child -> relations.addAll(scannedRelations(child)));
+        return relations;
+    }
+
+    private static JsonNode findNode(JsonNode node, String nodeType) {
+        if (nodeType.equals(node.path("Node Type").asText())) {
+            return node;
+        }
+        List<JsonNode> children = new ArrayList<>();
+        node.path("Plans").forEach(children::add);
+        for (JsonNode child : children) {
+            JsonNode found = findNode(child, nodeType);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}
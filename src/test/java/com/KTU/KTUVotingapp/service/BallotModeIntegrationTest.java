@@ -0,0 +1,164 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.support.PostgresTestSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.KTU.KTUVotingapp.support.PostgresTestSchema.eventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ballot mode (voting.ballots.enabled) against local PostgreSQL (same
+ * defaults as application.properties), in a throwaway schema: ballots cast
+ * in votes mode are converted when ballot mode starts, new ballots are one
+ * row each, and the recounted tallies match. Skipped when no database is
+ * reachable.
+ */
+class BallotModeIntegrationTest {
+
+    private static final PostgresTestSchema SCHEMA = new PostgresTestSchema("ballot_mode_test");
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() throws Exception {
+        SCHEMA.assumeAvailable();
+        SCHEMA.drop();
+
+        // Two ballots in the votes layout, then a restart in ballot mode
+        try (ConfigurableApplicationContext votesMode = startContext(false)) {
+            VotingService votingService = votesMode.getBean(VotingService.class);
+            votingService.submitBulkVotes(ballot("converted-1", "11111", "KING", 1, "QUEEN", 2));
+            votingService.submitBulkVotes(ballot("converted-2", "22222", "KING", 1, "COUPLE", 3));
+        }
+        context = startContext(true);
+        context.getBean(BallotTallyService.class).refresh();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (context != null) {
+            context.close();
+            SCHEMA.drop();
+        }
+    }
+
+    @Test
+    void votesRowsAreConvertedToBallots() throws Exception {
+        assertThat(queryLong("SELECT count(*) FROM votes")).isZero();
+        assertThat(queryStrings("SELECT b.selections::text FROM ballots b JOIN voters v ON v.id = b.voter_id "
+                + "WHERE v.device_id LIKE 'converted-%' ORDER BY v.device_id"))
+                .containsExactly("{1,2,0,0,0}", "{1,0,0,0,3}");
+
+        VotingService votingService = context.getBean(VotingService.class);
+        CategoryRegistry categories = context.getBean(CategoryRegistry.class);
+        assertThat(votingService.hasVoted("11111", categories.getByCode("QUEEN"))).isTrue();
+        assertThat(votingService.hasVoted("11111", categories.getByCode("COUPLE"))).isFalse();
+    }
+
+    @Test
+    void ballotIsOneRow_andTalliesAreRecountedFromBallots() throws Exception {
+        VotingService votingService = context.getBean(VotingService.class);
+        ResultService resultService = context.getBean(ResultService.class);
+        Category king = context.getBean(CategoryRegistry.class).getByCode("KING");
+        long ballotsBefore = queryLong("SELECT count(*) FROM ballots");
+        long kingBefore = resultService.getResultsByCategory(king).getTotalVotes();
+
+        BulkVoteRequest request = ballot("ballot-mode-1", "33333", "KING", 2, "PRINCE", 4);
+        assertThat(votingService.castBallot(request, null)).isEqualTo(BallotOutcome.ACCEPTED);
+        assertThat(votingService.castBallot(request, null)).isEqualTo(BallotOutcome.DUPLICATE_DEVICE);
+
+        assertThat(queryLong("SELECT count(*) FROM ballots")).isEqualTo(ballotsBefore + 1);
+        assertThat(queryLong("SELECT count(*) FROM votes")).isZero();
+        assertThat(votingService.hasVoted("33333", king)).isTrue();
+
+        // Not yet tallied, which is not drift
+        assertThat(resultService.checkTallyConsistency().isConsistent()).isTrue();
+        BallotTallyService tallies = context.getBean(BallotTallyService.class);
+        assertThat(tallies.refresh()).isPositive();
+        assertThat(resultService.getResultsByCategory(king).getTotalVotes()).isEqualTo(kingBefore + 1);
+        assertThat(resultService.checkTallyConsistency().isConsistent()).isTrue();
+        // Incremental: the ballot is not added a second time
+        assertThat(tallies.refresh()).isZero();
+        assertThat(resultService.checkTallyConsistency().isConsistent()).isTrue();
+    }
+
+    @Test
+    void liveResultsReloadCountsBallotsNotYetTallied() throws Exception {
+        VotingService votingService = context.getBean(VotingService.class);
+        LiveResultsService liveResults = context.getBean(LiveResultsService.class);
+        Category princess = context.getBean(CategoryRegistry.class).getByCode("PRINCESS");
+        long before = liveTotal(liveResults, princess);
+
+        assertThat(votingService.castBallot(ballot("ballot-mode-2", "44444", "PRINCESS", 1), null))
+                .isEqualTo(BallotOutcome.ACCEPTED);
+        assertThat(eventually(() -> liveTotal(liveResults, princess) == before + 1)).isTrue();
+
+        // vote_count does not have the ballot yet; the reload must not drop it
+        long version = liveResults.getSnapshot().getVersion();
+        liveResults.markStale();
+        assertThat(eventually(() -> liveResults.getSnapshot().getVersion() > version)).isTrue();
+        assertThat(liveTotal(liveResults, princess)).isEqualTo(before + 1);
+    }
+
+    private static long liveTotal(LiveResultsService liveResults, Category category) {
+        return liveResults.getResults().stream()
+                .filter(result -> result.getCategory().equals(category.getCode()))
+                .findFirst()
+                .orElseThrow()
+                .getTotalVotes();
+    }
+
+    private static BulkVoteRequest ballot(String deviceId, String pin, Object... categoryAndNumber) {
+        List<BulkVoteRequest.VoteItem> votes = new ArrayList<>();
+        for (int i = 0; i < categoryAndNumber.length; i += 2) {
+            BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+            item.setCategory((String) categoryAndNumber[i]);
+            item.setCandidateNumber((Integer) categoryAndNumber[i + 1]);
+            votes.add(item);
+        }
+        BulkVoteRequest request = new BulkVoteRequest();
+        request.setDeviceId(deviceId);
+        request.setPin(pin);
+        request.setVotes(votes);
+        return request;
+    }
+
+    private static ConfigurableApplicationContext startContext(boolean ballotsEnabled) {
+        // The scheduled recount is pushed out so the tests drive it
+        return SCHEMA.startContext(
+                "--voting.ballots.enabled=" + ballotsEnabled,
+                "--voting.ballots.tally-interval=1h");
+    }
+
+    private static long queryLong(String sql) throws Exception {
+        try (Connection connection = SCHEMA.connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static List<String> queryStrings(String sql) throws Exception {
+        List<String> values = new ArrayList<>();
+        try (Connection connection = SCHEMA.connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+}
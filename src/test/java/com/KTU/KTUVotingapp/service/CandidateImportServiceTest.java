@@ -0,0 +1,108 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.CandidateDTO;
+import com.KTU.KTUVotingapp.dto.CandidateImportDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidateImportServiceTest {
+
+    @Test
+    void csvWithQuotedFieldsIsParsed() {
+        List<CandidateDTO> rows = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<CandidateImportDTO.RowError> errors = new ArrayList<>();
+
+        CandidateImportService.parseCsv("Category,candidate_number,Name,Department,ImageUrl\r\n"
+                + "KING,1,\"Smith, \"\"Jay\"\"\",CS,/images/king1.jpg\r\n"
+                + "\r\n"
+                + "queen,2,Ann,,\n", rows, rowNumbers, errors);
+
+        assertThat(errors).isEmpty();
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getName()).isEqualTo("Smith, \"Jay\"");
+        assertThat(rows.get(1).getCategory()).isEqualTo("queen");
+        assertThat(rows.get(1).getCandidateNumber()).isEqualTo(2);
+        assertThat(rows.get(1).getImageUrl()).isEmpty();
+        assertThat(rowNumbers).containsExactly(1, 2);
+    }
+
+    @Test
+    void csvRowsThatCannotBeReadAreReported() {
+        List<CandidateDTO> rows = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<CandidateImportDTO.RowError> errors = new ArrayList<>();
+
+        CandidateImportService.parseCsv("category,candidateNumber,name,department,imageUrl\n"
+                + "KING,one,Ann,CS,\n"
+                + "KING,2,Bob\n", rows, rowNumbers, errors);
+
+        assertThat(errors).extracting(CandidateImportDTO.RowError::getRow).containsExactly(1, 2);
+        assertThat(rows).isEmpty();
+    }
+
+    @Test
+    void csvReportsUnreadableAndInvalidRowsTogether() {
+        // Rejected before any statement runs, so the data source is never used
+        CandidateImportService service = new CandidateImportService(
+                new DriverManagerDataSource("jdbc:postgresql://unused/unused"), null,
+                categoryRegistry(), null, null, null, null);
+
+        CandidateImportDTO result = service.importCsv("category,candidateNumber,name,department,imageUrl\n"
+                + "KING,1,Ann,CS,\n"
+                + "JESTER,2,Bob,CS,\n"
+                + "KING,three,Cid,CS,\n"
+                + "KING,1,Dee,CS,\n");
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getInserted()).isZero();
+        assertThat(result.getErrors()).extracting(CandidateImportDTO.RowError::getRow).containsExactly(2, 3, 4);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("Unknown category");
+        assertThat(result.getErrors().get(1).getMessage()).startsWith("candidateNumber is not a number");
+        assertThat(result.getErrors().get(2).getMessage()).startsWith("Duplicate candidate KING 1");
+    }
+
+    @Test
+    void everyInvalidRowIsReported() {
+        CategoryRegistry categoryRegistry = categoryRegistry();
+        List<CandidateDTO> rows = Arrays.asList(
+                candidate("KING", 1, "Ann"),
+                candidate("JESTER", 1, "Bob"),
+                candidate("king", 1, "Cid"),
+                candidate("QUEEN", 0, "Dee"),
+                candidate("QUEEN", 1, " "),
+                null,
+                candidate("QUEEN", 1, "Eve"),
+                // One byte in a binary ballot
+                candidate("QUEEN", 256, "Fay"),
+                // 100 characters once trimmed, as stored
+                candidate("QUEEN", 255, "  " + "G".repeat(100) + "  "));
+        short[] categoryIds = new short[rows.size()];
+
+        List<CandidateImportDTO.RowError> errors = CandidateImportService.validate(rows, categoryRegistry, categoryIds);
+
+        assertThat(errors).extracting(CandidateImportDTO.RowError::getRow).containsExactly(2, 3, 4, 5, 6, 8);
+        assertThat(errors.get(1).getMessage()).startsWith("Duplicate candidate KING 1");
+        assertThat(errors.get(5).getMessage()).isEqualTo("candidateNumber must be 1 to 255");
+        assertThat(categoryIds[0]).isEqualTo((short) 1);
+        assertThat(categoryIds[6]).isEqualTo((short) 2);
+        assertThat(categoryIds[8]).isEqualTo((short) 2);
+    }
+
+    private static CategoryRegistry categoryRegistry() {
+        CategoryRegistry categoryRegistry = new CategoryRegistry(null);
+        categoryRegistry.update(List.of(new Category((short) 1, "KING", "King"), new Category((short) 2, "QUEEN", "Queen")));
+        return categoryRegistry;
+    }
+
+    private static CandidateDTO candidate(String category, int number, String name) {
+        return new CandidateDTO(null, category, number, name, "CS", null, null);
+    }
+}
@@ -0,0 +1,110 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.model.Category;
+import com.KTU.KTUVotingapp.support.PostgresTestSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.KTU.KTUVotingapp.support.PostgresTestSchema.eventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts in cluster mode against one local PostgreSQL
+ * (same defaults as application.properties), in a throwaway schema.
+ * Skipped when no database is reachable.
+ */
+class ClusterSyncIntegrationTest {
+
+    private static final PostgresTestSchema SCHEMA = new PostgresTestSchema("cluster_sync_test");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        SCHEMA.assumeAvailable();
+        SCHEMA.drop();
+
+        nodeA = startNode();
+        nodeB = startNode();
+        for (ConfigurableApplicationContext node : List.of(nodeA, nodeB)) {
+            assertThat(node.getBean(ClusterSyncService.class).awaitListening(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() throws Exception {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+            SCHEMA.drop();
+        }
+    }
+
+    @Test
+    void voteOnOneNode_evictsResultsCachedOnTheOther() throws Exception {
+        ResultService resultsOnB = nodeB.getBean(ResultService.class);
+        LiveResultsService liveResultsOnB = nodeB.getBean(LiveResultsService.class);
+        Category king = nodeB.getBean(CategoryRegistry.class).getByCode("KING");
+        long before = resultsOnB.getResultsByCategory(king).getTotalVotes();
+        assertThat(liveTotal(liveResultsOnB, king)).isEqualTo(before);
+
+        BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+        item.setCategory(king.getCode());
+        item.setCandidateNumber(1);
+        BulkVoteRequest request = new BulkVoteRequest();
+        request.setDeviceId("cluster-test-device");
+        request.setPin("12345");
+        request.setVotes(List.of(item));
+        nodeA.getBean(VotingService.class).submitBulkVotes(request);
+
+        // Without cluster mode node B would serve the cached total for 2 minutes
+        assertThat(eventually(() -> resultsOnB.getResultsByCategory(king).getTotalVotes() == before + 1))
+                .as("node B sees the vote cast on node A")
+                .isTrue();
+        assertThat(eventually(() -> liveTotal(liveResultsOnB, king) == before + 1))
+                .as("node B's live results count the vote from the NOTIFY payload")
+                .isTrue();
+    }
+
+    @Test
+    void failedAttemptsOnOneNode_lockOutTheIpOnTheOther() throws Exception {
+        String ip = "203.0.113.7";
+        RateLimitService rateLimitOnA = nodeA.getBean(RateLimitService.class);
+        RateLimitService rateLimitOnB = nodeB.getBean(RateLimitService.class);
+
+        for (int i = 0; i < 5; i++) {
+            rateLimitOnA.recordAttempt(ip, false);
+        }
+
+        assertThat(eventually(() -> Integer.valueOf(5).equals(rateLimitOnB.getRateLimitInfo(ip).get("attempts"))))
+                .as("node B counts the failures recorded on node A")
+                .isTrue();
+        assertThat(rateLimitOnB.checkRateLimit(ip).isAllowed()).isFalse();
+
+        rateLimitOnA.clearRateLimit(ip);
+        assertThat(eventually(() -> Integer.valueOf(0).equals(rateLimitOnB.getRateLimitInfo(ip).get("attempts"))))
+                .as("clearing on node A clears node B")
+                .isTrue();
+    }
+
+    private static long liveTotal(LiveResultsService liveResults, Category category) {
+        return liveResults.getResults().stream()
+                .filter(result -> result.getCategory().equals(category.getCode()))
+                .findFirst()
+                .orElseThrow()
+                .getTotalVotes();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return SCHEMA.startContext("--voting.cluster.enabled=true");
+    }
+}
@@ -0,0 +1,156 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.BulkVoteRequest;
+import com.KTU.KTUVotingapp.support.PostgresTestSchema;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saturates the read pool with slow read-only transactions and checks that
+ * bulk votes, which use the primary pool, keep their latency. With all
+ * reads sharing the primary pool instead, vote p99 here is several seconds. Runs against
+ * local PostgreSQL (same defaults as application.properties) in a throwaway
+ * schema; skipped when no database is reachable.
+ */
+class ConnectionBulkheadTest {
+
+    private static final PostgresTestSchema SCHEMA = new PostgresTestSchema("bulkhead_test");
+
+    private static final int READ_POOL_SIZE = 4;
+    private static final int READER_THREADS = 12;
+    private static final int VOTER_THREADS = 4;
+    private static final int VOTES_PER_THREAD = 50;
+    private static final long VOTE_P99_BUDGET_MILLIS = 500;
+
+    // Seeded by V7__categories.sql
+    private static final String[] CATEGORIES = {"KING", "QUEEN", "PRINCE", "PRINCESS", "COUPLE"};
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() throws Exception {
+        SCHEMA.assumeAvailable();
+        SCHEMA.drop();
+
+        context = SCHEMA.startContext(
+                // Commit latency here should reflect pool waits, not WAL fsync
+                // stalls left behind by whatever ran against the database before
+                "--spring.datasource.url=" + SCHEMA.getUrl() + "&options=-c%20synchronous_commit=off",
+                "--spring.datasource.hikari.maximum-pool-size=6",
+                "--voting.datasource.read.enabled=true",
+                "--voting.datasource.read.maximum-pool-size=" + READ_POOL_SIZE,
+                "--voting.datasource.read.minimum-idle=" + READ_POOL_SIZE,
+                "--voting.datasource.read.connection-timeout=250ms",
+                "--voting.datasource.admin.enabled=true");
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (context != null) {
+            context.close();
+            SCHEMA.drop();
+        }
+    }
+
+    @Test
+    void readFlood_doesNotStarveVoteCommits() throws Exception {
+        VotingService votingService = context.getBean(VotingService.class);
+        JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        // Warm the vote path so cold-start cost does not land in the percentiles
+        for (int i = 0; i < 20; i++) {
+            votingService.submitBulkVotes(ballot("bulkhead-warmup-" + i));
+        }
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger readsServed = new AtomicInteger();
+        AtomicInteger readsRejected = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS);
+        for (int i = 0; i < READER_THREADS; i++) {
+            readers.submit(() -> {
+                while (flooding.get()) {
+                    try {
+                        // A slow results-style query holding its connection
+                        readOnly.executeWithoutResult(status -> jdbc.execute("SELECT pg_sleep(0.5)"));
+                        readsServed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        readsRejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        Thread.sleep(500);
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService voters = Executors.newFixedThreadPool(VOTER_THREADS);
+        List<Future<?>> voterResults = new ArrayList<>();
+        for (int t = 0; t < VOTER_THREADS; t++) {
+            int thread = t;
+            voterResults.add(voters.submit(() -> {
+                for (int i = 0; i < VOTES_PER_THREAD; i++) {
+                    BulkVoteRequest request = ballot("bulkhead-" + thread + "-" + i);
+                    long start = System.nanoTime();
+                    votingService.submitBulkVotes(request);
+                    latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }));
+        }
+        for (Future<?> result : voterResults) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        flooding.set(false);
+        readers.shutdown();
+        voters.shutdown();
+        assertThat(readers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+
+        assertThat(sorted).hasSize(VOTER_THREADS * VOTES_PER_THREAD);
+        assertThat(readsServed.get()).as("reads kept being served from the read pool").isPositive();
+        assertThat(readsRejected.get()).as("the read pool was saturated").isPositive();
+        assertThat(context.getBean(MeterRegistry.class).get("voting.datasource.bulkhead.rejected")
+                .tag("pool", "read").counter().count()).isPositive();
+        assertThat(p99)
+                .as("vote p99 with the read pool saturated (reads served %d, rejected %d)",
+                        readsServed.get(), readsRejected.get())
+                .isLessThanOrEqualTo(VOTE_P99_BUDGET_MILLIS);
+    }
+
+    private static BulkVoteRequest ballot(String deviceId) {
+        List<BulkVoteRequest.VoteItem> items = new ArrayList<>();
+        for (String category : CATEGORIES) {
+            BulkVoteRequest.VoteItem item = new BulkVoteRequest.VoteItem();
+            item.setCategory(category);
+            item.setCandidateNumber(1 + Math.floorMod(deviceId.hashCode(), 9));
+            items.add(item);
+        }
+        BulkVoteRequest request = new BulkVoteRequest();
+        request.setDeviceId(deviceId);
+        request.setPin("12345");
+        request.setVotes(items);
+        return request;
+    }
+}
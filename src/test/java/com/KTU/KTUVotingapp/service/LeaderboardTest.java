@@ -0,0 +1,67 @@
+package com.KTU.KTUVotingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardTest {
+
+    @Test
+    void startsRankedByVotes_tiesInSlotOrder() {
+        Leaderboard leaderboard = new Leaderboard(new long[]{3, 7, 3, 0});
+
+        assertThat(slots(leaderboard)).containsExactly(1, 0, 2, 3);
+        assertThat(leaderboard.rankOf(1)).isEqualTo(1);
+        assertThat(leaderboard.rankOf(0)).isEqualTo(2);
+        assertThat(leaderboard.rankOf(2)).isEqualTo(2);
+        assertThat(leaderboard.rankOf(3)).isEqualTo(4);
+    }
+
+    @Test
+    void voteMovesCandidatePastEveryoneItOvertakes() {
+        Leaderboard leaderboard = new Leaderboard(new long[]{5, 4, 4, 4});
+
+        leaderboard.increment(3);
+        assertThat(slots(leaderboard)).startsWith(0, 3);
+        assertThat(leaderboard.rankOf(3)).isEqualTo(1);
+        assertThat(leaderboard.rankOf(0)).isEqualTo(1);
+
+        leaderboard.increment(3);
+        assertThat(leaderboard.slotAt(0)).isEqualTo(3);
+        assertThat(leaderboard.votes(3)).isEqualTo(6);
+        assertThat(leaderboard.rankOf(1)).isEqualTo(3);
+    }
+
+    @Test
+    void matchesASortAfterRandomVotes() {
+        Random random = new Random(42);
+        long[] votes = new long[200];
+        Leaderboard leaderboard = new Leaderboard(votes);
+        for (int i = 0; i < 20_000; i++) {
+            // Skewed towards low slots, so counts pull apart and tie
+            int slot = Math.min(random.nextInt(200), random.nextInt(200));
+            leaderboard.increment(slot);
+            votes[slot]++;
+        }
+
+        long[] expected = Arrays.stream(votes).boxed().sorted((a, b) -> Long.compare(b, a))
+                .mapToLong(Long::longValue).toArray();
+        for (int position = 0; position < votes.length; position++) {
+            int slot = leaderboard.slotAt(position);
+            assertThat(leaderboard.votes(slot)).isEqualTo(votes[slot]).isEqualTo(expected[position]);
+            long ahead = Arrays.stream(votes).filter(count -> count > votes[slot]).count();
+            assertThat(leaderboard.rankOf(slot)).isEqualTo(ahead + 1);
+        }
+    }
+
+    private static int[] slots(Leaderboard leaderboard) {
+        int[] slots = new int[leaderboard.size()];
+        for (int position = 0; position < slots.length; position++) {
+            slots[position] = leaderboard.slotAt(position);
+        }
+        return slots;
+    }
+}
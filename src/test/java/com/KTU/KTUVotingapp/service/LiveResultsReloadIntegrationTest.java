@@ -0,0 +1,108 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import com.KTU.KTUVotingapp.support.PostgresTestSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.KTU.KTUVotingapp.support.PostgresTestSchema.eventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Live results reloads interleaved with vote events, against local
+ * PostgreSQL in a throwaway schema: an event that arrives after a reload
+ * which already read its vote is not counted again. Skipped when no
+ * database is reachable.
+ */
+class LiveResultsReloadIntegrationTest {
+
+    private static final PostgresTestSchema SCHEMA = new PostgresTestSchema("live_results_reload_test");
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() throws Exception {
+        SCHEMA.assumeAvailable();
+        SCHEMA.drop();
+        context = SCHEMA.startContext();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (context != null) {
+            context.close();
+            SCHEMA.drop();
+        }
+    }
+
+    @Test
+    void voteEventAfterAReloadThatReadTheVoteIsNotCountedTwice() throws Exception {
+        LiveResultsService liveResults = context.getBean(LiveResultsService.class);
+        CandidateRepository candidates = context.getBean(CandidateRepository.class);
+        Long electionId = context.getBean(ElectionService.class).getCurrentElectionId();
+        Long candidateId = candidates.findIdByCategoryAndCandidateNumber(electionId,
+                context.getBean(CategoryRegistry.class).getByCode("KING").getId(), 1);
+        long before = liveVotes(liveResults, candidateId);
+
+        // Committed before the reload, its event held back until after it
+        long early = commitVote(candidateId);
+        reload(liveResults);
+        assertThat(liveVotes(liveResults, candidateId)).isEqualTo(before + 1);
+
+        // Committed after the reload, so only its event counts it
+        long late = commitVote(candidateId);
+        long version = liveResults.getSnapshot().getVersion();
+        synchronized (liveResults) {
+            // Both before the next publish
+            liveResults.applyVotes(late, List.of(candidateId));
+            liveResults.applyVotes(early, List.of(candidateId));
+        }
+        assertThat(eventually(() -> liveResults.getSnapshot().getVersion() > version)).isTrue();
+        assertThat(liveVotes(liveResults, candidateId)).isEqualTo(before + 2);
+    }
+
+    @Test
+    void snapshotSeesCommittedTransactionsOnly() {
+        LiveResultsService.TransactionSnapshot snapshot = LiveResultsService.TransactionSnapshot.parse("100:105:101,103");
+
+        assertThat(snapshot.sees(99)).isTrue();
+        assertThat(snapshot.sees(100)).isTrue();
+        assertThat(snapshot.sees(101)).isFalse();
+        assertThat(snapshot.sees(102)).isTrue();
+        assertThat(snapshot.sees(103)).isFalse();
+        assertThat(snapshot.sees(105)).isFalse();
+        assertThat(LiveResultsService.TransactionSnapshot.parse("7:7:").sees(7)).isFalse();
+    }
+
+    // What VotingService writes for a vote, without publishing its event
+    private static long commitVote(Long candidateId) {
+        CandidateRepository candidates = context.getBean(CandidateRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        return transaction.execute(status -> {
+            candidates.incrementVoteCount(candidateId);
+            return candidates.currentTransactionId();
+        });
+    }
+
+    private static void reload(LiveResultsService liveResults) throws InterruptedException {
+        long version = liveResults.getSnapshot().getVersion();
+        liveResults.markStale();
+        assertThat(eventually(() -> liveResults.getSnapshot().getVersion() > version)).isTrue();
+    }
+
+    private static long liveVotes(LiveResultsService liveResults, Long candidateId) {
+        return liveResults.getResults().stream()
+                .flatMap(result -> result.getCandidates().stream())
+                .filter(candidate -> candidate.getId().equals(candidateId))
+                .findFirst()
+                .map(ResultDTO.CandidateResultDTO::getVoteCount)
+                .orElseThrow();
+    }
+}
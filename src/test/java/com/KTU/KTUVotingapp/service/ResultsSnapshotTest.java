@@ -0,0 +1,103 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.dto.ResultDTO;
+import com.KTU.KTUVotingapp.model.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultsSnapshotTest {
+
+    private static final Category KING = new Category((short) 1, "KING", "King");
+    private static final Category QUEEN = new Category((short) 2, "QUEEN", "Queen");
+
+    @Test
+    void topAndRanksFollowTheLeaderboards_tiesShareARank() {
+        ResultDTO.CandidateResultDTO king1 = candidate(1L, 1, 4);
+        ResultDTO.CandidateResultDTO king2 = candidate(2L, 2, 9);
+        ResultDTO.CandidateResultDTO queen1 = candidate(3L, 1, 9);
+        ResultDTO.CandidateResultDTO queen2 = candidate(4L, 2, 0);
+        ResultsSnapshot snapshot = new ResultsSnapshot(7,
+                List.of(result("KING", king1, king2), result("QUEEN", queen1, queen2)),
+                List.of(king2, queen1, king1, queen2),
+                List.of(List.of(king2, king1), List.of(queen1, queen2)));
+
+        assertThat(snapshot.getTop(2)).containsExactly(king2, queen1);
+        assertThat(snapshot.getTop(10)).hasSize(4);
+        assertThat(snapshot.getTop(QUEEN, 1)).containsExactly(queen1);
+        assertThat(snapshot.getRank(3L)).isEqualTo(1);
+        assertThat(snapshot.getRank(1L)).isEqualTo(3);
+        assertThat(snapshot.getCategoryRank(1L)).isEqualTo(2);
+        assertThat(snapshot.getRank(99L)).isNull();
+        assertThat(snapshot.getResults(KING).getTotalVotes()).isEqualTo(13L);
+    }
+
+    @Test
+    void newerThanOnlyForOlderVersions() {
+        ResultsSnapshot snapshot = snapshot(7, result("KING"));
+
+        assertThat(snapshot.isNewerThan(6)).isTrue();
+        assertThat(snapshot.isNewerThan(7)).isFalse();
+        assertThat(snapshot.isNewerThan(8)).isFalse();
+    }
+
+    @Test
+    void changesSinceListOnlyCandidatesWhoseCountChanged() {
+        ResultsSnapshot before = snapshot(1,
+                result("KING", candidate(1L, 1, 4), candidate(2L, 2, 9)),
+                result("QUEEN", candidate(3L, 1, 9)));
+        ResultsSnapshot after = snapshot(2,
+                result("KING", candidate(1L, 1, 5), candidate(2L, 2, 9)),
+                result("QUEEN", candidate(3L, 1, 9)));
+
+        List<ResultDTO> changes = after.changesSince(before);
+
+        assertThat(changes).extracting(ResultDTO::getCategory).containsExactly("KING");
+        assertThat(changes.get(0).getTotalVotes()).isEqualTo(14L);
+        assertThat(changes.get(0).getCandidates()).extracting(ResultDTO.CandidateResultDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void changesSinceIsNullWhenCandidatesDiffer() {
+        ResultsSnapshot before = snapshot(1, result("KING", candidate(1L, 1, 4)));
+        ResultsSnapshot after = snapshot(2, result("KING", candidate(1L, 1, 4), candidate(2L, 2, 0)));
+
+        assertThat(after.changesSince(before)).isNull();
+    }
+
+    @Test
+    void snapshotCannotBeModified() {
+        ResultsSnapshot snapshot = snapshot(1, result("KING", candidate(1L, 1, 1)));
+
+        assertThatThrownBy(() -> snapshot.getLeaderboard().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.getResults(KING).getCandidates().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    // Leaderboards left unranked; these tests do not read them
+    private static ResultsSnapshot snapshot(long version, ResultDTO... results) {
+        List<ResultDTO.CandidateResultDTO> all = new ArrayList<>();
+        List<List<ResultDTO.CandidateResultDTO>> byCategory = new ArrayList<>();
+        for (ResultDTO result : results) {
+            all.addAll(result.getCandidates());
+            byCategory.add(result.getCandidates());
+        }
+        return new ResultsSnapshot(version, List.of(results), all, byCategory);
+    }
+
+    private static ResultDTO result(String category, ResultDTO.CandidateResultDTO... candidates) {
+        long total = 0;
+        for (ResultDTO.CandidateResultDTO candidate : candidates) {
+            total += candidate.getVoteCount();
+        }
+        return new ResultDTO(category, total, List.of(candidates));
+    }
+
+    private static ResultDTO.CandidateResultDTO candidate(Long id, int number, long votes) {
+        return new ResultDTO.CandidateResultDTO(id, number, "Candidate " + id, "CS", null, votes, 0.0);
+    }
+}
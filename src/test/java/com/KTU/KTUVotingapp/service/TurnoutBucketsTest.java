@@ -0,0 +1,49 @@
+package com.KTU.KTUVotingapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TurnoutBucketsTest {
+
+    // Category indexes, as with the seeded categories
+    private static final int KING = 0;
+    private static final int QUEEN = 1;
+    private static final int COUPLE = 4;
+
+    @Test
+    void countsLandInTheirBucketPerCategory() {
+        TurnoutBuckets minutes = new TurnoutBuckets(60, 10, 5);
+        minutes.add(600, KING, 1);
+        minutes.add(659, KING, 2);
+        minutes.add(660, QUEEN, 5);
+
+        long[][] window = minutes.window(10, 11);
+
+        assertThat(window[KING]).containsExactly(3, 0);
+        assertThat(window[QUEEN]).containsExactly(0, 5);
+        assertThat(window[COUPLE]).containsExactly(0, 0);
+    }
+
+    @Test
+    void reusedSlotForgetsThePreviousLap() {
+        TurnoutBuckets seconds = new TurnoutBuckets(1, 4, 5);
+        seconds.add(1, KING, 7);
+        // Same slot (5 mod 4 == 1 mod 4), one lap later
+        seconds.add(5, QUEEN, 2);
+
+        assertThat(seconds.window(1, 1)[KING]).containsExactly(0);
+        assertThat(seconds.window(5, 5)[KING]).containsExactly(0);
+        assertThat(seconds.window(5, 5)[QUEEN]).containsExactly(2);
+    }
+
+    @Test
+    void votesOlderThanTheRingAreDropped() {
+        TurnoutBuckets seconds = new TurnoutBuckets(1, 4, 5);
+        seconds.add(5, KING, 1);
+        // Arrives later (e.g. from the startup rebuild) but belongs to an earlier lap
+        seconds.add(1, KING, 9);
+
+        assertThat(seconds.window(2, 5)[KING]).containsExactly(0, 0, 0, 1);
+    }
+}
@@ -0,0 +1,195 @@
+package com.KTU.KTUVotingapp.service;
+
+import com.KTU.KTUVotingapp.support.PostgresTestSchema;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports 5 million synthetic votes from a child JVM capped at a 32 MB heap,
+ * far too small to hold the votes as entities (or as a list of rows), so the
+ * export only finishes if it really streams. Runs against local PostgreSQL
+ * (same defaults as application.properties) in a throwaway schema; skipped
+ * when no database is reachable.
+ */
+class VoteExportServiceTest {
+
+    private static final PostgresTestSchema SCHEMA = new PostgresTestSchema("export_test");
+
+    private static final int VOTERS = 1_000_000;
+    private static final long VOTES = VOTERS * 5L;
+    private static final String CHILD_HEAP = "-Xmx32m";
+
+    @BeforeAll
+    static void seed() throws Exception {
+        SCHEMA.assumeAvailable();
+        SCHEMA.drop();
+        Flyway.configure()
+                .dataSource(PostgresTestSchema.URL, PostgresTestSchema.USER, PostgresTestSchema.PASSWORD)
+                .schemas(SCHEMA.getName())
+                .load()
+                .migrate();
+
+        // One vote per category per voter, for the first candidate of each category
+        try (Connection connection = SCHEMA.connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET synchronous_commit = off");
+            // Skip the per-row foreign key triggers: with them, loading 5M votes
+            // takes tens of minutes; the generated rows are consistent anyway
+            statement.execute("SET session_replication_role = replica");
+            statement.execute("INSERT INTO voters (election_id, pin, device_id, has_voted, created_at, voted_at)"
+                    + " SELECT 1, '12345', 'export-device-' || g, true, now(), now()"
+                    + " FROM generate_series(1, " + VOTERS + ") g");
+            statement.execute("INSERT INTO votes (election_id, voter_id, candidate_id, category_id, created_at)"
+                    + " SELECT 1, v.id, c.id, c.category_id, now()"
+                    + " FROM voters v CROSS JOIN candidates c WHERE c.candidate_number = 1");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void drop() throws Exception {
+        if (SCHEMA.isAvailable()) {
+            SCHEMA.drop();
+        }
+    }
+
+    @Test
+    void csvExport_streamsFiveMillionRowsInSmallHeap() throws Exception {
+        List<String> output = exportInChildJvm("CSV", false);
+
+        assertThat(output).contains("rows=" + VOTES);
+        assertThat(output).contains("vote_id,voter_id,device_id,category,candidate_number,candidate_name,created_at");
+        assertThat(output).anyMatch(line -> line.matches("\\d+,\\d+,export-device-\\d+,KING,1,King Candidate 1,\\S+"));
+    }
+
+    @Test
+    void gzippedNdjsonExport_streamsFiveMillionRowsInSmallHeap() throws Exception {
+        List<String> output = exportInChildJvm("NDJSON", true);
+
+        assertThat(output).contains("rows=" + VOTES);
+        assertThat(output).anyMatch(line -> line.startsWith("{\"voteId\":")
+                && line.contains("\"candidateName\":\"King Candidate 1\""));
+    }
+
+    private static List<String> exportInChildJvm(String format, boolean gzip) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, CHILD_HEAP, "-cp", System.getProperty("java.class.path"),
+                Exporter.class.getName(), SCHEMA.getUrl(), PostgresTestSchema.USER, PostgresTestSchema.PASSWORD,
+                format, String.valueOf(gzip))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        return output.lines().toList();
+    }
+
+    /**
+     * Child JVM entry point: exports to a byte-counting sink and prints the
+     * row count, the first lines written and the peak heap used.
+     */
+    public static class Exporter {
+
+        public static void main(String[] args) throws Exception {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(args[0], args[1], args[2]);
+            VoteExportService service = new VoteExportService(dataSource,
+                    new DataSourceTransactionManager(dataSource), 5000);
+            VoteExportService.Format format = VoteExportService.Format.valueOf(args[3]);
+            boolean gzip = Boolean.parseBoolean(args[4]);
+
+            HeadCapture sink = new HeadCapture();
+            long rows;
+            if (gzip) {
+                // Count the compressed bytes, capture the first uncompressed lines
+                GZIPOutputStream compressed = new GZIPOutputStream(new HeadCapture(), 64 * 1024);
+                rows = service.export(1L, format, new TeeOutputStream(compressed, sink));
+                compressed.finish();
+            } else {
+                rows = service.export(1L, format, sink);
+            }
+
+            System.out.println("rows=" + rows);
+            System.out.println(sink.head().toString(StandardCharsets.UTF_8));
+            long peakHeap = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peakHeap += pool.getPeakUsage().getUsed();
+                }
+            }
+            System.out.println("peak-heap-mb=" + peakHeap / (1024 * 1024));
+        }
+    }
+
+    // Keeps the first KB written and discards the rest
+    private static class HeadCapture extends OutputStream {
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (head.size() < 1024) {
+                head.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int room = 1024 - head.size();
+            if (room > 0) {
+                head.write(b, off, Math.min(room, len));
+            }
+        }
+
+        ByteArrayOutputStream head() {
+            return head;
+        }
+    }
+
+    private static class TeeOutputStream extends OutputStream {
+        private final List<OutputStream> targets = new ArrayList<>();
+
+        TeeOutputStream(OutputStream... targets) {
+            this.targets.addAll(List.of(targets));
+        }
+
+        @Override
+        public void write(int b) throws java.io.IOException {
+            for (OutputStream target : targets) {
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws java.io.IOException {
+            for (OutputStream target : targets) {
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws java.io.IOException {
+            for (OutputStream target : targets) {
+                target.flush();
+            }
+        }
+    }
+}
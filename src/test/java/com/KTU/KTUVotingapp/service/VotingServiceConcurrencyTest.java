@@ -4,6 +4,7 @@ import com.KTU.KTUVotingapp.dto.VoteRequest;
 import com.KTU.KTUVotingapp.model.Candidate;
 import com.KTU.KTUVotingapp.model.Category;
 import com.KTU.KTUVotingapp.repository.CandidateRepository;
+import com.KTU.KTUVotingapp.repository.CategoryRepository;
 import com.KTU.KTUVotingapp.repository.VoteRepository;
 import com.KTU.KTUVotingapp.repository.VoterRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,7 +23,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(properties = {
-        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+        // txid_current() stands in for PostgreSQL's; only its presence matters here
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+                + ";INIT=CREATE ALIAS IF NOT EXISTS TXID_CURRENT FOR 'java.lang.System.nanoTime'",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.flyway.enabled=false",
         "spring.jpa.hibernate.ddl-auto=create-drop",
         "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
 })
@@ -41,6 +46,17 @@ public class VotingServiceConcurrencyTest {
     @Autowired
     private CandidateRepository candidateRepository;
 
+    @Autowired
+    private ElectionService electionService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    private Category king;
+
     @BeforeEach
     void setUp() {
         // Ensure DB clean
@@ -48,8 +64,14 @@ public class VotingServiceConcurrencyTest {
         voterRepository.deleteAll();
         candidateRepository.deleteAll();
 
+        // Hibernate-created schema: no V7 seed rows, so add the category the
+        // test votes in and reload the registry (the warm-up already read it)
+        king = categoryRepository.save(new Category((short) 1, "KING", "King"));
+        categoryRegistry.update(categoryRepository.findAllByOrderByIdAsc());
+
         // Create candidate for CATEGORY KING with candidateNumber 1
-        Candidate candidate = new Candidate(Category.KING, 1, "Test Candidate", "Dept", null);
+        Candidate candidate = new Candidate(king.getId(), 1, "Test Candidate", "Dept", null);
+        candidate.setElectionId(electionService.getCurrentElectionId());
         candidateRepository.save(candidate);
     }
 
@@ -73,7 +95,7 @@ public class VotingServiceConcurrencyTest {
                     VoteRequest req = new VoteRequest();
                     req.setDeviceId(deviceId);
                     req.setPin(pin);
-                    req.setCategory(Category.KING);
+                    req.setCategory("KING");
                     req.setCandidateNumber(1);
                     try {
                         votingService.submitVote(req);
@@ -101,7 +123,8 @@ public class VotingServiceConcurrencyTest {
         }
 
         // Verify only one vote exists for candidate id 1
-        Candidate candidate = candidateRepository.findByCategoryAndCandidateNumber(Category.KING, 1).orElseThrow();
+        Candidate candidate = candidateRepository.findByElectionIdAndCategoryIdAndCandidateNumber(
+                electionService.getCurrentElectionId(), king.getId(), 1).orElseThrow();
         long votesForCandidate = voteRepository.countByCandidateId(candidate.getId());
         assertThat(votesForCandidate).isEqualTo(1);
 
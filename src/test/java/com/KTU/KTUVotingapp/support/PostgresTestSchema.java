@@ -0,0 +1,105 @@
+package com.KTU.KTUVotingapp.support;
+
+import com.KTU.KTUVotingapp.KtuVotingappApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * A throwaway schema in the local PostgreSQL that the integration tests run
+ * against. The defaults match application.properties; override them with
+ * -Dit.db.url, -Dit.db.user and -Dit.db.password. Tests that call
+ * {@link #assumeAvailable()} are skipped when no database is reachable.
+ */
+public final class PostgresTestSchema {
+
+    public static final String URL = System.getProperty("it.db.url", "jdbc:postgresql://localhost:5432/ktuvoting");
+    public static final String USER = System.getProperty("it.db.user", "postgres");
+    public static final String PASSWORD = System.getProperty("it.db.password", "kkkkk11111");
+
+    private final String name;
+
+    public PostgresTestSchema(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** JDBC URL with this schema as the current schema. */
+    public String getUrl() {
+        return URL + "?currentSchema=" + name;
+    }
+
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(getUrl(), USER, PASSWORD);
+    }
+
+    public boolean isAvailable() {
+        try (Connection ignored = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public void assumeAvailable() {
+        assumeTrue(isAvailable(), "Local PostgreSQL not reachable at " + URL);
+    }
+
+    public void drop() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + name + " CASCADE");
+        }
+    }
+
+    /**
+     * The application without a web server, migrated by Flyway into this
+     * schema, with startup warmup off. Each "--key=value" argument replaces
+     * the default for that key.
+     */
+    public ConfigurableApplicationContext startContext(String... args) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", getUrl());
+        properties.put("spring.datasource.username", USER);
+        properties.put("spring.datasource.password", PASSWORD);
+        properties.put("spring.flyway.schemas", name);
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.datasource.hikari.maximum-pool-size", "4");
+        properties.put("voting.startup.warmup.enabled", "false");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            properties.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new SpringApplicationBuilder(KtuVotingappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    /** Polls the condition for up to ten seconds. */
+    public static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+}